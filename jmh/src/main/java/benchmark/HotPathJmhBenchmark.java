@@ -0,0 +1,210 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// the company's hot paths at each portfolio size, steady operations are timed per call, the ones that grow the portfolio
+// or use up contracts in single shots of BATCH calls on a portfolio rebuilt for every iteration, so the heap does not grow
+// with the run time
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HotPathJmhBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int HOLDERS = 10_000;
+    private static final int BATCH = 10_000;
+
+    @State(Scope.Benchmark)
+    public abstract static class Company {
+        @Param({"1000", "10000", "100000", "1000000"})
+        int size;
+
+        InsuranceCompany company;
+        Person[] holders;
+        List<SingleVehicleContract> contracts;
+        int next;
+
+        void build() {
+            company = new InsuranceCompany(START);
+            holders = new Person[HOLDERS];
+            for (int i = 0; i < HOLDERS; i++) {
+                holders[i] = new Person(String.format("%08d", i));
+            }
+            contracts = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                contracts.add(insureVehicle(i));
+            }
+            next = size;
+        }
+
+        SingleVehicleContract insureVehicle(int index) {
+            return company.insureVehicle("c" + index, null, holders[index % HOLDERS], 100, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(plate(index), 20_000));
+        }
+
+        TravelContract insurePersons(int index) {
+            Set<Person> persons = new LinkedHashSet<>(Arrays.asList(holders[index % HOLDERS], holders[(index + 1) % HOLDERS]));
+            return company.insurePersons("t" + index, holders[index % HOLDERS], 100, PremiumPaymentFrequency.MONTHLY, persons);
+        }
+
+        // a contract spread over the portfolio, so consecutive calls do not hit the same cache lines
+        SingleVehicleContract spread() {
+            return contracts.get((int) (next++ * 7919L % contracts.size()));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Portfolio extends Company {
+        @Setup(Level.Trial)
+        public void setUp() {
+            build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class GrowingPortfolio extends Company {
+        @Setup(Level.Iteration)
+        public void setUp() {
+            build();
+        }
+    }
+
+    // a travel claim deactivates its contract, so every iteration gets BATCH fresh travel contracts on top of the portfolio
+    @State(Scope.Benchmark)
+    public static class TravelClaims extends Company {
+        List<TravelContract> travelContracts;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            build();
+            travelContracts = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                travelContracts.add(insurePersons(size + i));
+            }
+            next = 0;
+        }
+    }
+
+    // legal and natural person ids alternate, so both validation paths are timed
+    @State(Scope.Benchmark)
+    public static class PersonIds {
+        String[] ids;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(1);
+            ids = new String[1024];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i % 2 == 0 ? String.format("%08d", random.nextInt(100_000_000)) : "8351068242";
+            }
+        }
+    }
+
+    // every holder's vehicles are children of one master, so a payment is spread over size / 10k children
+    @State(Scope.Benchmark)
+    public static class Fleets extends Company {
+        List<MasterVehicleContract> masters;
+        int amount;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            build();
+            Person beneficiary = new Person("8351068242");
+            amount = 100 * Math.max(1, size / HOLDERS);
+            masters = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int holder = i % HOLDERS;
+                if (masters.size() <= holder) masters.add(company.createMasterVehicleContract("m" + holder, beneficiary, holders[holder]));
+                company.moveSingleVehicleContractToMasterVehicleContract(masters.get(holder), contracts.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SingleVehicleContract insureVehicle(GrowingPortfolio portfolio) {
+        return portfolio.insureVehicle(portfolio.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TravelContract insurePersons(GrowingPortfolio portfolio) {
+        return portfolio.insurePersons(portfolio.next++);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void pay(Portfolio portfolio) {
+        portfolio.company.getHandler().pay(portfolio.spread(), 50);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void payMaster(Fleets fleets) {
+        fleets.company.getHandler().pay(fleets.masters.get(fleets.next++ % fleets.masters.size()), fleets.amount);
+    }
+
+    // the damage stays below the total loss threshold, so contracts remain active across calls
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void processVehicleClaim(Portfolio portfolio) {
+        portfolio.company.processClaim(portfolio.spread(), 1_000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void processTravelClaim(TravelClaims claims) {
+        TravelContract contract = claims.travelContracts.get(claims.next++);
+        claims.company.processClaim(contract, Collections.singleton(contract.getPolicyHolder()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Person newPerson(PersonIds ids) {
+        return new Person(ids.ids[ids.next++ & (ids.ids.length - 1)]);
+    }
+
+    // every contract is monthly, so each call bills the whole portfolio once
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void chargePremiumsOnContracts(Portfolio portfolio) {
+        InsuranceCompany company = portfolio.company;
+        company.setCurrentTime(company.getCurrentTime().plusMonths(1));
+        company.chargePremiumsOnContracts();
+    }
+
+    // the plates of ContractRegistryBenchmark, which is compiled with the tests and not visible here
+    static String plate(int index) {
+        char[] plate = new char[7];
+        for (int i = 6; i >= 0; i--) {
+            plate[i] = Character.toUpperCase(Character.forDigit(index % 36, 36));
+            index /= 36;
+        }
+        return new String(plate);
+    }
+}
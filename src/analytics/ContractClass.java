@@ -0,0 +1,18 @@
+package analytics;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.TravelContract;
+
+public enum ContractClass {
+    SINGLE_VEHICLE,
+    TRAVEL,
+    MASTER_VEHICLE;
+
+    public static ContractClass of(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+        if (contract instanceof MasterVehicleContract) return MASTER_VEHICLE;
+        if (contract instanceof TravelContract) return TRAVEL;
+        return SINGLE_VEHICLE;
+    }
+}
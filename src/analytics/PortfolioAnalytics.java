@@ -0,0 +1,245 @@
+package analytics;
+
+import company.CompanyListener;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.AbstractVehicleContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// keeps the portfolio metrics of one company up to date from its notifications, so reading them does not scan the contracts,
+// changes made on contracts directly (setInactive, setCoverageAmount, payment data setters) have to be passed to refresh
+public class PortfolioAnalytics implements CompanyListener {
+    private static final int CLASSES = ContractClass.values().length;
+    private static final int FREQUENCIES = PremiumPaymentFrequency.values().length;
+
+    private final InsuranceCompany company;
+    // what each contract currently adds to the aggregates, by contract number as off-heap contracts are materialized per lookup,
+    // the company keeps numbers unique, children of masters included
+    private final ConcurrentHashMap<String, Contribution> contributions = new ConcurrentHashMap<>();
+    private final LongAdder[] contracts = adders(CLASSES);
+    private final LongAdder[] activeContracts = adders(CLASSES);
+    private final LongAdder[] coverageExposure = adders(CLASSES);
+    private final LongAdder[] outstandingBalance = adders(FREQUENCIES);
+    private final LongAdder paidOutAmount = new LongAdder();
+
+    private PortfolioAnalytics(InsuranceCompany company) {
+        this.company = company;
+    }
+
+    // the company must not change while the aggregates are seeded
+    public static PortfolioAnalytics attach(InsuranceCompany company) {
+        if (company == null) throw new IllegalArgumentException("Company cannot be null!");
+
+        PortfolioAnalytics analytics = new PortfolioAnalytics(company);
+        forEachContract(company, analytics::update);
+        analytics.paidOutAmount.add(paidOutAmountOf(company));
+        company.addListener(analytics);
+        return analytics;
+    }
+
+    public void detach() {
+        company.removeListener(this);
+    }
+
+    public InsuranceCompany getCompany() {
+        return company;
+    }
+
+    public PortfolioSnapshot snapshot() {
+        return new PortfolioSnapshot(sums(contracts), sums(activeContracts), sums(coverageExposure), sums(outstandingBalance), paidOutAmount.sum());
+    }
+
+    // the same metrics computed from every contract and person of the company
+    public static PortfolioSnapshot recompute(InsuranceCompany company) {
+        if (company == null) throw new IllegalArgumentException("Company cannot be null!");
+
+        long[] contracts = new long[CLASSES];
+        long[] activeContracts = new long[CLASSES];
+        long[] coverageExposure = new long[CLASSES];
+        long[] outstandingBalance = new long[FREQUENCIES];
+        forEachContract(company, contract -> {
+            int contractClass = ContractClass.of(contract).ordinal();
+            contracts[contractClass]++;
+            if (contract.isActive()) {
+                activeContracts[contractClass]++;
+                coverageExposure[contractClass] += contract.getCoverageAmount();
+            }
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            if (paymentData != null) outstandingBalance[paymentData.getPremiumPaymentFrequency().ordinal()] += paymentData.getOutstandingBalance();
+        });
+        return new PortfolioSnapshot(contracts, activeContracts, coverageExposure, outstandingBalance, paidOutAmountOf(company));
+    }
+
+    // the differences between the running aggregates and a full recomputation, empty when they agree
+    public List<String> checkConsistency() {
+        return snapshot().differencesFrom(recompute(company));
+    }
+
+    // takes the current state of the contract, its master and its children into the aggregates
+    public void refresh(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+
+        update(contract);
+        if (contract instanceof SingleVehicleContract && ((SingleVehicleContract) contract).getMasterVehicleContract() != null) {
+            update(((SingleVehicleContract) contract).getMasterVehicleContract());
+        }
+        if (contract instanceof MasterVehicleContract) {
+            for (SingleVehicleContract childContract : ((MasterVehicleContract) contract).getChildContracts()) {
+                update(childContract);
+            }
+        }
+    }
+
+    private void update(AbstractContract contract) {
+        Contribution contribution = contributions.get(contract.getContractNumber());
+        if (contribution == null) contribution = contributions.computeIfAbsent(contract.getContractNumber(), contractNumber -> new Contribution());
+        contribution.update(this, contract);
+    }
+
+    @Override
+    public void vehicleInsured(SingleVehicleContract contract) {
+        refresh(contract);
+    }
+
+    @Override
+    public void personsInsured(TravelContract contract) {
+        refresh(contract);
+    }
+
+    @Override
+    public void masterVehicleContractCreated(MasterVehicleContract contract) {
+        refresh(contract);
+    }
+
+    @Override
+    public void contractMoved(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        refresh(masterVehicleContract);
+    }
+
+    @Override
+    public void premiumsCharged(AbstractContract contract) {
+        refresh(contract);
+    }
+
+    @Override
+    public void paymentReceived(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        refresh(contract);
+    }
+
+    @Override
+    public void claimProcessed(SingleVehicleContract contract, int expectedDamage) {
+        paidOutAmount.add(contract.getCoverageAmount());
+        refresh(contract);
+    }
+
+    @Override
+    public void claimProcessed(TravelContract contract, Set<Person> affectedPersons) {
+        paidOutAmount.add((long) (contract.getCoverageAmount() / affectedPersons.size()) * affectedPersons.size());
+        refresh(contract);
+    }
+
+    // registered contracts and the children of registered masters
+    private static void forEachContract(InsuranceCompany company, Consumer<AbstractContract> action) {
+        for (AbstractContract contract : company.getContracts()) {
+            action.accept(contract);
+            if (contract instanceof MasterVehicleContract) {
+                for (SingleVehicleContract childContract : ((MasterVehicleContract) contract).getChildContracts()) {
+                    action.accept(childContract);
+                }
+            }
+        }
+    }
+
+    // persons insured with other companies as well bring their payouts from there along
+    private static long paidOutAmountOf(InsuranceCompany company) {
+        Set<Person> persons = Collections.newSetFromMap(new IdentityHashMap<>());
+        forEachContract(company, contract -> {
+            persons.add(contract.getPolicyHolder());
+            if (contract instanceof AbstractVehicleContract && ((AbstractVehicleContract) contract).getBeneficiary() != null) {
+                persons.add(((AbstractVehicleContract) contract).getBeneficiary());
+            }
+            if (contract instanceof TravelContract) persons.addAll(((TravelContract) contract).getInsuredPersons());
+        });
+
+        long paidOutAmount = 0;
+        for (Person person : persons) {
+            paidOutAmount += person.getPaidOutAmount();
+        }
+        return paidOutAmount;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    // updated in place, so the notification of a payment or a charge does not allocate
+    private static final class Contribution {
+        private boolean counted;
+        private int contractClass;
+        private boolean active;
+        private int coverageAmount;
+        // -1 for masters, their balance is kept by the children
+        private int frequency;
+        private int outstandingBalance;
+
+        synchronized void update(PortfolioAnalytics analytics, AbstractContract contract) {
+            int contractClass = ContractClass.of(contract).ordinal();
+            boolean active = contract.isActive();
+            int coverageAmount = contract.getCoverageAmount();
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            int frequency = paymentData == null ? -1 : paymentData.getPremiumPaymentFrequency().ordinal();
+            int outstandingBalance = paymentData == null ? 0 : paymentData.getOutstandingBalance();
+
+            // payments and charges change nothing but the balance
+            if (counted && contractClass == this.contractClass && active == this.active && coverageAmount == this.coverageAmount && frequency == this.frequency) {
+                if (frequency >= 0 && outstandingBalance != this.outstandingBalance) analytics.outstandingBalance[frequency].add(outstandingBalance - this.outstandingBalance);
+                this.outstandingBalance = outstandingBalance;
+                return;
+            }
+
+            if (counted) apply(analytics, -1);
+            this.contractClass = contractClass;
+            this.active = active;
+            this.coverageAmount = coverageAmount;
+            this.frequency = frequency;
+            this.outstandingBalance = outstandingBalance;
+            this.counted = true;
+            apply(analytics, 1);
+        }
+
+        private void apply(PortfolioAnalytics analytics, int sign) {
+            analytics.contracts[contractClass].add(sign);
+            if (active) {
+                analytics.activeContracts[contractClass].add(sign);
+                analytics.coverageExposure[contractClass].add((long) sign * coverageAmount);
+            }
+            if (frequency >= 0) analytics.outstandingBalance[frequency].add((long) sign * outstandingBalance);
+        }
+    }
+}
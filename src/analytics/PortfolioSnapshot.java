@@ -0,0 +1,98 @@
+package analytics;
+
+import payment.PremiumPaymentFrequency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// the standard metrics at one point in time, children of master contracts are counted as single vehicle contracts
+public class PortfolioSnapshot {
+    private final long[] contracts;
+    private final long[] activeContracts;
+    private final long[] coverageExposure;
+    private final long[] outstandingBalance;
+    private final long paidOutAmount;
+
+    PortfolioSnapshot(long[] contracts, long[] activeContracts, long[] coverageExposure, long[] outstandingBalance, long paidOutAmount) {
+        this.contracts = contracts;
+        this.activeContracts = activeContracts;
+        this.coverageExposure = coverageExposure;
+        this.outstandingBalance = outstandingBalance;
+        this.paidOutAmount = paidOutAmount;
+    }
+
+    public long getContracts(ContractClass contractClass) {
+        return contracts[contractClass.ordinal()];
+    }
+
+    public long getContracts() {
+        return sum(contracts);
+    }
+
+    public long getActiveContracts(ContractClass contractClass) {
+        return activeContracts[contractClass.ordinal()];
+    }
+
+    public long getActiveContracts() {
+        return sum(activeContracts);
+    }
+
+    // the coverage of the active contracts
+    public long getCoverageExposure(ContractClass contractClass) {
+        return coverageExposure[contractClass.ordinal()];
+    }
+
+    public long getCoverageExposure() {
+        return sum(coverageExposure);
+    }
+
+    // inactive contracts still owe their balance, so they are included
+    public long getOutstandingBalance(PremiumPaymentFrequency frequency) {
+        return outstandingBalance[frequency.ordinal()];
+    }
+
+    public long getOutstandingBalance() {
+        return sum(outstandingBalance);
+    }
+
+    public long getPaidOutAmount() {
+        return paidOutAmount;
+    }
+
+    // one line per metric that differs, empty when both snapshots agree
+    public List<String> differencesFrom(PortfolioSnapshot other) {
+        if (other == null) throw new IllegalArgumentException("Snapshot cannot be null!");
+
+        List<String> differences = new ArrayList<>();
+        for (ContractClass contractClass : ContractClass.values()) {
+            int i = contractClass.ordinal();
+            compare(differences, "contracts[" + contractClass + "]", contracts[i], other.contracts[i]);
+            compare(differences, "activeContracts[" + contractClass + "]", activeContracts[i], other.activeContracts[i]);
+            compare(differences, "coverageExposure[" + contractClass + "]", coverageExposure[i], other.coverageExposure[i]);
+        }
+        for (PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values()) {
+            int i = frequency.ordinal();
+            compare(differences, "outstandingBalance[" + frequency + "]", outstandingBalance[i], other.outstandingBalance[i]);
+        }
+        compare(differences, "paidOutAmount", paidOutAmount, other.paidOutAmount);
+        return differences;
+    }
+
+    private static void compare(List<String> differences, String metric, long value, long otherValue) {
+        if (value != otherValue) differences.add(metric + ": " + value + " != " + otherValue);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioSnapshot{contracts=" + getContracts() + ", activeContracts=" + getActiveContracts() + ", coverageExposure=" + getCoverageExposure()
+                + ", outstandingBalance=" + getOutstandingBalance() + ", paidOutAmount=" + paidOutAmount + "}";
+    }
+}
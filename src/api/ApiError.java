@@ -0,0 +1,17 @@
+package api;
+
+// a request the server answers with a status other than 400, invalid input is reported as IllegalArgumentException as elsewhere
+class ApiError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiError(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
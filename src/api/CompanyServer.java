@@ -0,0 +1,245 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import loader.FlatJson;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// a JSON over HTTP front of one company, every exchange runs on its own virtual thread:
+//   POST /contracts/vehicle                 insureVehicle
+//   POST /contracts/travel                  insurePersons
+//   GET  /contracts/{number}                the contract
+//   POST /contracts/{number}/payments       pay
+//   POST /contracts/{number}/claims         processClaim
+// lookups and payments share the company, payments are already serialized per contract by the payment handler,
+// insuring and claims change contracts and persons that other requests read, so they run alone
+public class CompanyServer implements Closeable {
+    private static final System.Logger LOG = System.getLogger(CompanyServer.class.getName());
+    private static final String CONTRACTS = "/contracts";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final InsuranceCompany company;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Lock sharedLock;
+    private final Lock exclusiveLock;
+
+    // port 0 picks a free port, see getPort
+    public CompanyServer(InsuranceCompany company, InetSocketAddress address, int backlog) throws IOException {
+        if (company == null || address == null) throw new IllegalArgumentException("Company or address is null!");
+
+        this.company = company;
+        this.server = HttpServer.create(address, backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.sharedLock = lock.readLock();
+        this.exclusiveLock = lock.writeLock();
+        server.setExecutor(executor);
+        server.createContext(CONTRACTS, this::handle);
+    }
+
+    public CompanyServer(InsuranceCompany company, InetSocketAddress address) throws IOException {
+        this(company, address, 0);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InsuranceCompany getCompany() {
+        return company;
+    }
+
+    // stops accepting exchanges and waits for those in flight
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String response;
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        try {
+            if (path.equals(CONTRACTS + "/vehicle") && method.equals("POST")) {
+                status = 201;
+                response = insureVehicle(new RequestBody(readBody(exchange)));
+            } else if (path.equals(CONTRACTS + "/travel") && method.equals("POST")) {
+                status = 201;
+                response = insurePersons(new RequestBody(readBody(exchange)));
+            } else {
+                status = 200;
+                response = handleContract(path, method, exchange);
+            }
+        } catch (ApiError e) {
+            status = e.getStatus();
+            response = error(e.getMessage());
+        } catch (IllegalArgumentException | InvalidContractException e) {
+            status = 400;
+            response = error(e.getMessage());
+        } catch (RuntimeException e) {
+            // the client only learns that it failed, the cause goes to the log
+            LOG.log(System.Logger.Level.ERROR, method + " " + path + " failed", e);
+            status = 500;
+            response = error("Internal error!");
+        }
+
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private String handleContract(String path, String method, HttpExchange exchange) throws IOException {
+        String rest = path.length() > CONTRACTS.length() + 1 && path.charAt(CONTRACTS.length()) == '/' ? path.substring(CONTRACTS.length() + 1) : "";
+        int slash = rest.indexOf('/');
+        String contractNumber = slash < 0 ? rest : rest.substring(0, slash);
+        String action = slash < 0 ? "" : rest.substring(slash + 1);
+        if (contractNumber.isEmpty() || action.indexOf('/') >= 0) throw new ApiError(404, "Unknown resource!");
+
+        if (action.isEmpty()) {
+            if (!method.equals("GET")) throw new ApiError(405, "Method not allowed!");
+            sharedLock.lock();
+            try {
+                return toJson(find(contractNumber));
+            } finally {
+                sharedLock.unlock();
+            }
+        }
+        if (!action.equals("payments") && !action.equals("claims")) throw new ApiError(404, "Unknown resource!");
+        if (!method.equals("POST")) throw new ApiError(405, "Method not allowed!");
+
+        RequestBody body = new RequestBody(readBody(exchange));
+        return action.equals("payments") ? pay(contractNumber, body) : processClaim(contractNumber, body);
+    }
+
+    private String insureVehicle(RequestBody body) {
+        String contractNumber = body.string("contractNumber");
+        Person beneficiary = body.has("beneficiary") ? new Person(body.string("beneficiary")) : null;
+        Person policyHolder = new Person(body.string("policyHolder"));
+        int premium = body.number("premium");
+        PremiumPaymentFrequency frequency = PremiumPaymentFrequency.valueOf(body.string("frequency"));
+        Vehicle vehicle = new Vehicle(body.string("licensePlate"), body.number("vehicleValue"));
+
+        exclusiveLock.lock();
+        try {
+            return toJson(company.insureVehicle(contractNumber, beneficiary, policyHolder, premium, frequency, vehicle));
+        } finally {
+            exclusiveLock.unlock();
+        }
+    }
+
+    private String insurePersons(RequestBody body) {
+        String contractNumber = body.string("contractNumber");
+        Person policyHolder = new Person(body.string("policyHolder"));
+        int premium = body.number("premium");
+        PremiumPaymentFrequency frequency = PremiumPaymentFrequency.valueOf(body.string("frequency"));
+
+        exclusiveLock.lock();
+        try {
+            return toJson(company.insurePersons(contractNumber, policyHolder, premium, frequency, body.persons("insuredPersons")));
+        } finally {
+            exclusiveLock.unlock();
+        }
+    }
+
+    private String pay(String contractNumber, RequestBody body) {
+        int amount = body.number("amount");
+
+        sharedLock.lock();
+        try {
+            AbstractContract contract = find(contractNumber);
+            contract.pay(amount);
+            return toJson(contract);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    private String processClaim(String contractNumber, RequestBody body) {
+        exclusiveLock.lock();
+        try {
+            AbstractContract contract = find(contractNumber);
+            if (contract instanceof SingleVehicleContract) {
+                company.processClaim((SingleVehicleContract) contract, body.number("expectedDamage"));
+            } else if (contract instanceof TravelContract) {
+                company.processClaim((TravelContract) contract, body.persons("affectedPersons"));
+            } else {
+                throw new IllegalArgumentException("Claims are processed on single vehicle or travel contracts!");
+            }
+            return toJson(contract);
+        } finally {
+            exclusiveLock.unlock();
+        }
+    }
+
+    private AbstractContract find(String contractNumber) {
+        AbstractContract contract = company.findContract(contractNumber);
+        if (contract == null) throw new ApiError(404, "Contract not found!");
+        return contract;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) throw new ApiError(413, "Request body is too large!");
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String toJson(AbstractContract contract) {
+        StringBuilder builder = new StringBuilder("{\"contractNumber\":").append(FlatJson.quote(contract.getContractNumber()))
+                .append(",\"type\":\"").append(contract instanceof MasterVehicleContract ? "MASTER" : contract instanceof TravelContract ? "TRAVEL" : "VEHICLE")
+                .append("\",\"policyHolder\":").append(FlatJson.quote(contract.getPolicyHolder().getId()))
+                .append(",\"active\":").append(contract.isActive())
+                .append(",\"coverageAmount\":").append(contract.getCoverageAmount());
+
+        if (contract instanceof MasterVehicleContract) {
+            long outstandingBalance = 0;
+            for (SingleVehicleContract childContract : ((MasterVehicleContract) contract).getChildContracts()) {
+                outstandingBalance += childContract.getContractPaymentData().getOutstandingBalance();
+            }
+            builder.append(",\"childContracts\":").append(((MasterVehicleContract) contract).getChildContracts().size())
+                    .append(",\"outstandingBalance\":").append(outstandingBalance);
+        } else {
+            ContractPaymentData paymentData = contract.getContractPaymentData();
+            builder.append(",\"premium\":").append(paymentData.getPremium())
+                    .append(",\"frequency\":\"").append(paymentData.getPremiumPaymentFrequency())
+                    .append("\",\"nextPaymentTime\":\"").append(paymentData.getNextPaymentTime())
+                    .append("\",\"outstandingBalance\":").append(paymentData.getOutstandingBalance());
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + FlatJson.quote(message) + "}";
+    }
+}
@@ -0,0 +1,51 @@
+package api;
+
+import loader.FlatJson;
+import objects.Person;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// the fields of a flat JSON request body, a missing or mistyped field is an invalid request
+class RequestBody {
+    private final Map<String, Object> fields;
+
+    RequestBody(String json) {
+        this.fields = FlatJson.parseObject(json);
+    }
+
+    boolean has(String key) {
+        return fields.get(key) != null;
+    }
+
+    String string(String key) {
+        Object value = fields.get(key);
+        if (!(value instanceof String)) throw new IllegalArgumentException("Field " + key + " must be a string!");
+        return (String) value;
+    }
+
+    int number(String key) {
+        Object value = fields.get(key);
+        if (!(value instanceof Long)) throw new IllegalArgumentException("Field " + key + " must be a whole number!");
+        try {
+            return Math.toIntExact((Long) value);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Field " + key + " is out of range!");
+        }
+    }
+
+    // persons by id, in the order given
+    Set<Person> persons(String key) {
+        Object value = fields.get(key);
+        if (!(value instanceof List)) throw new IllegalArgumentException("Field " + key + " must be an array!");
+
+        Set<Person> persons = new LinkedHashSet<>();
+        for (Object id : (List<?>) value) {
+            if (!(id instanceof String)) throw new IllegalArgumentException("Field " + key + " must hold person ids!");
+            persons.add(new Person((String) id));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,39 @@
+package company;
+
+import java.time.Duration;
+
+public class BillingRunSummary {
+    private final int contractsCharged;
+    private final long premiumCharged;
+    private final Duration wallTime;
+
+    public BillingRunSummary(int contractsCharged, long premiumCharged, Duration wallTime) {
+        if (contractsCharged < 0) throw new IllegalArgumentException("Contracts charged cannot be negative!");
+        if (wallTime == null) throw new IllegalArgumentException("Wall time cannot be null!");
+
+        this.contractsCharged = contractsCharged;
+        this.premiumCharged = premiumCharged;
+        this.wallTime = wallTime;
+    }
+
+    public int getContractsCharged() {
+        return contractsCharged;
+    }
+
+    public long getPremiumCharged() {
+        return premiumCharged;
+    }
+
+    public Duration getWallTime() {
+        return wallTime;
+    }
+
+    BillingRunSummary combine(BillingRunSummary other) {
+        return new BillingRunSummary(contractsCharged + other.contractsCharged, premiumCharged + other.premiumCharged, wallTime.plus(other.wallTime));
+    }
+
+    @Override
+    public String toString() {
+        return "BillingRunSummary{contractsCharged=" + contractsCharged + ", premiumCharged=" + premiumCharged + ", wallTime=" + wallTime + "}";
+    }
+}
@@ -0,0 +1,93 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import payment.ContractPaymentData;
+import payment.PaymentDataStore;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Predicate;
+
+class BillingSchedule {
+    private final PriorityQueue<Entry> queue;
+    private final Map<AbstractContract, LocalDateTime> scheduled;
+    private final PaymentDataStore scannedStore;
+
+    // registered contracts whose payment data is in the scanned store are billed by scanning the store, so they are never queued here
+    BillingSchedule(PaymentDataStore scannedStore) {
+        this.queue = new PriorityQueue<>();
+        this.scheduled = new IdentityHashMap<>();
+        this.scannedStore = scannedStore;
+    }
+
+    void schedule(AbstractContract contract) {
+        LocalDateTime dueTime = dueTime(contract);
+        if (dueTime == null) {
+            scheduled.remove(contract);
+            return;
+        }
+
+        LocalDateTime previous = scheduled.put(contract, dueTime);
+        if (!dueTime.equals(previous)) queue.add(new Entry(dueTime, contract));
+    }
+
+    // entries whose key no longer matches the scheduled time are stale and skipped
+    List<AbstractContract> drainDue(LocalDateTime time, Predicate<AbstractContract> billable) {
+        List<AbstractContract> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().dueTime.isAfter(time)) {
+            Entry entry = queue.poll();
+            if (!entry.dueTime.equals(scheduled.get(entry.contract))) continue;
+            scheduled.remove(entry.contract);
+            if (!billable.test(entry.contract)) continue;
+
+            LocalDateTime dueTime = dueTime(entry.contract);
+            if (dueTime == null) continue;
+            if (dueTime.isAfter(time)) {
+                scheduled.put(entry.contract, dueTime);
+                queue.add(new Entry(dueTime, entry.contract));
+            } else {
+                due.add(entry.contract);
+            }
+        }
+        return due;
+    }
+
+    int size() {
+        return scheduled.size();
+    }
+
+    private LocalDateTime dueTime(AbstractContract contract) {
+        if (contract instanceof MasterVehicleContract) {
+            LocalDateTime earliest = null;
+            for (SingleVehicleContract child : ((MasterVehicleContract) contract).getChildContracts()) {
+                LocalDateTime childDueTime = dueTime(child.getContractPaymentData());
+                if (childDueTime != null && (earliest == null || childDueTime.isBefore(earliest))) earliest = childDueTime;
+            }
+            return earliest;
+        }
+
+        return dueTime(contract.getContractPaymentData());
+    }
+
+    private LocalDateTime dueTime(ContractPaymentData data) {
+        if (data == null || scannedStore != null && scannedStore.isBilledByScan(data)) return null;
+        return data.getNextPaymentTime();
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        private final LocalDateTime dueTime;
+        private final AbstractContract contract;
+
+        Entry(LocalDateTime dueTime, AbstractContract contract) {
+            this.dueTime = dueTime;
+            this.contract = contract;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return this.dueTime.compareTo(o.dueTime);
+        }
+    }
+}
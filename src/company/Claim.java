@@ -0,0 +1,46 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Set;
+
+public class Claim {
+    private final AbstractContract contract;
+    private final int expectedDamage;
+    private final Set<Person> affectedPersons;
+
+    // the claim is validated when its batch is processed, as processClaim validates a single claim
+    public Claim(SingleVehicleContract contract, int expectedDamage) {
+        if (contract == null) throw new IllegalArgumentException("Single vehicle contract cannot be null!");
+        this.contract = contract;
+        this.expectedDamage = expectedDamage;
+        this.affectedPersons = null;
+    }
+
+    public Claim(TravelContract contract, Set<Person> affectedPersons) {
+        if (contract == null) throw new IllegalArgumentException("Travel contract cannot be null!");
+        this.contract = contract;
+        this.expectedDamage = 0;
+        this.affectedPersons = affectedPersons;
+    }
+
+    public AbstractContract getContract() {
+        return contract;
+    }
+
+    public int getExpectedDamage() {
+        return expectedDamage;
+    }
+
+    public Set<Person> getAffectedPersons() {
+        return affectedPersons;
+    }
+
+    @Override
+    public String toString() {
+        return "Claim{contract=" + contract.getContractNumber() + (affectedPersons == null ? ", expectedDamage=" + expectedDamage : ", affectedPersons=" + affectedPersons.size()) + "}";
+    }
+}
@@ -0,0 +1,152 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+
+// claims are validated in parallel, then the claims of each contract are settled in submission order on one thread,
+// so a contract is deactivated once and later claims against it are rejected as they would be one by one,
+// payouts are summed per person and paid when the whole batch is settled
+class ClaimPipeline {
+    private static final int THRESHOLD = 256;
+
+    private final List<Claim> claims;
+    private final String[] rejections;
+    private final int[] nextOfContract;
+    private final Map<Person, LongAdder> payouts;
+    private final LongAdder contractsDeactivated;
+    private final ObjIntConsumer<Person> payee;
+
+    ClaimPipeline(List<Claim> claims) {
+        this.claims = claims;
+        this.rejections = new String[claims.size()];
+        this.nextOfContract = new int[claims.size()];
+        this.payouts = new ConcurrentHashMap<>();
+        this.contractsDeactivated = new LongAdder();
+        this.payee = (person, amount) -> {
+            if (amount <= 0) throw new IllegalArgumentException("Paid out amount cannot be negative!");
+            payouts.computeIfAbsent(person, key -> new LongAdder()).add(amount);
+        };
+    }
+
+    void run(ForkJoinPool pool) {
+        pool.invoke(new RangeTask(0, claims.size(), this::validate));
+        List<Integer> firstClaims = chainClaimsByContract();
+        pool.invoke(new RangeTask(0, firstClaims.size(), group -> settle(firstClaims.get(group))));
+        for (Map.Entry<Person, LongAdder> payout : payouts.entrySet()) {
+            pay(payout.getKey(), payout.getValue().sum());
+        }
+    }
+
+    boolean isAccepted(int claim) {
+        return rejections[claim] == null;
+    }
+
+    String getRejection(int claim) {
+        return rejections[claim];
+    }
+
+    int getContractsDeactivated() {
+        return contractsDeactivated.intValue();
+    }
+
+    long getPaidOutAmount() {
+        long paidOut = 0;
+        for (LongAdder payout : payouts.values()) {
+            paidOut += payout.sum();
+        }
+        return paidOut;
+    }
+
+    private void validate(int index) {
+        Claim claim = claims.get(index);
+        try {
+            if (claim.getContract() instanceof SingleVehicleContract) {
+                InsuranceCompany.validateClaim((SingleVehicleContract) claim.getContract(), claim.getExpectedDamage());
+            } else {
+                InsuranceCompany.validateClaim((TravelContract) claim.getContract(), claim.getAffectedPersons());
+            }
+        } catch (IllegalArgumentException e) {
+            rejections[index] = e.getMessage();
+        }
+    }
+
+    // links every valid claim to the next valid claim of the same contract, returns the first claim of each contract
+    private List<Integer> chainClaimsByContract() {
+        Map<AbstractContract, Integer> lastClaims = new HashMap<>(claims.size() * 2);
+        List<Integer> firstClaims = new ArrayList<>();
+        for (int i = 0; i < claims.size(); i++) {
+            nextOfContract[i] = -1;
+            if (rejections[i] != null) continue;
+
+            Integer last = lastClaims.put(claims.get(i).getContract(), i);
+            if (last == null) firstClaims.add(i);
+            else nextOfContract[last] = i;
+        }
+        return firstClaims;
+    }
+
+    private void settle(int firstClaim) {
+        for (int index = firstClaim; index >= 0; index = nextOfContract[index]) {
+            Claim claim = claims.get(index);
+            try {
+                boolean deactivated = claim.getContract() instanceof SingleVehicleContract
+                        ? InsuranceCompany.settleClaim((SingleVehicleContract) claim.getContract(), claim.getExpectedDamage(), payee)
+                        : InsuranceCompany.settleClaim((TravelContract) claim.getContract(), claim.getAffectedPersons(), payee);
+                if (deactivated) contractsDeactivated.increment();
+            } catch (IllegalArgumentException | InvalidContractException e) {
+                rejections[index] = e.getMessage();
+            }
+        }
+    }
+
+    // paid in int sized parts, so the amount wraps as it would when the claims are paid one by one
+    private static void pay(Person person, long amount) {
+        while (amount > Integer.MAX_VALUE) {
+            person.payout(Integer.MAX_VALUE);
+            amount -= Integer.MAX_VALUE;
+        }
+        if (amount > 0) person.payout((int) amount);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        // tasks only live within one batch and are never serialized
+        private final transient IntConsumer action;
+
+        RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+        }
+    }
+}
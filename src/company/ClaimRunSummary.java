@@ -0,0 +1,60 @@
+package company;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+public class ClaimRunSummary {
+    private final int claimsProcessed;
+    private final int contractsDeactivated;
+    private final long paidOutAmount;
+    private final Map<Claim, String> rejectedClaims;
+    private final Duration wallTime;
+
+    public ClaimRunSummary(int claimsProcessed, int contractsDeactivated, long paidOutAmount, Map<Claim, String> rejectedClaims, Duration wallTime) {
+        if (claimsProcessed < 0 || contractsDeactivated < 0) throw new IllegalArgumentException("Claim counts cannot be negative!");
+        if (rejectedClaims == null || wallTime == null) throw new IllegalArgumentException("Rejected claims or wall time is null!");
+
+        this.claimsProcessed = claimsProcessed;
+        this.contractsDeactivated = contractsDeactivated;
+        this.paidOutAmount = paidOutAmount;
+        this.rejectedClaims = Collections.unmodifiableMap(rejectedClaims);
+        this.wallTime = wallTime;
+    }
+
+    public int getClaimsProcessed() {
+        return claimsProcessed;
+    }
+
+    public int getClaimsRejected() {
+        return rejectedClaims.size();
+    }
+
+    public int getContractsDeactivated() {
+        return contractsDeactivated;
+    }
+
+    public long getPaidOutAmount() {
+        return paidOutAmount;
+    }
+
+    // the reason each rejected claim was rejected for, in submission order
+    public Map<Claim, String> getRejectedClaims() {
+        return rejectedClaims;
+    }
+
+    public Duration getWallTime() {
+        return wallTime;
+    }
+
+    public double getClaimsPerSecond() {
+        long nanos = wallTime.toNanos();
+        return nanos == 0 ? 0 : (claimsProcessed + rejectedClaims.size()) * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ClaimRunSummary{claimsProcessed=" + claimsProcessed + ", claimsRejected=" + rejectedClaims.size() + ", contractsDeactivated=" + contractsDeactivated
+                + ", paidOutAmount=" + paidOutAmount + ", wallTime=" + wallTime + "}";
+    }
+}
@@ -0,0 +1,47 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// notified after each state change has been applied, so a listener sees the operations in the order they took effect
+public interface CompanyListener {
+    CompanyListener NONE = new CompanyListener() {
+    };
+
+    default void currentTimeChanged(LocalDateTime currentTime) {
+    }
+
+    default void vehicleInsured(SingleVehicleContract contract) {
+    }
+
+    default void personsInsured(TravelContract contract) {
+    }
+
+    default void masterVehicleContractCreated(MasterVehicleContract contract) {
+    }
+
+    default void contractMoved(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+    }
+
+    // a contract or a master with its children had due premiums charged, billing runs end with premiumsCharged()
+    default void premiumsCharged(AbstractContract contract) {
+    }
+
+    default void premiumsCharged() {
+    }
+
+    default void paymentReceived(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+    }
+
+    default void claimProcessed(SingleVehicleContract contract, int expectedDamage) {
+    }
+
+    default void claimProcessed(TravelContract contract, Set<Person> affectedPersons) {
+    }
+}
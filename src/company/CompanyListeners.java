@@ -0,0 +1,114 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+
+// notifies several listeners in the order they were added, immutable so it can be swapped while notifications run
+final class CompanyListeners implements CompanyListener {
+    private final CompanyListener[] listeners;
+
+    private CompanyListeners(CompanyListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    static CompanyListener add(CompanyListener current, CompanyListener listener) {
+        if (current == CompanyListener.NONE) return listener;
+        CompanyListener[] listeners = current instanceof CompanyListeners ? ((CompanyListeners) current).listeners : new CompanyListener[]{current};
+        CompanyListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        return new CompanyListeners(added);
+    }
+
+    static CompanyListener remove(CompanyListener current, CompanyListener listener) {
+        if (current == listener) return CompanyListener.NONE;
+        if (!(current instanceof CompanyListeners)) return current;
+
+        CompanyListener[] listeners = ((CompanyListeners) current).listeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] != listener) continue;
+
+            CompanyListener[] removed = new CompanyListener[listeners.length - 1];
+            System.arraycopy(listeners, 0, removed, 0, i);
+            System.arraycopy(listeners, i + 1, removed, i, listeners.length - i - 1);
+            return removed.length == 1 ? removed[0] : new CompanyListeners(removed);
+        }
+        return current;
+    }
+
+    @Override
+    public void currentTimeChanged(LocalDateTime currentTime) {
+        for (CompanyListener listener : listeners) {
+            listener.currentTimeChanged(currentTime);
+        }
+    }
+
+    @Override
+    public void vehicleInsured(SingleVehicleContract contract) {
+        for (CompanyListener listener : listeners) {
+            listener.vehicleInsured(contract);
+        }
+    }
+
+    @Override
+    public void personsInsured(TravelContract contract) {
+        for (CompanyListener listener : listeners) {
+            listener.personsInsured(contract);
+        }
+    }
+
+    @Override
+    public void masterVehicleContractCreated(MasterVehicleContract contract) {
+        for (CompanyListener listener : listeners) {
+            listener.masterVehicleContractCreated(contract);
+        }
+    }
+
+    @Override
+    public void contractMoved(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        for (CompanyListener listener : listeners) {
+            listener.contractMoved(masterVehicleContract, singleVehicleContract);
+        }
+    }
+
+    @Override
+    public void premiumsCharged(AbstractContract contract) {
+        for (CompanyListener listener : listeners) {
+            listener.premiumsCharged(contract);
+        }
+    }
+
+    @Override
+    public void premiumsCharged() {
+        for (CompanyListener listener : listeners) {
+            listener.premiumsCharged();
+        }
+    }
+
+    @Override
+    public void paymentReceived(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        for (CompanyListener listener : listeners) {
+            listener.paymentReceived(contract, paymentTime, amount);
+        }
+    }
+
+    @Override
+    public void claimProcessed(SingleVehicleContract contract, int expectedDamage) {
+        for (CompanyListener listener : listeners) {
+            listener.claimProcessed(contract, expectedDamage);
+        }
+    }
+
+    @Override
+    public void claimProcessed(TravelContract contract, Set<Person> affectedPersons) {
+        for (CompanyListener listener : listeners) {
+            listener.claimProcessed(contract, affectedPersons);
+        }
+    }
+}
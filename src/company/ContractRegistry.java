@@ -0,0 +1,40 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import payment.PaymentDataStore;
+
+import java.util.AbstractSet;
+import java.util.Set;
+
+abstract class ContractRegistry extends AbstractSet<AbstractContract> {
+    protected final BillingSchedule billingSchedule;
+    protected final PaymentDataStore paymentDataStore;
+
+    ContractRegistry(BillingSchedule billingSchedule, PaymentDataStore paymentDataStore) {
+        this.billingSchedule = billingSchedule;
+        this.paymentDataStore = paymentDataStore;
+    }
+
+    abstract AbstractContract find(String contractNumber);
+
+    abstract Set<AbstractContract> findByPolicyHolder(String policyHolderId);
+
+    abstract Set<SingleVehicleContract> findByLicensePlate(String licensePlate);
+
+    // the registry may keep a copy of a newly insured contract, the returned contract is the one to hand out
+    abstract SingleVehicleContract adopt(SingleVehicleContract contract);
+
+    abstract TravelContract adopt(TravelContract contract);
+
+    // owner of a payment data store slot, for the billing scan
+    abstract AbstractContract findByPaymentSlot(int slot);
+
+    // registered contracts with stored payment data are billed by scanning the store instead of through the schedule
+    void setBilledByScan(AbstractContract contract, boolean billedByScan) {
+        if (paymentDataStore == null) return;
+        int slot = paymentDataStore.slotOf(contract.getContractPaymentData());
+        if (slot >= 0) paymentDataStore.setBilledByScan(slot, billedByScan);
+    }
+}
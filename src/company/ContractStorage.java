@@ -0,0 +1,6 @@
+package company;
+
+public enum ContractStorage {
+    HEAP,
+    OFF_HEAP
+}
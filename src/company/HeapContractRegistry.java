@@ -0,0 +1,157 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import payment.PaymentDataStore;
+
+import java.util.*;
+
+class HeapContractRegistry extends ContractRegistry {
+    private final Map<String, AbstractContract> byNumber;
+    private final Map<String, Set<AbstractContract>> byPolicyHolder;
+    private final Map<String, Set<SingleVehicleContract>> byLicensePlate;
+
+    HeapContractRegistry(BillingSchedule billingSchedule, PaymentDataStore paymentDataStore) {
+        super(billingSchedule, paymentDataStore);
+        this.byNumber = new LinkedHashMap<>();
+        this.byPolicyHolder = new HashMap<>();
+        this.byLicensePlate = new HashMap<>();
+    }
+
+    @Override
+    AbstractContract find(String contractNumber) {
+        if (contractNumber == null) return null;
+        return byNumber.get(contractNumber);
+    }
+
+    @Override
+    Set<AbstractContract> findByPolicyHolder(String policyHolderId) {
+        Set<AbstractContract> found = byPolicyHolder.get(policyHolderId);
+        return found == null ? Collections.emptySet() : Collections.unmodifiableSet(found);
+    }
+
+    @Override
+    Set<SingleVehicleContract> findByLicensePlate(String licensePlate) {
+        Set<SingleVehicleContract> found = byLicensePlate.get(licensePlate);
+        return found == null ? Collections.emptySet() : Collections.unmodifiableSet(found);
+    }
+
+    @Override
+    SingleVehicleContract adopt(SingleVehicleContract contract) {
+        bind(contract);
+        return contract;
+    }
+
+    @Override
+    TravelContract adopt(TravelContract contract) {
+        bind(contract);
+        return contract;
+    }
+
+    @Override
+    AbstractContract findByPaymentSlot(int slot) {
+        return paymentDataStore == null ? null : paymentDataStore.getOwner(slot);
+    }
+
+    private void bind(AbstractContract contract) {
+        if (paymentDataStore != null && paymentDataStore.contains(contract.getContractPaymentData())) paymentDataStore.bind(contract);
+    }
+
+    @Override
+    public boolean add(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+
+        AbstractContract existing = byNumber.get(contract.getContractNumber());
+        if (existing != null) {
+            if (existing.equals(contract)) return false;
+            throw new IllegalArgumentException("Contract number has been already taken!");
+        }
+
+        byNumber.put(contract.getContractNumber(), contract);
+        index(contract);
+        setBilledByScan(contract, true);
+        billingSchedule.schedule(contract);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AbstractContract)) return false;
+        AbstractContract contract = (AbstractContract) o;
+        AbstractContract existing = byNumber.get(contract.getContractNumber());
+        return existing != null && existing.equals(contract);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) return false;
+        AbstractContract removed = byNumber.remove(((AbstractContract) o).getContractNumber());
+        unindex(removed);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (AbstractContract contract : byNumber.values()) {
+            setBilledByScan(contract, false);
+        }
+        byNumber.clear();
+        byPolicyHolder.clear();
+        byLicensePlate.clear();
+    }
+
+    @Override
+    public int size() {
+        return byNumber.size();
+    }
+
+    @Override
+    public Iterator<AbstractContract> iterator() {
+        Iterator<AbstractContract> iterator = byNumber.values().iterator();
+        return new Iterator<>() {
+            private AbstractContract current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public AbstractContract next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                unindex(current);
+                current = null;
+            }
+        };
+    }
+
+    private void index(AbstractContract contract) {
+        byPolicyHolder.computeIfAbsent(contract.getPolicyHolder().getId(), id -> new LinkedHashSet<>()).add(contract);
+        if (contract instanceof SingleVehicleContract) {
+            SingleVehicleContract vehicleContract = (SingleVehicleContract) contract;
+            byLicensePlate.computeIfAbsent(vehicleContract.getInsuredVehicle().getLicensePlate(), plate -> new LinkedHashSet<>()).add(vehicleContract);
+        }
+    }
+
+    private void unindex(AbstractContract contract) {
+        setBilledByScan(contract, false);
+        removeFromIndex(byPolicyHolder, contract.getPolicyHolder().getId(), contract);
+        if (contract instanceof SingleVehicleContract) {
+            removeFromIndex(byLicensePlate, ((SingleVehicleContract) contract).getInsuredVehicle().getLicensePlate(), contract);
+        }
+    }
+
+    private static <T> void removeFromIndex(Map<String, Set<T>> index, String key, AbstractContract contract) {
+        Set<T> contracts = index.get(key);
+        if (contracts == null) return;
+        contracts.remove(contract);
+        if (contracts.isEmpty()) index.remove(key);
+    }
+}
@@ -1,26 +1,88 @@
 package company;
 
 import contracts.*;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import monitoring.BillingRunEvent;
+import monitoring.ClaimEvent;
+import monitoring.PremiumChargeEvent;
 import objects.Person;
+import objects.PersonRegistry;
+import objects.PoolRetention;
 import objects.Vehicle;
+import objects.VehicleRegistry;
 import payment.ContractPaymentData;
+import payment.PaymentDataLayout;
+import payment.PaymentDataStore;
 import payment.PaymentHandler;
 import payment.PremiumPaymentFrequency;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
 
 public class InsuranceCompany {
-    private final Set<AbstractContract> contracts;
+    private final ContractRegistry contracts;
+    // children leave the registry when they move under a master, their numbers stay taken while they belong to one
+    private final Map<String, SingleVehicleContract> childContracts = new HashMap<>();
+    private final BillingSchedule billingSchedule;
     private final PaymentHandler handler;
-    private LocalDateTime currentTime;
+    private final PaymentDataStore paymentDataStore;
+    private final PersonRegistry persons;
+    private final VehicleRegistry vehicles;
+    private volatile LocalDateTime currentTime;
+    private volatile CompanyListener listener;
+    private final MetricsRegistry metrics;
+    private final LatencyHistogram insureVehicleLatency;
+    private final LatencyHistogram insurePersonsLatency;
+    private final LatencyHistogram billingLatency;
+    private final LatencyHistogram claimLatency;
+    private final LatencyHistogram claimBatchLatency;
+    private final Counter contractsDeactivatedByClaims;
 
     public InsuranceCompany(LocalDateTime currentTime) {
+        this(currentTime, PaymentDataLayout.OBJECTS, ContractStorage.HEAP);
+    }
+
+    public InsuranceCompany(LocalDateTime currentTime, PaymentDataLayout paymentDataLayout) {
+        this(currentTime, paymentDataLayout, ContractStorage.HEAP);
+    }
+
+    public InsuranceCompany(LocalDateTime currentTime, ContractStorage contractStorage) {
+        this(currentTime, contractStorage == ContractStorage.OFF_HEAP ? PaymentDataLayout.OFF_HEAP : PaymentDataLayout.OBJECTS, contractStorage);
+    }
+
+    // the compact and off-heap layouts keep payment data of insured contracts in primitive columns, next payment times to the minute,
+    // off-heap contracts keep their payment data there too
+    public InsuranceCompany(LocalDateTime currentTime, PaymentDataLayout paymentDataLayout, ContractStorage contractStorage) {
         if (currentTime == null) throw new IllegalArgumentException("Current time cannot be null!");
+        if (paymentDataLayout == null || contractStorage == null) throw new IllegalArgumentException("Payment data layout or contract storage is null!");
+        if (contractStorage == ContractStorage.OFF_HEAP && paymentDataLayout == PaymentDataLayout.OBJECTS) throw new IllegalArgumentException("Off-heap contracts need a compact or off-heap payment data layout!");
         this.currentTime = currentTime;
-        this.contracts = new LinkedHashSet<>();
+        this.paymentDataStore = paymentDataLayout == PaymentDataLayout.OBJECTS ? null : new PaymentDataStore(paymentDataLayout);
+        this.billingSchedule = new BillingSchedule(paymentDataStore);
+        this.contracts = contractStorage == ContractStorage.HEAP ? new HeapContractRegistry(billingSchedule, paymentDataStore)
+                : new OffHeapContractRegistry(this, billingSchedule, paymentDataStore);
+        this.metrics = new MetricsRegistry();
         this.handler = new PaymentHandler(this);
+        // contracts keep their persons and vehicles reachable, the registries only have to canonicalize them
+        this.persons = new PersonRegistry(PoolRetention.WEAK);
+        this.vehicles = new VehicleRegistry(PoolRetention.WEAK);
+        this.listener = CompanyListener.NONE;
+
+        // latencies of the calls that succeeded, gauges are read when a snapshot is taken
+        this.insureVehicleLatency = metrics.histogram("company.insureVehicle");
+        this.insurePersonsLatency = metrics.histogram("company.insurePersons");
+        this.billingLatency = metrics.histogram("company.chargePremiumsOnContracts");
+        this.claimLatency = metrics.histogram("company.processClaim");
+        this.claimBatchLatency = metrics.histogram("company.processClaims");
+        this.contractsDeactivatedByClaims = metrics.counter("company.processClaim.deactivated");
+        metrics.gauge("company.contracts", contracts::size);
+        metrics.gauge("company.outstandingBalance", this::totalOutstandingBalance);
+        metrics.gauge("payment.history.size", handler.getLedger()::countPayments);
     }
 
     public LocalDateTime getCurrentTime() {
@@ -30,6 +92,45 @@ public class InsuranceCompany {
     public void setCurrentTime(LocalDateTime currentTime) {
         if (currentTime == null) throw new IllegalArgumentException("Current time cannot be null!");
         this.currentTime = currentTime;
+        listener.currentTimeChanged(currentTime);
+    }
+
+    public CompanyListener getListener() {
+        return listener;
+    }
+
+    // replaces every listener, addListener and removeListener keep the others
+    public void setListener(CompanyListener listener) {
+        this.listener = listener == null ? CompanyListener.NONE : listener;
+    }
+
+    public synchronized void addListener(CompanyListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null!");
+        this.listener = CompanyListeners.add(this.listener, listener);
+    }
+
+    public synchronized void removeListener(CompanyListener listener) {
+        this.listener = CompanyListeners.remove(this.listener, listener);
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public PaymentDataLayout getPaymentDataLayout() {
+        return paymentDataStore == null ? PaymentDataLayout.OBJECTS : paymentDataStore.getLayout();
+    }
+
+    public ContractStorage getContractStorage() {
+        return contracts instanceof OffHeapContractRegistry ? ContractStorage.OFF_HEAP : ContractStorage.HEAP;
+    }
+
+    public PersonRegistry getPersonRegistry() {
+        return persons;
+    }
+
+    public VehicleRegistry getVehicleRegistry() {
+        return vehicles;
     }
 
     public Set<AbstractContract> getContracts() {
@@ -40,23 +141,42 @@ public class InsuranceCompany {
         return handler;
     }
 
+    public AbstractContract findContract(String contractNumber) {
+        return contracts.find(contractNumber);
+    }
+
+    public Set<AbstractContract> findContractsByPolicyHolder(String policyHolderId) {
+        return contracts.findByPolicyHolder(policyHolderId);
+    }
+
+    public Set<SingleVehicleContract> findContractsByLicensePlate(String licensePlate) {
+        return contracts.findByLicensePlate(licensePlate);
+    }
+
     public SingleVehicleContract insureVehicle(String contractNumber, Person beneficiary, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Vehicle vehicleToInsure) {
+        long start = System.nanoTime();
         if (vehicleToInsure == null ) throw  new IllegalArgumentException("Vehicle to insure cannot be null!");
         if (proposedPaymentFrequency == null) throw new IllegalArgumentException("Proposed payment frequency cannot be null!");
         if (proposedPremium <= 0) throw new IllegalArgumentException("Proposed premium must be positive");
         int annualPremiumTotal = proposedPremium * (12/proposedPaymentFrequency.getValueInMonths());
 
         if (annualPremiumTotal < 0.02*vehicleToInsure.getOriginalValue()) throw new IllegalArgumentException("The annual premium per year must be greater then 2!");
-        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, currentTime, 0);
-        SingleVehicleContract singleVehicleContract = new SingleVehicleContract(contractNumber, this,beneficiary, policyHolder, contractPaymentData, vehicleToInsure.getOriginalValue()/2, vehicleToInsure );
-        chargePremiumOnContract(singleVehicleContract);
+        vehicleToInsure = vehicles.intern(vehicleToInsure);
+        beneficiary = canonical(beneficiary);
+        policyHolder = canonical(policyHolder);
+        ContractPaymentData contractPaymentData = createPaymentData(proposedPremium, proposedPaymentFrequency);
+        SingleVehicleContract singleVehicleContract = contracts.adopt(new SingleVehicleContract(contractNumber, this,beneficiary, policyHolder, contractPaymentData, vehicleToInsure.getOriginalValue()/2, vehicleToInsure ));
+        charge(singleVehicleContract);
         contracts.add(singleVehicleContract);
         policyHolder.addContract(singleVehicleContract);
+        listener.vehicleInsured(singleVehicleContract);
+        insureVehicleLatency.recordSince(start);
 
         return singleVehicleContract;
     }
 
     public TravelContract insurePersons(String contractNumber, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Set<Person> personsToInsure) {
+        long start = System.nanoTime();
         if (personsToInsure == null ) throw  new IllegalArgumentException("Persons to insure cannot be null!");
         if (proposedPaymentFrequency == null) throw new IllegalArgumentException("Proposed payment frequency cannot be null!");
         if (proposedPremium <= 0) throw new IllegalArgumentException("Proposed premium must be positive");
@@ -64,23 +184,78 @@ public class InsuranceCompany {
         int annualPremiumTotal = proposedPremium * (12/proposedPaymentFrequency.getValueInMonths());
         if (annualPremiumTotal < personsToInsure.size() * 5) throw new IllegalArgumentException("The annual premium per year is incorrect!");
 
-        ContractPaymentData contractPaymentData = new ContractPaymentData(proposedPremium, proposedPaymentFrequency, currentTime, 0);
+        ContractPaymentData contractPaymentData = createPaymentData(proposedPremium, proposedPaymentFrequency);
         int coverageAmount = personsToInsure.size() * 10;
-        TravelContract travelContract = new TravelContract(contractNumber, this, policyHolder, contractPaymentData, coverageAmount, personsToInsure);
-        chargePremiumOnContract(travelContract);
+        policyHolder = canonical(policyHolder);
+        personsToInsure = canonical(personsToInsure);
+        TravelContract travelContract = contracts.adopt(new TravelContract(contractNumber, this, policyHolder, contractPaymentData, coverageAmount, personsToInsure));
+        charge(travelContract);
         contracts.add(travelContract);
         policyHolder.addContract(travelContract);
+        listener.personsInsured(travelContract);
+        insurePersonsLatency.recordSince(start);
 
         return travelContract;
     }
 
+    // null persons are left to the contract constructors to reject
+    private Person canonical(Person person) {
+        return person == null ? null : persons.intern(person);
+    }
+
+    // the given set is kept when it already holds the canonical persons
+    private Set<Person> canonical(Set<Person> personsToInsure) {
+        boolean canonical = true;
+        for (Person person : personsToInsure) {
+            if (canonical(person) != person) canonical = false;
+        }
+        if (canonical) return personsToInsure;
+
+        Set<Person> result = new LinkedHashSet<>();
+        for (Person person : personsToInsure) {
+            result.add(canonical(person));
+        }
+        return result;
+    }
+
+    private ContractPaymentData createPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency) {
+        return restorePaymentData(premium, premiumPaymentFrequency, currentTime, 0);
+    }
+
+    // for contracts rebuilt from a snapshot, the payment data has to live in this company's layout
+    public ContractPaymentData restorePaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, int outstandingBalance) {
+        if (paymentDataStore == null) return new ContractPaymentData(premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
+        return paymentDataStore.create(premium, premiumPaymentFrequency, nextPaymentTime, outstandingBalance);
+    }
+
+    // the returned contract is the one to register and hand out, off-heap storage keeps a copy of the given one
+    public SingleVehicleContract restoreContract(SingleVehicleContract singleVehicleContract) {
+        if (singleVehicleContract == null || singleVehicleContract.getInsurer() != this) throw new IllegalArgumentException("Contract is not insured by this company!");
+        return contracts.adopt(singleVehicleContract);
+    }
+
+    public TravelContract restoreContract(TravelContract travelContract) {
+        if (travelContract == null || travelContract.getInsurer() != this) throw new IllegalArgumentException("Contract is not insured by this company!");
+        return contracts.adopt(travelContract);
+    }
+
+    // the numbers of the master's children are taken from now on
+    public MasterVehicleContract restoreContract(MasterVehicleContract masterVehicleContract) {
+        if (masterVehicleContract == null || masterVehicleContract.getInsurer() != this) throw new IllegalArgumentException("Contract is not insured by this company!");
+        for (SingleVehicleContract childContract : masterVehicleContract.getChildContracts()) {
+            childContracts.put(childContract.getContractNumber(), childContract);
+        }
+        return masterVehicleContract;
+    }
+
     public MasterVehicleContract createMasterVehicleContract(String contractNumber, Person beneficiary, Person policyHolder) {
-        if (!isContractNumberTaken(contractNumber)) throw new IllegalArgumentException("Contract number already exists!");
+        if (isContractNumberTaken(contractNumber)) throw new IllegalArgumentException("Contract number already exists!");
         if (beneficiary == null || policyHolder == null )  throw new IllegalArgumentException("Beneficiary or policy holder is null!");
 
         MasterVehicleContract masterVehicleContract = new MasterVehicleContract(contractNumber, this, beneficiary, policyHolder);
         contracts.add(masterVehicleContract);
         policyHolder.addContract(masterVehicleContract);
+        listener.masterVehicleContractCreated(masterVehicleContract);
 
         return masterVehicleContract;
     }
@@ -95,66 +270,264 @@ public class InsuranceCompany {
         singleVehicleContract.getPolicyHolder().removeContract(singleVehicleContract);
 
         masterVehicleContract.addChildContract(singleVehicleContract);
+        childContracts.put(singleVehicleContract.getContractNumber(), singleVehicleContract);
+        billingSchedule.schedule(masterVehicleContract);
+        listener.contractMoved(masterVehicleContract, singleVehicleContract);
     }
 
     public void chargePremiumsOnContracts() {
-        for(AbstractContract contract : contracts) {
-            if (contract.isActive()) {
-                contract.updateBalance();
+        long start = System.nanoTime();
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+        List<AbstractContract> dueContracts = drainDueContracts();
+        for (AbstractContract contract : dueContracts) {
+            contract.updateBalance();
+            billingSchedule.schedule(contract);
+        }
+        listener.premiumsCharged();
+        billingLatency.recordSince(start);
+        commit(event, dueContracts.size(), 0);
+    }
+
+    public BillingRunSummary chargePremiumsOnContracts(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive!");
+
+        long start = System.nanoTime();
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+        List<AbstractContract> dueContracts = drainDueContracts();
+        List<AbstractContract> units = collectBillingUnits(dueContracts);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        BillingRunSummary summary;
+        try {
+            summary = pool.invoke(new ParallelBillingTask(units, 0, units.size(), currentTime));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (AbstractContract unit : units) {
+            listener.premiumsCharged(unit);
+        }
+        for (AbstractContract contract : dueContracts) {
+            billingSchedule.schedule(contract);
+        }
+        listener.premiumsCharged();
+        billingLatency.recordSince(start);
+        commit(event, dueContracts.size(), parallelism);
+        return new BillingRunSummary(summary.getContractsCharged(), summary.getPremiumCharged(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void commit(BillingRunEvent event, int contractsDue, int parallelism) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.contractsDue = contractsDue;
+        event.parallelism = parallelism;
+        event.commit();
+    }
+
+    private List<AbstractContract> drainDueContracts() {
+        List<AbstractContract> due = billingSchedule.drainDue(currentTime, this::isBillable);
+        if (paymentDataStore == null) return due;
+
+        LocalDateTime time = currentTime;
+        for (int slot = paymentDataStore.nextDue(0, time); slot >= 0; slot = paymentDataStore.nextDue(slot + 1, time)) {
+            AbstractContract owner = contracts.findByPaymentSlot(slot);
+            if (owner != null && owner.isActive()) due.add(owner);
+        }
+        return due;
+    }
+
+    // off-heap contracts are materialized on every lookup, so registration is checked by equality
+    private boolean isBillable(AbstractContract contract) {
+        return contract.isActive() && contract.equals(contracts.find(contract.getContractNumber()));
+    }
+
+    // children of an active master are billed with their master, so every payment data belongs to one unit
+    private static List<AbstractContract> collectBillingUnits(List<AbstractContract> dueContracts) {
+        Set<AbstractContract> billedByMaster = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AbstractContract contract : dueContracts) {
+            if (contract instanceof MasterVehicleContract) {
+                billedByMaster.addAll(((MasterVehicleContract) contract).getChildContracts());
+            }
+        }
+
+        List<AbstractContract> units = new ArrayList<>(dueContracts.size());
+        for (AbstractContract contract : dueContracts) {
+            if (!billedByMaster.contains(contract)) {
+                units.add(contract);
             }
         }
+        return units;
     }
 
     public void chargePremiumOnContract(MasterVehicleContract contract) {
+        PremiumChargeEvent event = new PremiumChargeEvent();
+        event.begin();
+        int children = 0;
+        int periods = 0;
+        long amount = 0;
         for (AbstractContract childContract : contract.getChildContracts()) {
-            chargePremiumOnContract(childContract);
+            int childPeriods = charge(childContract);
+            children++;
+            periods += childPeriods;
+            amount += (long) childPeriods * childContract.getContractPaymentData().getPremium();
         }
+        listener.premiumsCharged(contract);
+        commit(event, contract, true, children, periods, amount);
     }
 
     public void chargePremiumOnContract(AbstractContract contract) {
-        while (!contract.getContractPaymentData().getNextPaymentTime().isAfter(currentTime)) {
-                int contractBalance = contract.getContractPaymentData().getOutstandingBalance();
-                int contractPremium = contract.getContractPaymentData().getPremium();
-                contract.getContractPaymentData().setOutstandingBalance(contractBalance + contractPremium);
-                contract.getContractPaymentData().updateNextPaymentTime();
-        }
+        PremiumChargeEvent event = new PremiumChargeEvent();
+        event.begin();
+        int periods = charge(contract);
+        listener.premiumsCharged(contract);
+        commit(event, contract, false, 0, periods, (long) periods * contract.getContractPaymentData().getPremium());
     }
 
-    private boolean isContractNumberTaken(String contractNumber) {
-        if(contractNumber == null) return false;
+    // the first charge of a newly insured contract is reported by its insured notification
+    private int charge(AbstractContract contract) {
+        return contract.getContractPaymentData().chargeDuePremiums(currentTime);
+    }
+
+    private static void commit(PremiumChargeEvent event, AbstractContract contract, boolean master, int childrenCharged, int periodsCharged, long amountCharged) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.contractNumber = contract.getContractNumber();
+        event.master = master;
+        event.childrenCharged = childrenCharged;
+        event.periodsCharged = periodsCharged;
+        event.amountCharged = amountCharged;
+        event.commit();
+    }
 
+    // a scan over every contract, children of masters included
+    private long totalOutstandingBalance() {
+        long total = 0;
         for (AbstractContract contract : contracts) {
-            if (contract.getContractNumber().equals(contractNumber)) {
-                return true;
+            if (contract instanceof MasterVehicleContract) {
+                for (SingleVehicleContract childContract : ((MasterVehicleContract) contract).getChildContracts()) {
+                    total += childContract.getContractPaymentData().getOutstandingBalance();
+                }
+            } else {
+                total += contract.getContractPaymentData().getOutstandingBalance();
             }
         }
-        return false;
+        return total;
+    }
+
+    public boolean isContractNumberTaken(String contractNumber) {
+        return contracts.find(contractNumber) != null || findChildContract(contractNumber) != null;
+    }
+
+    // a child moved under a master that still belongs to one, findContract only sees the registered contracts
+    public SingleVehicleContract findChildContract(String contractNumber) {
+        SingleVehicleContract childContract = childContracts.get(contractNumber);
+        return childContract != null && childContract.getMasterVehicleContract() != null ? childContract : null;
     }
 
     public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+        long start = System.nanoTime();
+        ClaimEvent event = new ClaimEvent();
+        event.begin();
+        validateClaim(travelContract, affectedPersons);
+        boolean deactivated = settleClaim(travelContract, affectedPersons, Person::payout);
+        if (deactivated) contractsDeactivatedByClaims.increment();
+        listener.claimProcessed(travelContract, affectedPersons);
+        claimLatency.recordSince(start);
+        commit(event, travelContract, affectedPersons.size(), (long) (travelContract.getCoverageAmount() / affectedPersons.size()) * affectedPersons.size(), deactivated);
+    }
+
+    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamage) {
+        long start = System.nanoTime();
+        ClaimEvent event = new ClaimEvent();
+        event.begin();
+        validateClaim(singleVehicleContract, expectedDamage);
+        boolean deactivated = settleClaim(singleVehicleContract, expectedDamage, Person::payout);
+        if (deactivated) contractsDeactivatedByClaims.increment();
+        listener.claimProcessed(singleVehicleContract, expectedDamage);
+        claimLatency.recordSince(start);
+        commit(event, singleVehicleContract, 0, singleVehicleContract.getCoverageAmount(), deactivated);
+    }
+
+    private static void commit(ClaimEvent event, AbstractContract contract, int affectedPersons, long paidOutAmount, boolean contractDeactivated) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.contractNumber = contract.getContractNumber();
+        event.affectedPersons = affectedPersons;
+        event.paidOutAmount = paidOutAmount;
+        event.contractDeactivated = contractDeactivated;
+        event.commit();
+    }
+
+    // same results as processing the claims one by one in the given order, listeners are notified in that order once the batch is paid
+    public ClaimRunSummary processClaims(List<Claim> claims, int parallelism) {
+        if (claims == null) throw new IllegalArgumentException("Claims cannot be null!");
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive!");
+
+        long start = System.nanoTime();
+        ClaimPipeline pipeline = new ClaimPipeline(claims);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pipeline.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        int claimsProcessed = 0;
+        Map<Claim, String> rejectedClaims = new LinkedHashMap<>();
+        for (int i = 0; i < claims.size(); i++) {
+            Claim claim = claims.get(i);
+            if (!pipeline.isAccepted(i)) {
+                rejectedClaims.put(claim, pipeline.getRejection(i));
+                continue;
+            }
+            claimsProcessed++;
+            if (claim.getContract() instanceof SingleVehicleContract) listener.claimProcessed((SingleVehicleContract) claim.getContract(), claim.getExpectedDamage());
+            else listener.claimProcessed((TravelContract) claim.getContract(), claim.getAffectedPersons());
+        }
+        contractsDeactivatedByClaims.add(pipeline.getContractsDeactivated());
+        claimBatchLatency.recordSince(start);
+        return new ClaimRunSummary(claimsProcessed, pipeline.getContractsDeactivated(), pipeline.getPaidOutAmount(), rejectedClaims,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // the checks that do not depend on the contract state, so a batch can run them in parallel
+    static void validateClaim(TravelContract travelContract, Set<Person> affectedPersons) {
         if (travelContract == null) throw new IllegalArgumentException("Travel contract cannot be null!");
         if (affectedPersons == null || affectedPersons.isEmpty()) throw new IllegalArgumentException("Affected persons cannot be null or empty!");
 
         Set<Person> insuredPersons = travelContract.getInsuredPersons();
         if (!insuredPersons.containsAll(affectedPersons)) throw new IllegalArgumentException("Affected persons and insured persons from travel contract didn't match!");
+    }
+
+    static void validateClaim(SingleVehicleContract singleVehicleContract, int expectedDamage) {
+        if (singleVehicleContract == null) throw new IllegalArgumentException("Single vehicle contract cannot be null!");
+        if (expectedDamage <= 0) throw new IllegalArgumentException("Expected damage must be positive!");
+    }
 
+    // hands every payout of the claim to the payee and returns whether the claim deactivated the contract
+    static boolean settleClaim(TravelContract travelContract, Set<Person> affectedPersons, ObjIntConsumer<Person> payee) {
         if (!travelContract.isActive()) throw new InvalidContractException("Travel contract cannot be inactive!");
 
+        // the coverage is shared by the affected persons, each is paid as the instance the contract insures
         int sum = travelContract.getCoverageAmount()/ affectedPersons.size();
-        for (Person person : travelContract.getInsuredPersons()) {
-            person.payout(sum);
+        for (Person person : affectedPersons) {
+            payee.accept(travelContract.getInsuredPerson(person), sum);
         }
 
         travelContract.setInactive();
+        return true;
     }
 
-    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamage) {
-        if (singleVehicleContract == null) throw new IllegalArgumentException("Single vehicle contract cannot be null!");
-        if (expectedDamage <= 0) throw new IllegalArgumentException("Expected damage must be positive!");
+    static boolean settleClaim(SingleVehicleContract singleVehicleContract, int expectedDamage, ObjIntConsumer<Person> payee) {
         if (!singleVehicleContract.isActive()) throw new InvalidContractException("Single vehicle contract is inactive!");
-        if (singleVehicleContract.getBeneficiary() != null) singleVehicleContract.getBeneficiary().payout(singleVehicleContract.getCoverageAmount());
-        else singleVehicleContract.getPolicyHolder().payout(singleVehicleContract.getCoverageAmount());
+        if (singleVehicleContract.getBeneficiary() != null) payee.accept(singleVehicleContract.getBeneficiary(), singleVehicleContract.getCoverageAmount());
+        else payee.accept(singleVehicleContract.getPolicyHolder(), singleVehicleContract.getCoverageAmount());
 
-        if(expectedDamage >= 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue()) singleVehicleContract.setInactive();
+        if(expectedDamage >= 0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue()) {
+            singleVehicleContract.setInactive();
+            return true;
+        }
+        return false;
     }
 }
@@ -0,0 +1,642 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.InsuredPersons;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PaymentDataStore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+// insured contracts are kept as records in direct buffer segments and handed out as views materialized on demand,
+// contracts added from outside (masters, hand-built contracts) stay on the heap behind an index record
+class OffHeapContractRegistry extends ContractRegistry {
+    private static final int SEGMENT_SIZE = 1 << 24;
+    private static final byte VEHICLE = 1;
+    private static final byte TRAVEL = 2;
+    private static final byte HEAP_CONTRACT = 3;
+    private static final int ACTIVE = 1;
+    private static final int REGISTERED = 2;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int[] NO_PERSONS = new int[0];
+
+    // record layout, strings are stored as chars after the header and insured persons as person indexes after the strings
+    private static final int TYPE = 0;
+    private static final int FLAGS = 1;
+    private static final int NUMBER_LENGTH = 2;
+    private static final int COVERAGE = 4;
+    private static final int SLOT = 8;
+    private static final int HOLDER = 12;
+    private static final int BENEFICIARY = 16;
+    private static final int VEHICLE_VALUE = 20;
+    private static final int PLATE_LENGTH = 24;
+    private static final int HEADER = 28;
+
+    private final InsuranceCompany insurer;
+    private final List<ByteBuffer> segments;
+    private int segmentPosition;
+    private long[] addresses;
+    private int[] nextByHolder;
+    private int[] nextByPlate;
+    private int[] orderPositions;
+    private int records;
+    private int[] order;
+    private int orderSize;
+    private int size;
+    private int[] slotRecords;
+    private int[] numberTable;
+    private int numberTableUsed;
+    private int[] plateTable;
+    private int plateTableUsed;
+    private final Map<String, Integer> holderHeads;
+    private final List<Person> persons;
+    private final Map<Person, Integer> personIndexes;
+    private final List<AbstractContract> heapContracts;
+
+    OffHeapContractRegistry(InsuranceCompany insurer, BillingSchedule billingSchedule, PaymentDataStore paymentDataStore) {
+        super(billingSchedule, paymentDataStore);
+        if (paymentDataStore == null) throw new IllegalArgumentException("Off-heap contracts need a payment data store!");
+        this.insurer = insurer;
+        this.segments = new ArrayList<>();
+        this.addresses = new long[1024];
+        this.nextByHolder = new int[1024];
+        this.nextByPlate = new int[1024];
+        this.orderPositions = new int[1024];
+        this.order = new int[1024];
+        this.slotRecords = new int[1024];
+        this.numberTable = new int[2048];
+        this.plateTable = new int[2048];
+        this.holderHeads = new HashMap<>();
+        this.persons = new ArrayList<>();
+        this.personIndexes = new IdentityHashMap<>();
+        this.heapContracts = new ArrayList<>();
+    }
+
+    @Override
+    AbstractContract find(String contractNumber) {
+        if (contractNumber == null) return null;
+        int record = findRecord(contractNumber);
+        return record < 0 ? null : view(record);
+    }
+
+    @Override
+    Set<AbstractContract> findByPolicyHolder(String policyHolderId) {
+        Integer head = holderHeads.get(policyHolderId);
+        if (head == null) return Collections.emptySet();
+
+        Set<AbstractContract> found = new LinkedHashSet<>();
+        for (int record : registeredInOrder(head, nextByHolder)) {
+            found.add(view(record));
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    @Override
+    Set<SingleVehicleContract> findByLicensePlate(String licensePlate) {
+        int head = licensePlate == null ? -1 : findPlate(licensePlate);
+        if (head < 0) return Collections.emptySet();
+
+        Set<SingleVehicleContract> found = new LinkedHashSet<>();
+        for (int record : registeredInOrder(head, nextByPlate)) {
+            found.add((SingleVehicleContract) view(record));
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    @Override
+    SingleVehicleContract adopt(SingleVehicleContract contract) {
+        Vehicle vehicle = contract.getInsuredVehicle();
+        Person beneficiary = contract.getBeneficiary();
+        int record = writeRecord(VEHICLE, contract.isActive() ? ACTIVE : 0, contract.getContractNumber(), contract.getCoverageAmount(),
+                slotOf(contract), contract.getPolicyHolder(), beneficiary == null ? -1 : personIndex(beneficiary),
+                vehicle.getOriginalValue(), vehicle.getLicensePlate(), NO_PERSONS);
+        slotRecords[readInt(record, SLOT)] = record + 1;
+        return (SingleVehicleContract) view(record);
+    }
+
+    @Override
+    TravelContract adopt(TravelContract contract) {
+        Set<Person> insuredPersons = contract.getInsuredPersons();
+        int[] insured = new int[insuredPersons.size()];
+        int i = 0;
+        for (Person person : insuredPersons) {
+            insured[i++] = personIndex(person);
+        }
+
+        int record = writeRecord(TRAVEL, contract.isActive() ? ACTIVE : 0, contract.getContractNumber(), contract.getCoverageAmount(),
+                slotOf(contract), contract.getPolicyHolder(), insured.length, 0, null, insured);
+        slotRecords[readInt(record, SLOT)] = record + 1;
+        return (TravelContract) view(record);
+    }
+
+    @Override
+    AbstractContract findByPaymentSlot(int slot) {
+        if (slot < 0 || slot >= slotRecords.length || slotRecords[slot] == 0) return null;
+        return view(slotRecords[slot] - 1);
+    }
+
+    @Override
+    public boolean add(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+
+        AbstractContract existing = find(contract.getContractNumber());
+        if (existing != null) {
+            if (existing.equals(contract)) return false;
+            throw new IllegalArgumentException("Contract number has been already taken!");
+        }
+
+        int record = recordOf(contract);
+        if (record < 0) {
+            String licensePlate = contract instanceof SingleVehicleContract ? ((SingleVehicleContract) contract).getInsuredVehicle().getLicensePlate() : null;
+            record = writeRecord(HEAP_CONTRACT, 0, contract.getContractNumber(), 0, heapContracts.size(), contract.getPolicyHolder(), -1, 0, licensePlate, NO_PERSONS);
+            heapContracts.add(contract);
+        } else {
+            paymentDataStore.setBilledByScan(readInt(record, SLOT), true);
+        }
+        register(record);
+        billingSchedule.schedule(contract);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AbstractContract)) return false;
+        AbstractContract existing = find(((AbstractContract) o).getContractNumber());
+        return existing != null && existing.equals(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) return false;
+        unregister(findRecord(((AbstractContract) o).getContractNumber()));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int position = 0; position < orderSize; position++) {
+            if (isLive(position)) unregister(order[position]);
+        }
+        orderSize = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<AbstractContract> iterator() {
+        return new Iterator<>() {
+            private int position = nextLive(0);
+            private int current = -1;
+
+            @Override
+            public boolean hasNext() {
+                return position < orderSize;
+            }
+
+            @Override
+            public AbstractContract next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                current = order[position];
+                position = nextLive(position + 1);
+                return view(current);
+            }
+
+            @Override
+            public void remove() {
+                if (current < 0) throw new IllegalStateException();
+                unregister(current);
+                current = -1;
+            }
+        };
+    }
+
+    private int slotOf(AbstractContract contract) {
+        int slot = paymentDataStore.slotOf(contract.getContractPaymentData());
+        if (slot < 0) throw new IllegalArgumentException("Payment data must be kept in the company's payment data store!");
+        return slot;
+    }
+
+    private int recordOf(AbstractContract contract) {
+        if (contract instanceof VehicleView && ((VehicleView) contract).getRegistry() == this) return ((VehicleView) contract).record;
+        if (contract instanceof TravelView && ((TravelView) contract).getRegistry() == this) return ((TravelView) contract).record;
+        return -1;
+    }
+
+    private AbstractContract view(int record) {
+        byte type = buffer(record).get(offset(record) + TYPE);
+        if (type == HEAP_CONTRACT) return heapContracts.get(readInt(record, SLOT));
+
+        String contractNumber = readString(record, HEADER, readShort(record, NUMBER_LENGTH));
+        Person policyHolder = persons.get(readInt(record, HOLDER));
+        if (type == VEHICLE) return new VehicleView(record, contractNumber, insurer, policyHolder);
+        return new TravelView(record, contractNumber, insurer, policyHolder);
+    }
+
+    private void register(int record) {
+        setFlag(record, REGISTERED, true);
+        insertNumber(record);
+        if (orderSize == order.length) {
+            if (size < orderSize / 2) compactOrder();
+            else order = Arrays.copyOf(order, orderSize * 2);
+        }
+        orderPositions[record] = orderSize;
+        order[orderSize++] = record;
+        size++;
+    }
+
+    // the record stays in the holder and plate chains, those skip records that are not registered
+    private void unregister(int record) {
+        setFlag(record, REGISTERED, false);
+        removeNumber(record);
+        size--;
+
+        int slot = readInt(record, SLOT);
+        if (buffer(record).get(offset(record) + TYPE) == HEAP_CONTRACT) heapContracts.set(slot, null);
+        else paymentDataStore.setBilledByScan(slot, false);
+    }
+
+    private boolean isLive(int position) {
+        int record = order[position];
+        return (readFlags(record) & REGISTERED) != 0 && orderPositions[record] == position;
+    }
+
+    private int nextLive(int position) {
+        while (position < orderSize && !isLive(position)) {
+            position++;
+        }
+        return position;
+    }
+
+    private void compactOrder() {
+        int live = 0;
+        for (int position = 0; position < orderSize; position++) {
+            if (!isLive(position)) continue;
+            int record = order[position];
+            orderPositions[record] = live;
+            order[live++] = record;
+        }
+        orderSize = live;
+    }
+
+    // registered records of one chain in the order they were added to the registry
+    private int[] registeredInOrder(int head, int[] next) {
+        long[] found = new long[8];
+        int count = 0;
+        for (int record = head; record >= 0; record = next[record]) {
+            if ((readFlags(record) & REGISTERED) == 0) continue;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = (long) orderPositions[record] << 32 | record;
+        }
+
+        Arrays.sort(found, 0, count);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = (int) found[i];
+        }
+        return sorted;
+    }
+
+    private int writeRecord(byte type, int flags, String contractNumber, int coverageAmount, int slot, Person policyHolder,
+                            int beneficiary, int vehicleValue, String licensePlate, int[] insuredPersons) {
+        int plateLength = licensePlate == null ? 0 : licensePlate.length();
+        if (contractNumber.length() > Short.MAX_VALUE || plateLength > Short.MAX_VALUE) throw new IllegalArgumentException("Contract number or license plate is too long!");
+        int length = align(HEADER + 2 * (contractNumber.length() + plateLength)) + Integer.BYTES * insuredPersons.length;
+        if (length > SEGMENT_SIZE) throw new IllegalArgumentException("Contract record is too large!");
+
+        if (segments.isEmpty() || segmentPosition + length > SEGMENT_SIZE) {
+            segments.add(ByteBuffer.allocateDirect(SEGMENT_SIZE).order(ByteOrder.nativeOrder()));
+            segmentPosition = 0;
+        }
+        ByteBuffer buffer = segments.get(segments.size() - 1);
+        int offset = segmentPosition;
+        segmentPosition += length;
+
+        if (records == addresses.length) {
+            int capacity = records * 2;
+            addresses = Arrays.copyOf(addresses, capacity);
+            nextByHolder = Arrays.copyOf(nextByHolder, capacity);
+            nextByPlate = Arrays.copyOf(nextByPlate, capacity);
+            orderPositions = Arrays.copyOf(orderPositions, capacity);
+        }
+        if (slot >= slotRecords.length && type != HEAP_CONTRACT) slotRecords = Arrays.copyOf(slotRecords, Math.max(slot + 1, slotRecords.length * 2));
+        int record = records++;
+        addresses[record] = (long) (segments.size() - 1) << 32 | offset;
+
+        buffer.put(offset + TYPE, type);
+        buffer.put(offset + FLAGS, (byte) flags);
+        buffer.putShort(offset + NUMBER_LENGTH, (short) contractNumber.length());
+        buffer.putInt(offset + COVERAGE, coverageAmount);
+        buffer.putInt(offset + SLOT, slot);
+        buffer.putInt(offset + HOLDER, personIndex(policyHolder));
+        buffer.putInt(offset + BENEFICIARY, beneficiary);
+        buffer.putInt(offset + VEHICLE_VALUE, vehicleValue);
+        buffer.putShort(offset + PLATE_LENGTH, (short) plateLength);
+        int position = offset + HEADER;
+        for (int i = 0; i < contractNumber.length(); i++, position += 2) {
+            buffer.putChar(position, contractNumber.charAt(i));
+        }
+        for (int i = 0; i < plateLength; i++, position += 2) {
+            buffer.putChar(position, licensePlate.charAt(i));
+        }
+        position = offset + align(position - offset);
+        for (int person : insuredPersons) {
+            buffer.putInt(position, person);
+            position += Integer.BYTES;
+        }
+
+        Integer holderHead = holderHeads.put(policyHolder.getId(), record);
+        nextByHolder[record] = holderHead == null ? -1 : holderHead;
+        nextByPlate[record] = licensePlate == null ? -1 : linkPlate(record, licensePlate);
+        orderPositions[record] = -1;
+        return record;
+    }
+
+    private int personIndex(Person person) {
+        Integer index = personIndexes.get(person);
+        if (index != null) return index;
+        persons.add(person);
+        personIndexes.put(person, persons.size() - 1);
+        return persons.size() - 1;
+    }
+
+    private Person person(int index) {
+        return index < 0 ? null : persons.get(index);
+    }
+
+    private ByteBuffer buffer(int record) {
+        return segments.get((int) (addresses[record] >>> 32));
+    }
+
+    private int offset(int record) {
+        return (int) addresses[record];
+    }
+
+    private int readInt(int record, int field) {
+        return buffer(record).getInt(offset(record) + field);
+    }
+
+    private void writeInt(int record, int field, int value) {
+        buffer(record).putInt(offset(record) + field, value);
+    }
+
+    private int readShort(int record, int field) {
+        return buffer(record).getShort(offset(record) + field);
+    }
+
+    private int readFlags(int record) {
+        return buffer(record).get(offset(record) + FLAGS);
+    }
+
+    private void setFlag(int record, int flag, boolean set) {
+        int flags = readFlags(record);
+        buffer(record).put(offset(record) + FLAGS, (byte) (set ? flags | flag : flags & ~flag));
+    }
+
+    private String readString(int record, int start, int length) {
+        ByteBuffer buffer = buffer(record);
+        int position = offset(record) + start;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++, position += 2) {
+            chars[i] = buffer.getChar(position);
+        }
+        return new String(chars);
+    }
+
+    private boolean stringEquals(int record, int start, int length, String value) {
+        if (length != value.length()) return false;
+        ByteBuffer buffer = buffer(record);
+        int position = offset(record) + start;
+        for (int i = 0; i < length; i++, position += 2) {
+            if (buffer.getChar(position) != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int stringHash(int record, int start, int length) {
+        ByteBuffer buffer = buffer(record);
+        int position = offset(record) + start;
+        int hash = 0;
+        for (int i = 0; i < length; i++, position += 2) {
+            hash = 31 * hash + buffer.getChar(position);
+        }
+        return hash;
+    }
+
+    private String readLicensePlate(int record) {
+        return readString(record, HEADER + 2 * readShort(record, NUMBER_LENGTH), readShort(record, PLATE_LENGTH));
+    }
+
+    private boolean numberEquals(int record, String contractNumber) {
+        return stringEquals(record, HEADER, readShort(record, NUMBER_LENGTH), contractNumber);
+    }
+
+    private boolean plateEquals(int record, String licensePlate) {
+        return stringEquals(record, HEADER + 2 * readShort(record, NUMBER_LENGTH), readShort(record, PLATE_LENGTH), licensePlate);
+    }
+
+    // open addressing tables of record + 1, so an empty entry is zero
+    private int findRecord(String contractNumber) {
+        int mask = numberTable.length - 1;
+        for (int i = spread(contractNumber.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int entry = numberTable[i];
+            if (entry == EMPTY) return -1;
+            if (entry != DELETED && numberEquals(entry - 1, contractNumber)) return entry - 1;
+        }
+    }
+
+    private void insertNumber(int record) {
+        if ((numberTableUsed + 1) * 2 > numberTable.length) rehashNumbers();
+        int mask = numberTable.length - 1;
+        int i = spread(stringHash(record, HEADER, readShort(record, NUMBER_LENGTH))) & mask;
+        while (numberTable[i] != EMPTY && numberTable[i] != DELETED) {
+            i = (i + 1) & mask;
+        }
+        if (numberTable[i] == EMPTY) numberTableUsed++;
+        numberTable[i] = record + 1;
+    }
+
+    private void removeNumber(int record) {
+        int mask = numberTable.length - 1;
+        for (int i = spread(stringHash(record, HEADER, readShort(record, NUMBER_LENGTH))) & mask; numberTable[i] != EMPTY; i = (i + 1) & mask) {
+            if (numberTable[i] == record + 1) {
+                numberTable[i] = DELETED;
+                return;
+            }
+        }
+    }
+
+    // tombstones are dropped on a rehash, so the table only grows when the live entries need it
+    private void rehashNumbers() {
+        int[] old = numberTable;
+        numberTable = new int[Math.max(2048, Integer.highestOneBit((size + 1) * 4) * 2)];
+        numberTableUsed = 0;
+        for (int entry : old) {
+            if (entry != EMPTY && entry != DELETED) insertNumber(entry - 1);
+        }
+    }
+
+    private int findPlate(String licensePlate) {
+        int mask = plateTable.length - 1;
+        for (int i = spread(licensePlate.hashCode()) & mask; plateTable[i] != EMPTY; i = (i + 1) & mask) {
+            if (plateEquals(plateTable[i] - 1, licensePlate)) return plateTable[i] - 1;
+        }
+        return -1;
+    }
+
+    // the record becomes the head of its plate chain, the previous head is returned
+    private int linkPlate(int record, String licensePlate) {
+        if ((plateTableUsed + 1) * 2 > plateTable.length) {
+            int[] old = plateTable;
+            plateTable = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != EMPTY) plateTable[plateSlot(readLicensePlate(entry - 1))] = entry;
+            }
+        }
+
+        int i = plateSlot(licensePlate);
+        int previous = plateTable[i] - 1;
+        if (previous < 0) plateTableUsed++;
+        plateTable[i] = record + 1;
+        return previous;
+    }
+
+    private int plateSlot(String licensePlate) {
+        int mask = plateTable.length - 1;
+        int i = spread(licensePlate.hashCode()) & mask;
+        while (plateTable[i] != EMPTY && !plateEquals(plateTable[i] - 1, licensePlate)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    // similar strings have nearby hash codes, which would cluster under linear probing without mixing
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int align(int length) {
+        return (length + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private final class VehicleView extends SingleVehicleContract {
+        private final int record;
+
+        VehicleView(int record, String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+            super(contractNumber, insurer, policyHolder);
+            this.record = record;
+        }
+
+        OffHeapContractRegistry getRegistry() {
+            return OffHeapContractRegistry.this;
+        }
+
+        @Override
+        public int getCoverageAmount() {
+            return readInt(record, COVERAGE);
+        }
+
+        @Override
+        public void setCoverageAmount(int coverageAmount) {
+            if (coverageAmount < 0) throw new IllegalArgumentException("Coverage amount must be non-negative!");
+            writeInt(record, COVERAGE, coverageAmount);
+        }
+
+        @Override
+        public boolean isActive() {
+            return (readFlags(record) & ACTIVE) != 0;
+        }
+
+        @Override
+        public synchronized void setInactive() {
+            super.setInactive();
+            setFlag(record, ACTIVE, false);
+        }
+
+        @Override
+        public ContractPaymentData getContractPaymentData() {
+            return paymentDataStore.get(readInt(record, SLOT));
+        }
+
+        @Override
+        public Person getBeneficiary() {
+            return person(readInt(record, BENEFICIARY));
+        }
+
+        @Override
+        public void setBeneficiary(Person beneficiary) {
+            if (beneficiary.equals(policyHolder)) throw new IllegalArgumentException("Beneficiary and policy holder cannot be the same person!");
+            writeInt(record, BENEFICIARY, personIndex(beneficiary));
+        }
+
+        @Override
+        public Vehicle getInsuredVehicle() {
+            return new Vehicle(readLicensePlate(record), readInt(record, VEHICLE_VALUE));
+        }
+    }
+
+    private final class TravelView extends TravelContract {
+        private final int record;
+        // the insured persons of a record never change, so a view reads them once
+        private Set<Person> insuredPersons;
+
+        TravelView(int record, String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+            super(contractNumber, insurer, policyHolder);
+            this.record = record;
+        }
+
+        OffHeapContractRegistry getRegistry() {
+            return OffHeapContractRegistry.this;
+        }
+
+        @Override
+        public int getCoverageAmount() {
+            return readInt(record, COVERAGE);
+        }
+
+        @Override
+        public void setCoverageAmount(int coverageAmount) {
+            if (coverageAmount < 0) throw new IllegalArgumentException("Coverage amount must be non-negative!");
+            writeInt(record, COVERAGE, coverageAmount);
+        }
+
+        @Override
+        public boolean isActive() {
+            return (readFlags(record) & ACTIVE) != 0;
+        }
+
+        @Override
+        public synchronized void setInactive() {
+            super.setInactive();
+            setFlag(record, ACTIVE, false);
+        }
+
+        @Override
+        public ContractPaymentData getContractPaymentData() {
+            return paymentDataStore.get(readInt(record, SLOT));
+        }
+
+        @Override
+        public Set<Person> getInsuredPersons() {
+            if (insuredPersons != null) return insuredPersons;
+
+            ByteBuffer buffer = buffer(record);
+            int position = offset(record) + align(HEADER + 2 * (readShort(record, NUMBER_LENGTH) + readShort(record, PLATE_LENGTH)));
+            List<Person> insured = new ArrayList<>(readInt(record, BENEFICIARY));
+            for (int i = readInt(record, BENEFICIARY); i > 0; i--, position += Integer.BYTES) {
+                insured.add(persons.get(buffer.getInt(position)));
+            }
+            insuredPersons = new InsuredPersons(insured);
+            return insuredPersons;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import payment.ContractPaymentData;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+class ParallelBillingTask extends RecursiveTask<BillingRunSummary> {
+    private static final long serialVersionUID = 1L;
+    private static final int THRESHOLD = 1024;
+
+    // tasks only live within one billing run and are never serialized
+    private final transient List<AbstractContract> units;
+    private final int from;
+    private final int to;
+    private final LocalDateTime time;
+
+    ParallelBillingTask(List<AbstractContract> units, int from, int to, LocalDateTime time) {
+        this.units = units;
+        this.from = from;
+        this.to = to;
+        this.time = time;
+    }
+
+    @Override
+    protected BillingRunSummary compute() {
+        if (to - from <= THRESHOLD) {
+            return chargeRange();
+        }
+
+        int middle = (from + to) >>> 1;
+        ParallelBillingTask left = new ParallelBillingTask(units, from, middle, time);
+        ParallelBillingTask right = new ParallelBillingTask(units, middle, to, time);
+        left.fork();
+        BillingRunSummary rightSummary = right.compute();
+        return left.join().combine(rightSummary);
+    }
+
+    private BillingRunSummary chargeRange() {
+        int contractsCharged = 0;
+        long premiumCharged = 0;
+        for (int i = from; i < to; i++) {
+            AbstractContract unit = units.get(i);
+            if (unit instanceof MasterVehicleContract) {
+                for (SingleVehicleContract child : ((MasterVehicleContract) unit).getChildContracts()) {
+                    long charged = charge(child.getContractPaymentData());
+                    if (charged != 0) contractsCharged++;
+                    premiumCharged += charged;
+                }
+            } else {
+                long charged = charge(unit.getContractPaymentData());
+                if (charged != 0) contractsCharged++;
+                premiumCharged += charged;
+            }
+        }
+        return new BillingRunSummary(contractsCharged, premiumCharged, Duration.ZERO);
+    }
+
+    private long charge(ContractPaymentData data) {
+        return (long) data.chargeDuePremiums(time) * data.getPremium();
+    }
+}
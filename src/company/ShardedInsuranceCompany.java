@@ -0,0 +1,259 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.PersonRegistry;
+import objects.PoolRetention;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// independent companies, each with its own contracts, billing schedule and payment handler, a contract lives in the shard
+// its number hashes to, children of a master are insured in the master's shard, operations on one shard run one at a time,
+// operations on different shards in parallel, contracts have to be changed through the facade and not through their insurer
+public class ShardedInsuranceCompany {
+    private final InsuranceCompany[] shards;
+    private final ReentrantLock[] locks;
+    // the shard of every child insured through a master, written under the lock of the shard its number hashes to,
+    // so that shard sees the number as taken
+    private final Map<String, Integer> childShards;
+    // every shard gets the same person instances, so payouts and contracts of a person are not split between copies
+    private final PersonRegistry persons;
+
+    public ShardedInsuranceCompany(LocalDateTime currentTime) {
+        this(currentTime, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedInsuranceCompany(LocalDateTime currentTime, int shardCount) {
+        if (currentTime == null) throw new IllegalArgumentException("Current time cannot be null!");
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive!");
+
+        this.shards = new InsuranceCompany[shardCount];
+        this.locks = new ReentrantLock[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InsuranceCompany(currentTime);
+            locks[i] = new ReentrantLock();
+        }
+        this.persons = new PersonRegistry(PoolRetention.WEAK);
+        this.childShards = new ConcurrentHashMap<>();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public InsuranceCompany getShard(int shard) {
+        if (shard < 0 || shard >= shards.length) throw new IllegalArgumentException("Shard does not exist!");
+        return shards[shard];
+    }
+
+    // the shard a newly insured contract with the number goes to
+    public int shardOf(String contractNumber) {
+        if (contractNumber == null) throw new IllegalArgumentException("Contract number cannot be null!");
+        int hash = contractNumber.hashCode() * 0x9E3779B9;
+        return ((hash ^ hash >>> 16) & Integer.MAX_VALUE) % shards.length;
+    }
+
+    // the shard whose company insures the contract
+    public int shardOf(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+        for (int i = 0; i < shards.length; i++) {
+            if (shards[i] == contract.getInsurer()) return i;
+        }
+        throw new IllegalArgumentException("Contract is not insured by this company!");
+    }
+
+    public LocalDateTime getCurrentTime() {
+        return shards[0].getCurrentTime();
+    }
+
+    public void setCurrentTime(LocalDateTime currentTime) {
+        if (currentTime == null) throw new IllegalArgumentException("Current time cannot be null!");
+        for (int i = 0; i < shards.length; i++) {
+            InsuranceCompany shard = shards[i];
+            runOnShard(i, () -> shard.setCurrentTime(currentTime));
+        }
+    }
+
+    public int countContracts() {
+        int count = 0;
+        for (int i = 0; i < shards.length; i++) {
+            InsuranceCompany shard = shards[i];
+            count += onShard(i, () -> shard.getContracts().size());
+        }
+        return count;
+    }
+
+    // children of masters are found as well
+    public AbstractContract findContract(String contractNumber) {
+        if (contractNumber == null) return null;
+        Integer childShard = childShards.get(contractNumber);
+        if (childShard != null) return onShard(childShard, () -> shards[childShard].findChildContract(contractNumber));
+        int shard = shardOf(contractNumber);
+        return onShard(shard, () -> {
+            AbstractContract contract = shards[shard].findContract(contractNumber);
+            return contract != null ? contract : shards[shard].findChildContract(contractNumber);
+        });
+    }
+
+    // the contracts of every shard, in shard order
+    public Set<AbstractContract> findContractsByPolicyHolder(String policyHolderId) {
+        Set<AbstractContract> found = new LinkedHashSet<>();
+        for (int i = 0; i < shards.length; i++) {
+            InsuranceCompany shard = shards[i];
+            runOnShard(i, () -> found.addAll(shard.findContractsByPolicyHolder(policyHolderId)));
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    public Set<SingleVehicleContract> findContractsByLicensePlate(String licensePlate) {
+        Set<SingleVehicleContract> found = new LinkedHashSet<>();
+        for (int i = 0; i < shards.length; i++) {
+            InsuranceCompany shard = shards[i];
+            runOnShard(i, () -> found.addAll(shard.findContractsByLicensePlate(licensePlate)));
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    public SingleVehicleContract insureVehicle(String contractNumber, Person beneficiary, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Vehicle vehicleToInsure) {
+        int shard = shardOf(contractNumber);
+        Person canonicalBeneficiary = canonical(beneficiary);
+        Person canonicalPolicyHolder = canonical(policyHolder);
+        return onShard(shard, () -> {
+            checkNotChild(contractNumber);
+            return shards[shard].insureVehicle(contractNumber, canonicalBeneficiary, canonicalPolicyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+        });
+    }
+
+    // insures the vehicle in the shard of the master and moves it under the master, a fleet is never split between shards,
+    // the number is reserved in the shard it hashes to first and stays taken there
+    public SingleVehicleContract insureVehicle(MasterVehicleContract masterVehicleContract, String contractNumber, Person beneficiary, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Vehicle vehicleToInsure) {
+        if (contractNumber == null) throw new IllegalArgumentException("Contract number cannot be null!");
+        int shard = shardOf(masterVehicleContract);
+        // a vehicle left outside the fleet would sit in a shard its number does not lead to
+        if (!masterVehicleContract.isActive()) throw new IllegalArgumentException("Master vehicle contract is inactive!");
+        Person canonicalBeneficiary = canonical(beneficiary);
+        int numberShard = shardOf(contractNumber);
+        runOnShard(numberShard, () -> {
+            if (shards[numberShard].isContractNumberTaken(contractNumber)) throw new IllegalArgumentException("Contract number has been already taken!");
+            if (childShards.putIfAbsent(contractNumber, shard) != null) throw new IllegalArgumentException("Contract number has been already taken!");
+        });
+
+        try {
+            return onShard(shard, () -> {
+                InsuranceCompany company = shards[shard];
+                SingleVehicleContract singleVehicleContract = company.insureVehicle(contractNumber, canonicalBeneficiary, masterVehicleContract.getPolicyHolder(), proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+                company.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract);
+                return singleVehicleContract;
+            });
+        } catch (RuntimeException e) {
+            childShards.remove(contractNumber, shard);
+            throw e;
+        }
+    }
+
+    public TravelContract insurePersons(String contractNumber, Person policyHolder, int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency, Set<Person> personsToInsure) {
+        int shard = shardOf(contractNumber);
+        Person canonicalPolicyHolder = canonical(policyHolder);
+        Set<Person> canonicalPersons = canonical(personsToInsure);
+        return onShard(shard, () -> {
+            checkNotChild(contractNumber);
+            return shards[shard].insurePersons(contractNumber, canonicalPolicyHolder, proposedPremium, proposedPaymentFrequency, canonicalPersons);
+        });
+    }
+
+    public MasterVehicleContract createMasterVehicleContract(String contractNumber, Person beneficiary, Person policyHolder) {
+        int shard = shardOf(contractNumber);
+        Person canonicalBeneficiary = canonical(beneficiary);
+        Person canonicalPolicyHolder = canonical(policyHolder);
+        return onShard(shard, () -> {
+            checkNotChild(contractNumber);
+            return shards[shard].createMasterVehicleContract(contractNumber, canonicalBeneficiary, canonicalPolicyHolder);
+        });
+    }
+
+    // both contracts have to be in the same shard, see insureVehicle with a master
+    public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        int shard = shardOf(masterVehicleContract);
+        runOnShard(shard, () -> shards[shard].moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract));
+    }
+
+    public void pay(AbstractContract contract, int amount) {
+        int shard = shardOf(contract);
+        runOnShard(shard, () -> contract.pay(amount));
+    }
+
+    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamage) {
+        int shard = shardOf(singleVehicleContract);
+        runOnShard(shard, () -> shards[shard].processClaim(singleVehicleContract, expectedDamage));
+    }
+
+    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons) {
+        int shard = shardOf(travelContract);
+        runOnShard(shard, () -> shards[shard].processClaim(travelContract, affectedPersons));
+    }
+
+    // every shard runs its billing on a thread of its own
+    public void chargePremiumsOnContracts() {
+        ForkJoinPool pool = new ForkJoinPool(shards.length);
+        try {
+            List<ForkJoinTask<?>> runs = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                int shard = i;
+                runs.add(pool.submit(() -> runOnShard(shard, shards[shard]::chargePremiumsOnContracts)));
+            }
+            for (ForkJoinTask<?> run : runs) {
+                run.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // called under the lock of the shard the number hashes to
+    private void checkNotChild(String contractNumber) {
+        if (contractNumber != null && childShards.containsKey(contractNumber)) throw new IllegalArgumentException("Contract number has been already taken!");
+    }
+
+    // null persons are left to the shard to reject
+    private Person canonical(Person person) {
+        return person == null ? null : persons.intern(person);
+    }
+
+    private Set<Person> canonical(Set<Person> personsToInsure) {
+        if (personsToInsure == null) return null;
+        Set<Person> result = new LinkedHashSet<>();
+        for (Person person : personsToInsure) {
+            result.add(canonical(person));
+        }
+        return result;
+    }
+
+    private <T> T onShard(int shard, Supplier<T> action) {
+        locks[shard].lock();
+        try {
+            return action.get();
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    private void runOnShard(int shard, Runnable action) {
+        locks[shard].lock();
+        try {
+            action.run();
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+}
@@ -23,7 +23,7 @@ public abstract class AbstractContract {
 
         this.insurer = insurer;
 
-        if (isContractNumberTaken(contractNumber)) throw new IllegalArgumentException("Contract number has been already taken!");
+        if (insurer.isContractNumberTaken(contractNumber)) throw new IllegalArgumentException("Contract number has been already taken!");
 
         this.contractNumber = contractNumber;
         this.policyHolder = policyHolder;
@@ -32,6 +32,15 @@ public abstract class AbstractContract {
         this.isActive = true;
     }
 
+    // for contracts whose state is kept outside the object, such as views over an off-heap contract store
+    protected AbstractContract(String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+        this.contractNumber = contractNumber;
+        this.insurer = insurer;
+        this.policyHolder = policyHolder;
+        this.contractPaymentData = null;
+        this.isActive = true;
+    }
+
     public String getContractNumber() {
         return contractNumber;
     }
@@ -73,14 +82,6 @@ public abstract class AbstractContract {
         insurer.chargePremiumOnContract(this);
     }
 
-    private boolean isContractNumberTaken(String contractNumber) {
-        for (AbstractContract contract : insurer.getContracts()) {
-            if (contract.getContractNumber().equals(contractNumber)) {
-                return true;
-            }
-        }
-        return false;
-    }
 
     @Override
     public boolean equals(Object o) {
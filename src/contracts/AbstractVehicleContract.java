@@ -13,6 +13,10 @@ public abstract class AbstractVehicleContract extends AbstractContract {
         this.beneficiary = beneficiary;
     }
 
+    protected AbstractVehicleContract(String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+        super(contractNumber, insurer, policyHolder);
+    }
+
     public void setBeneficiary(Person beneficiary) {
         if (beneficiary.equals(policyHolder)) throw new IllegalArgumentException("Beneficiary and policy holder cannot be the same person!");
         this.beneficiary = beneficiary;
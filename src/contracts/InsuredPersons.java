@@ -0,0 +1,66 @@
+package contracts;
+
+import objects.Person;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+// an immutable set in insertion order with an open addressing index by person id, so membership does not depend on
+// the set the persons were handed over in
+public final class InsuredPersons extends AbstractSet<Person> {
+    private final Person[] persons;
+    private final int[] index;
+
+    public InsuredPersons(Collection<Person> persons) {
+        if (persons == null) throw new IllegalArgumentException("Insured persons cannot be null!");
+
+        Person[] distinct = new Person[persons.size()];
+        // positions plus one, at most half of the slots are used
+        this.index = new int[Math.max(2, Integer.highestOneBit(Math.max(1, persons.size())) * 4)];
+        int size = 0;
+        for (Person person : persons) {
+            if (person == null) throw new IllegalArgumentException("Insured person cannot be null!");
+
+            int slot = slotOf(person, distinct);
+            if (index[slot] != 0) continue;
+            distinct[size++] = person;
+            index[slot] = size;
+        }
+        this.persons = size == distinct.length ? distinct : Arrays.copyOf(distinct, size);
+    }
+
+    // the insured instance of the given person, persons are matched by id
+    public Person get(Object person) {
+        if (!(person instanceof Person)) return null;
+        int position = index[slotOf((Person) person, persons)];
+        return position == 0 ? null : persons[position - 1];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return get(o) != null;
+    }
+
+    @Override
+    public int size() {
+        return persons.length;
+    }
+
+    @Override
+    public Iterator<Person> iterator() {
+        return Arrays.asList(persons).iterator();
+    }
+
+    // the slot holding the person or the empty slot where it belongs
+    private int slotOf(Person person, Person[] positions) {
+        int mask = index.length - 1;
+        int hash = person.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (index[slot] != 0 && !positions[index[slot] - 1].equals(person)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
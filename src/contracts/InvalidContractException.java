@@ -2,6 +2,6 @@ package contracts;
 
 public class InvalidContractException extends RuntimeException {
     public InvalidContractException(String message) {
-        throw new RuntimeException(message);
+        super(message);
     }
 }
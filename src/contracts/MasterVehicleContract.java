@@ -4,18 +4,21 @@ import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
 
-import java.util.LinkedHashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class MasterVehicleContract extends AbstractVehicleContract{
+    private static final AtomicIntegerFieldUpdater<MasterVehicleContract> ACTIVE_CHILD_CONTRACTS =
+            AtomicIntegerFieldUpdater.newUpdater(MasterVehicleContract.class, "activeChildContracts");
+
     private final Set<SingleVehicleContract> childContracts;
+    private volatile int activeChildContracts;
 
     public MasterVehicleContract(String contractNumber, InsuranceCompany insurer, Person beneficiary, Person policyHolder) {
         super(contractNumber, insurer, beneficiary, policyHolder, null, 0);
         if (policyHolder.getLegalForm() != LegalForm.LEGAL) throw new IllegalArgumentException("Policy holder must be a legal entity.");
 
-        this.childContracts = new LinkedHashSet<>();
+        this.childContracts = new ChildContracts();
     }
 
     public Set<SingleVehicleContract> getChildContracts() {
@@ -45,13 +48,11 @@ public class MasterVehicleContract extends AbstractVehicleContract{
             return this.isActive;
         }
 
-        for (SingleVehicleContract contract : childContracts) {
-            if (contract.isActive()) {
-                return true;
-            }
-        }
+        return activeChildContracts > 0;
+    }
 
-        return false;
+    void childContractDeactivated() {
+        ACTIVE_CHILD_CONTRACTS.decrementAndGet(this);
     }
 
     @Override
@@ -59,6 +60,11 @@ public class MasterVehicleContract extends AbstractVehicleContract{
         insurer.getHandler().pay(this, amount);
     }
 
+    @Override
+    public void updateBalance() {
+        insurer.chargePremiumOnContract(this);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -72,4 +78,74 @@ public class MasterVehicleContract extends AbstractVehicleContract{
     public int hashCode() {
         return Objects.hash(getContractNumber(), insurer);
     }
+
+    // keeps the active child counter and the children's back-references in step with every way the set can change
+    private class ChildContracts extends AbstractSet<SingleVehicleContract> {
+        private final Set<SingleVehicleContract> contracts = new LinkedHashSet<>();
+
+        @Override
+        public boolean add(SingleVehicleContract contract) {
+            if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+            if (contract.getMasterVehicleContract() != null && contract.getMasterVehicleContract() != MasterVehicleContract.this) {
+                throw new IllegalArgumentException("Contract already belongs to another master contract!");
+            }
+            if (!contracts.add(contract)) return false;
+
+            synchronized (contract) {
+                contract.setMasterVehicleContract(MasterVehicleContract.this);
+                if (contract.isActive()) ACTIVE_CHILD_CONTRACTS.incrementAndGet(MasterVehicleContract.this);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contracts.remove(o)) return false;
+            detach((SingleVehicleContract) o);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return contracts.contains(o);
+        }
+
+        @Override
+        public int size() {
+            return contracts.size();
+        }
+
+        @Override
+        public Iterator<SingleVehicleContract> iterator() {
+            Iterator<SingleVehicleContract> iterator = contracts.iterator();
+            return new Iterator<>() {
+                private SingleVehicleContract current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public SingleVehicleContract next() {
+                    current = iterator.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    detach(current);
+                    current = null;
+                }
+            };
+        }
+
+        private void detach(SingleVehicleContract contract) {
+            synchronized (contract) {
+                contract.setMasterVehicleContract(null);
+                if (contract.isActive()) ACTIVE_CHILD_CONTRACTS.decrementAndGet(MasterVehicleContract.this);
+            }
+        }
+    }
 }
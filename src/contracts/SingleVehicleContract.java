@@ -9,6 +9,7 @@ import java.util.Objects;
 
 public class SingleVehicleContract extends AbstractVehicleContract {
     private final Vehicle insuredVehicle;
+    private MasterVehicleContract masterVehicleContract;
 
     public SingleVehicleContract(String contractNumber, InsuranceCompany insurer, Person beneficiary, Person policyHolder, ContractPaymentData contractPaymentData, int coverageAmount, Vehicle vehicleToInsure) {
         super(contractNumber, insurer, beneficiary, policyHolder, contractPaymentData, coverageAmount);
@@ -16,10 +17,30 @@ public class SingleVehicleContract extends AbstractVehicleContract {
         this.insuredVehicle = vehicleToInsure;
     }
 
+    protected SingleVehicleContract(String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+        super(contractNumber, insurer, policyHolder);
+        this.insuredVehicle = null;
+    }
+
     public Vehicle getInsuredVehicle() {
         return insuredVehicle;
     }
 
+    public MasterVehicleContract getMasterVehicleContract() {
+        return masterVehicleContract;
+    }
+
+    void setMasterVehicleContract(MasterVehicleContract masterVehicleContract) {
+        this.masterVehicleContract = masterVehicleContract;
+    }
+
+    // the master counts its active children, so it has to hear about the one transition a child can make
+    @Override
+    public synchronized void setInactive() {
+        if (isActive() && masterVehicleContract != null) masterVehicleContract.childContractDeactivated();
+        super.setInactive();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -16,13 +16,26 @@ public class TravelContract extends AbstractContract{
         super(contractNumber, insurer, policyHolder, contractPaymentData, coverageAmount);
         if (contractPaymentData == null) throw new IllegalArgumentException("Contract payment data can not be null!");
         if (personsToInsure == null || personsToInsure.isEmpty()) throw new IllegalArgumentException("Person to insure can not be null or empty!");
-        this.insuredPersons = personsToInsure;
+        // a copy indexed by id, so claims check and pay the affected persons without walking the whole group
+        this.insuredPersons = new InsuredPersons(personsToInsure);
+    }
+
+    protected TravelContract(String contractNumber, InsuranceCompany insurer, Person policyHolder) {
+        super(contractNumber, insurer, policyHolder);
+        this.insuredPersons = null;
     }
 
     public Set<Person> getInsuredPersons() {
         return insuredPersons;
     }
 
+    // the insured instance of the given person, or null when the person is not insured by this contract
+    public Person getInsuredPerson(Person person) {
+        Set<Person> insured = getInsuredPersons();
+        if (insured instanceof InsuredPersons) return ((InsuredPersons) insured).get(person);
+        return insured.contains(person) ? person : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,55 @@
+package events;
+
+import java.time.LocalDateTime;
+
+public class ContractEvent {
+    private final ContractEventType type;
+    private final String contractNumber;
+    private final String masterContractNumber;
+    private final LocalDateTime time;
+    private final long amount;
+    private final long outstandingBalance;
+
+    // the amount is the payment or the payout, the balance is the one after the change, summed over the children for masters
+    public ContractEvent(ContractEventType type, String contractNumber, String masterContractNumber, LocalDateTime time, long amount, long outstandingBalance) {
+        if (type == null || contractNumber == null || time == null) throw new IllegalArgumentException("Type, contract number or time is null!");
+
+        this.type = type;
+        this.contractNumber = contractNumber;
+        this.masterContractNumber = masterContractNumber;
+        this.time = time;
+        this.amount = amount;
+        this.outstandingBalance = outstandingBalance;
+    }
+
+    public ContractEventType getType() {
+        return type;
+    }
+
+    public String getContractNumber() {
+        return contractNumber;
+    }
+
+    // the master a moved child joined, null for other events
+    public String getMasterContractNumber() {
+        return masterContractNumber;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getOutstandingBalance() {
+        return outstandingBalance;
+    }
+
+    @Override
+    public String toString() {
+        return "ContractEvent{type=" + type + ", contractNumber=" + contractNumber + (masterContractNumber == null ? "" : ", masterContractNumber=" + masterContractNumber)
+                + ", time=" + time + ", amount=" + amount + ", outstandingBalance=" + outstandingBalance + "}";
+    }
+}
@@ -0,0 +1,185 @@
+package events;
+
+import company.CompanyListener;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+// turns the notifications of one company and its payment handler into balance and status changes, each subscriber has
+// a bounded buffer of its own and receives no more than it requested, publishing never waits for a subscriber,
+// an event that does not fit a full buffer is handled by the overflow policy of that subscriber
+public class ContractEventPublisher implements CompanyListener, Flow.Publisher<ContractEvent> {
+    private static final EventSubscription[] NO_SUBSCRIPTIONS = new EventSubscription[0];
+
+    private final InsuranceCompany company;
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final OverflowPolicy overflowPolicy;
+    // replaced on every change, so publishing iterates without a lock
+    private volatile EventSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private ContractEventPublisher(InsuranceCompany company, Executor executor, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        this.company = company;
+        this.executor = executor;
+        this.bufferCapacity = bufferCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public static ContractEventPublisher attach(InsuranceCompany company) {
+        return attach(company, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), OverflowPolicy.DROP_OLDEST);
+    }
+
+    // the buffer capacity and the overflow policy are the defaults of subscribe
+    public static ContractEventPublisher attach(InsuranceCompany company, Executor executor, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        if (company == null || executor == null) throw new IllegalArgumentException("Company or executor is null!");
+        validate(bufferCapacity, overflowPolicy);
+
+        ContractEventPublisher publisher = new ContractEventPublisher(company, executor, bufferCapacity, overflowPolicy);
+        company.addListener(publisher);
+        return publisher;
+    }
+
+    // subscribers get onComplete once they have received the events published before
+    public void detach() {
+        company.removeListener(this);
+        EventSubscription[] detached;
+        synchronized (this) {
+            detached = subscriptions;
+            subscriptions = NO_SUBSCRIPTIONS;
+        }
+        for (EventSubscription subscription : detached) {
+            subscription.complete();
+        }
+    }
+
+    public InsuranceCompany getCompany() {
+        return company;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    // events overwritten or discarded because of full buffers, over every subscriber
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ContractEvent> subscriber) {
+        subscribe(subscriber, bufferCapacity, overflowPolicy);
+    }
+
+    public void subscribe(Flow.Subscriber<? super ContractEvent> subscriber, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        // the Flow contract asks for a NullPointerException
+        if (subscriber == null) throw new NullPointerException("Subscriber cannot be null!");
+        validate(bufferCapacity, overflowPolicy);
+
+        EventSubscription subscription = new EventSubscription(this, subscriber, executor, bufferCapacity, overflowPolicy);
+        synchronized (this) {
+            for (EventSubscription existing : subscriptions) {
+                if (existing.getSubscriber() == subscriber) {
+                    subscriber.onError(new IllegalStateException("Subscriber is already subscribed!"));
+                    return;
+                }
+            }
+            subscriber.onSubscribe(subscription);
+            if (subscription.isCancelled()) return;
+            EventSubscription[] added = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            added[subscriptions.length] = subscription;
+            subscriptions = added;
+        }
+    }
+
+    synchronized void remove(EventSubscription subscription) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i] != subscription) continue;
+
+            EventSubscription[] removed = new EventSubscription[subscriptions.length - 1];
+            System.arraycopy(subscriptions, 0, removed, 0, i);
+            System.arraycopy(subscriptions, i + 1, removed, i, subscriptions.length - i - 1);
+            subscriptions = removed;
+            return;
+        }
+    }
+
+    private static void validate(int bufferCapacity, OverflowPolicy overflowPolicy) {
+        if (bufferCapacity <= 0) throw new IllegalArgumentException("Buffer capacity must be positive!");
+        if (overflowPolicy == null) throw new IllegalArgumentException("Overflow policy cannot be null!");
+    }
+
+    @Override
+    public void vehicleInsured(SingleVehicleContract contract) {
+        if (subscriptions.length == 0) return;
+        publish(ContractEventType.CONTRACT_INSURED, contract, null, company.getCurrentTime(), 0);
+    }
+
+    @Override
+    public void personsInsured(TravelContract contract) {
+        if (subscriptions.length == 0) return;
+        publish(ContractEventType.CONTRACT_INSURED, contract, null, company.getCurrentTime(), 0);
+    }
+
+    @Override
+    public void contractMoved(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        if (subscriptions.length == 0) return;
+        publish(ContractEventType.CHILD_MOVED, singleVehicleContract, masterVehicleContract.getContractNumber(), company.getCurrentTime(), 0);
+    }
+
+    @Override
+    public void premiumsCharged(AbstractContract contract) {
+        if (subscriptions.length == 0) return;
+        publish(ContractEventType.PREMIUM_CHARGED, contract, null, company.getCurrentTime(), 0);
+    }
+
+    @Override
+    public void paymentReceived(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        if (subscriptions.length == 0) return;
+        publish(ContractEventType.PAYMENT_APPLIED, contract, null, paymentTime, amount);
+    }
+
+    @Override
+    public void claimProcessed(SingleVehicleContract contract, int expectedDamage) {
+        if (subscriptions.length == 0) return;
+        LocalDateTime time = company.getCurrentTime();
+        publish(ContractEventType.CLAIM_PAID, contract, null, time, contract.getCoverageAmount());
+        if (!contract.isActive()) publish(ContractEventType.CONTRACT_DEACTIVATED, contract, null, time, 0);
+    }
+
+    @Override
+    public void claimProcessed(TravelContract contract, Set<Person> affectedPersons) {
+        if (subscriptions.length == 0) return;
+        LocalDateTime time = company.getCurrentTime();
+        publish(ContractEventType.CLAIM_PAID, contract, null, time, (long) (contract.getCoverageAmount() / affectedPersons.size()) * affectedPersons.size());
+        if (!contract.isActive()) publish(ContractEventType.CONTRACT_DEACTIVATED, contract, null, time, 0);
+    }
+
+    private void publish(ContractEventType type, AbstractContract contract, String masterContractNumber, LocalDateTime time, long amount) {
+        ContractEvent event = new ContractEvent(type, contract.getContractNumber(), masterContractNumber, time, amount, outstandingBalanceOf(contract));
+        for (EventSubscription subscription : subscriptions) {
+            if (subscription.offer(event)) droppedEvents.increment();
+        }
+    }
+
+    private static long outstandingBalanceOf(AbstractContract contract) {
+        if (!(contract instanceof MasterVehicleContract)) return contract.getContractPaymentData().getOutstandingBalance();
+
+        long outstandingBalance = 0;
+        for (SingleVehicleContract childContract : ((MasterVehicleContract) contract).getChildContracts()) {
+            outstandingBalance += childContract.getContractPaymentData().getOutstandingBalance();
+        }
+        return outstandingBalance;
+    }
+}
@@ -0,0 +1,10 @@
+package events;
+
+public enum ContractEventType {
+    CONTRACT_INSURED,
+    PREMIUM_CHARGED,
+    PAYMENT_APPLIED,
+    CLAIM_PAID,
+    CONTRACT_DEACTIVATED,
+    CHILD_MOVED
+}
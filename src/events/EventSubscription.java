@@ -0,0 +1,153 @@
+package events;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// a bounded ring of events between the publishing thread and one subscriber, the subscriber is called from a single drain
+// task on the executor at a time, offering only takes the ring's monitor and never waits for the subscriber
+final class EventSubscription implements Flow.Subscription {
+    private final ContractEventPublisher publisher;
+    private final Flow.Subscriber<? super ContractEvent> subscriber;
+    private final Executor executor;
+    private final OverflowPolicy overflowPolicy;
+    private final ContractEvent[] buffer;
+    private int head;
+    private int size;
+    private final AtomicLong demand = new AtomicLong();
+    // drain requests, the one raising it from zero schedules the drain
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private volatile Throwable error;
+
+    EventSubscription(ContractEventPublisher publisher, Flow.Subscriber<? super ContractEvent> subscriber, Executor executor, int bufferCapacity, OverflowPolicy overflowPolicy) {
+        this.publisher = publisher;
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.overflowPolicy = overflowPolicy;
+        this.buffer = new ContractEvent[bufferCapacity];
+    }
+
+    Flow.Subscriber<? super ContractEvent> getSubscriber() {
+        return subscriber;
+    }
+
+    // returns whether the event was dropped, its own or the oldest one
+    boolean offer(ContractEvent event) {
+        if (cancelled) return false;
+
+        boolean dropped = false;
+        synchronized (this) {
+            if (size == buffer.length) {
+                dropped = true;
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) return true;
+                if (overflowPolicy == OverflowPolicy.CANCEL) {
+                    error = new IllegalStateException("Subscriber is more than " + buffer.length + " events behind!");
+                } else {
+                    buffer[head] = null;
+                    head = (head + 1) % buffer.length;
+                    size--;
+                }
+            }
+            if (error == null) {
+                buffer[(head + size) % buffer.length] = event;
+                size++;
+            }
+        }
+        if (error != null) publisher.remove(this);
+        // without demand the event waits for the next request, which drains it
+        if (error != null || demand.get() > 0) signal();
+        return dropped;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void complete() {
+        completed = true;
+        signal();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error = new IllegalArgumentException("Requested number of events must be positive!");
+            publisher.remove(this);
+        } else {
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        }
+        signal();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        publisher.remove(this);
+    }
+
+    private void signal() {
+        if (work.getAndIncrement() == 0) executor.execute(this::drain);
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            while (!cancelled) {
+                Throwable error = this.error;
+                if (error != null) {
+                    terminate();
+                    subscriber.onError(error);
+                    break;
+                }
+                if (demand.get() == 0) {
+                    if (completed && isEmpty()) {
+                        terminate();
+                        subscriber.onComplete();
+                    }
+                    break;
+                }
+                ContractEvent event = poll();
+                if (event == null) {
+                    if (completed) {
+                        terminate();
+                        subscriber.onComplete();
+                    }
+                    break;
+                }
+                if (demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+                try {
+                    subscriber.onNext(event);
+                } catch (RuntimeException e) {
+                    // a failing subscriber is treated as cancelled
+                    cancel();
+                }
+            }
+            missed = work.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void terminate() {
+        cancelled = true;
+        synchronized (this) {
+            Arrays.fill(buffer, null);
+            size = 0;
+        }
+    }
+
+    private synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private synchronized ContractEvent poll() {
+        if (size == 0) return null;
+        ContractEvent event = buffer[head];
+        buffer[head] = null;
+        head = (head + 1) % buffer.length;
+        size--;
+        return event;
+    }
+}
@@ -0,0 +1,9 @@
+package events;
+
+// what happens to an event published while the buffer of a subscriber is full
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    // the subscription is cancelled and the subscriber gets onError
+    CANCEL
+}
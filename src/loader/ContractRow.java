@@ -0,0 +1,116 @@
+package loader;
+
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+class ContractRow {
+    static final String CSV_HEADER = "type,contractNumber,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,insuredPersons";
+    static final String VEHICLE = "VEHICLE";
+    static final String TRAVEL = "TRAVEL";
+
+    String type;
+    String contractNumber;
+    String policyHolder;
+    String beneficiary;
+    int premium;
+    String frequency;
+    String licensePlate;
+    int vehicleValue;
+    List<String> insuredPersons;
+
+    static ContractRow fromCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 9) throw new IllegalArgumentException("Expected 9 fields but found " + fields.length + "!");
+
+        ContractRow row = new ContractRow();
+        row.type = fields[0];
+        row.contractNumber = emptyToNull(fields[1]);
+        row.policyHolder = emptyToNull(fields[2]);
+        row.beneficiary = emptyToNull(fields[3]);
+        row.premium = Integer.parseInt(fields[4]);
+        row.frequency = emptyToNull(fields[5]);
+        if (VEHICLE.equals(row.type)) {
+            row.licensePlate = fields[6];
+            row.vehicleValue = Integer.parseInt(fields[7]);
+        } else {
+            row.insuredPersons = fields[8].isEmpty() ? new ArrayList<>() : Arrays.asList(fields[8].split(";"));
+        }
+        return row;
+    }
+
+    static ContractRow fromJson(String line) {
+        Map<String, Object> object = FlatJson.parseObject(line);
+
+        ContractRow row = new ContractRow();
+        row.type = string(object, "type");
+        row.contractNumber = string(object, "contractNumber");
+        row.policyHolder = string(object, "policyHolder");
+        row.beneficiary = string(object, "beneficiary");
+        row.premium = number(object, "premium");
+        row.frequency = string(object, "frequency");
+        if (VEHICLE.equals(row.type)) {
+            row.licensePlate = string(object, "licensePlate");
+            row.vehicleValue = number(object, "vehicleValue");
+        } else {
+            Object persons = object.get("insuredPersons");
+            if (!(persons instanceof List)) throw new IllegalArgumentException("Insured persons must be an array!");
+            row.insuredPersons = new ArrayList<>();
+            for (Object person : (List<?>) persons) {
+                if (!(person instanceof String)) throw new IllegalArgumentException("Insured person id must be a string!");
+                row.insuredPersons.add((String) person);
+            }
+        }
+        return row;
+    }
+
+    String validate() {
+        if (!VEHICLE.equals(type) && !TRAVEL.equals(type)) return "Unknown contract type!";
+        if (contractNumber == null || contractNumber.isEmpty()) return "Contract number cannot be null or empty!";
+        if (policyHolder == null || !Person.isValidRegistrationNumber(policyHolder)) return "Invalid policy holder id!";
+        if (premium <= 0) return "Premium must be positive!";
+        if (paymentFrequency() == null) return "Unknown payment frequency!";
+
+        if (VEHICLE.equals(type)) {
+            if (beneficiary != null && !Person.isValidRegistrationNumber(beneficiary)) return "Invalid beneficiary id!";
+            if (!Vehicle.isValidLicensePlate(licensePlate)) return "Invalid license plate!";
+            if (vehicleValue <= 0) return "Vehicle value must be positive!";
+        } else {
+            if (insuredPersons.isEmpty()) return "Insured persons cannot be empty!";
+            for (String person : insuredPersons) {
+                if (!Person.isValidRegistrationNumber(person)) return "Invalid insured person id!";
+            }
+        }
+        return null;
+    }
+
+    // null when the frequency is missing or unknown
+    PremiumPaymentFrequency paymentFrequency() {
+        if (frequency == null) return null;
+        for (PremiumPaymentFrequency value : PremiumPaymentFrequency.values()) {
+            if (value.name().equals(frequency)) return value;
+        }
+        return null;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String string(Map<String, Object> object, String key) {
+        Object value = object.get(key);
+        if (value != null && !(value instanceof String)) throw new IllegalArgumentException("Field " + key + " must be a string!");
+        return (String) value;
+    }
+
+    private static int number(Map<String, Object> object, String key) {
+        Object value = object.get(key);
+        if (!(value instanceof Long)) throw new IllegalArgumentException("Field " + key + " must be a whole number!");
+        return Math.toIntExact((Long) value);
+    }
+}
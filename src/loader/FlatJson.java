@@ -0,0 +1,188 @@
+package loader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class FlatJson {
+    private final String text;
+    private int position;
+
+    private FlatJson(String text) {
+        this.text = text;
+    }
+
+    // one JSON object with string, number, boolean or null values and arrays of those
+    public static Map<String, Object> parseObject(String text) {
+        if (text == null) throw new IllegalArgumentException("JSON text cannot be null!");
+        FlatJson parser = new FlatJson(text);
+        Map<String, Object> object = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) throw parser.error("Unexpected trailing characters");
+        return object;
+    }
+
+    public static String quote(String value) {
+        if (value == null) return "null";
+
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if (c < 0x20) builder.append(String.format("\\u%04x", (int) c));
+                    else builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private Map<String, Object> readObject() {
+        expect('{');
+        Map<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') return object;
+            if (c != ',') throw error("Expected ',' or '}'");
+        }
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') return readString();
+        if (c == '[') return readArray();
+        if (text.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        if (text.startsWith("true", position)) {
+            position += 4;
+            return Boolean.TRUE;
+        }
+        if (text.startsWith("false", position)) {
+            position += 5;
+            return Boolean.FALSE;
+        }
+        return readNumber();
+    }
+
+    private List<Object> readArray() {
+        expect('[');
+        List<Object> array = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') return array;
+            if (c != ',') throw error("Expected ',' or ']'");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder builder = null;
+        int start = position;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return builder == null ? text.substring(start, position - 1) : builder.toString();
+            }
+            if (c == '\\') {
+                if (builder == null) builder = new StringBuilder().append(text, start, position - 1);
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("Invalid unicode escape");
+                        builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default: builder.append(escaped);
+                }
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+    }
+
+    // integers are read as longs, numbers with a fraction or an exponent as doubles
+    private Number readNumber() {
+        int start = position;
+        if (position < text.length() && text.charAt(position) == '-') position++;
+        if (skipDigits() == 0) throw error("Unexpected value");
+        boolean integer = true;
+        if (position < text.length() && text.charAt(position) == '.') {
+            position++;
+            if (skipDigits() == 0) throw error("Expected digits after '.'");
+            integer = false;
+        }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            position++;
+            if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) position++;
+            if (skipDigits() == 0) throw error("Expected digits in the exponent");
+            integer = false;
+        }
+
+        String number = text.substring(start, position);
+        if (integer) return Long.parseLong(number);
+        return Double.parseDouble(number);
+    }
+
+    private int skipDigits() {
+        int start = position;
+        while (position < text.length() && Character.isDigit(text.charAt(position))) position++;
+        return position - start;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) throw error("Expected '" + expected + "'");
+    }
+
+    private char peek() {
+        if (position >= text.length()) throw error("Unexpected end of input");
+        return text.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + "!");
+    }
+}
@@ -0,0 +1,6 @@
+package loader;
+
+public enum InputFormat {
+    CSV,
+    NDJSON
+}
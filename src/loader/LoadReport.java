@@ -0,0 +1,39 @@
+package loader;
+
+import java.time.Duration;
+
+public class LoadReport {
+    private final long accepted;
+    private final long rejected;
+    private final Duration elapsed;
+
+    public LoadReport(long accepted, long rejected, Duration elapsed) {
+        if (elapsed == null) throw new IllegalArgumentException("Elapsed time cannot be null!");
+
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.elapsed = elapsed;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public double getContractsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : accepted * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{accepted=" + accepted + ", rejected=" + rejected + ", elapsed=" + elapsed + "}";
+    }
+}
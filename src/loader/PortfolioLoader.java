@@ -0,0 +1,76 @@
+package loader;
+
+import company.InsuranceCompany;
+import objects.Person;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class PortfolioLoader {
+    private final InsuranceCompany company;
+
+    public PortfolioLoader(InsuranceCompany company) {
+        if (company == null) throw new IllegalArgumentException("Company cannot be null!");
+        this.company = company;
+    }
+
+    public LoadReport load(Path input, InputFormat format, Path rejects) throws IOException {
+        if (input == null || format == null) throw new IllegalArgumentException("Input or format is null!");
+
+        long start = System.nanoTime();
+        long accepted = 0;
+        long rejected = 0;
+        try (LineReader reader = new LineReader(input);
+             Writer rejectWriter = rejects == null ? Writer.nullWriter() : Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == InputFormat.CSV && lineNumber == 1 && line.equals(ContractRow.CSV_HEADER)) continue;
+
+                String reason = insert(line, format);
+                if (reason == null) {
+                    accepted++;
+                } else {
+                    rejected++;
+                    rejectWriter.write(lineNumber + "\t" + reason + "\t" + line + System.lineSeparator());
+                }
+            }
+        }
+        return new LoadReport(accepted, rejected, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private String insert(String line, InputFormat format) {
+        try {
+            ContractRow row = format == InputFormat.CSV ? ContractRow.fromCsv(line) : ContractRow.fromJson(line);
+            String reason = row.validate();
+            if (reason != null) return reason;
+
+            Person policyHolder = person(row.policyHolder);
+            if (ContractRow.VEHICLE.equals(row.type)) {
+                Person beneficiary = row.beneficiary == null ? null : person(row.beneficiary);
+                company.insureVehicle(row.contractNumber, beneficiary, policyHolder, row.premium, row.paymentFrequency(), company.getVehicleRegistry().intern(row.licensePlate, row.vehicleValue));
+            } else {
+                Set<Person> insuredPersons = new LinkedHashSet<>();
+                for (String id : row.insuredPersons) {
+                    insuredPersons.add(person(id));
+                }
+                company.insurePersons(row.contractNumber, policyHolder, row.premium, row.paymentFrequency(), insuredPersons);
+            }
+            return null;
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return e.getMessage();
+        }
+    }
+
+    private Person person(String id) {
+        return company.getPersonRegistry().intern(id);
+    }
+}
@@ -0,0 +1,20 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) throw new IllegalArgumentException("Counter cannot decrease!");
+        count.add(amount);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
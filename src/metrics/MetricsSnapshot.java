@@ -0,0 +1,90 @@
+package metrics;
+
+import loader.FlatJson;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class MetricsSnapshot {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    // the maps are sorted by name
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    // one metric per line, latencies in nanoseconds
+    public String toText() {
+        StringBuilder builder = new StringBuilder();
+        counters.forEach((name, value) -> builder.append(name).append(' ').append(value).append('\n'));
+        gauges.forEach((name, value) -> builder.append(name).append(' ').append(value).append('\n'));
+        histograms.forEach((name, histogram) -> {
+            builder.append(name).append(" count=").append(histogram.getCount()).append(" mean=").append(Math.round(histogram.getMeanNanos()));
+            for (double percentile : PERCENTILES) {
+                builder.append(" p").append(label(percentile)).append('=').append(histogram.getPercentileNanos(percentile));
+            }
+            builder.append(" max=").append(histogram.getMaxNanos()).append('\n');
+        });
+        return builder.toString();
+    }
+
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("{\"counters\":");
+        appendValues(builder, counters);
+        builder.append(",\"gauges\":");
+        appendValues(builder, gauges);
+        builder.append(",\"histograms\":{");
+        boolean first = true;
+        for (Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+            if (!first) builder.append(',');
+            first = false;
+            HistogramSnapshot histogram = entry.getValue();
+            builder.append(FlatJson.quote(entry.getKey())).append(":{\"count\":").append(histogram.getCount())
+                    .append(",\"meanNanos\":").append(Math.round(histogram.getMeanNanos()));
+            for (double percentile : PERCENTILES) {
+                builder.append(",\"p").append(label(percentile)).append("Nanos\":").append(histogram.getPercentileNanos(percentile));
+            }
+            builder.append(",\"maxNanos\":").append(histogram.getMaxNanos()).append('}');
+        }
+        return builder.append("}}").toString();
+    }
+
+    private static void appendValues(StringBuilder builder, Map<String, Long> values) {
+        builder.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            if (!first) builder.append(',');
+            first = false;
+            builder.append(FlatJson.quote(entry.getKey())).append(':').append(entry.getValue());
+        }
+        builder.append('}');
+    }
+
+    // 99.9 becomes 999, as in the usual p999
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile).replace(".", "");
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
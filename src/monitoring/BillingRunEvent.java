@@ -0,0 +1,22 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("insurance.BillingRun")
+@Label("Billing Run")
+@Category({"Insurance", "Billing"})
+@Description("A chargePremiumsOnContracts run over the contracts due at the company time")
+@StackTrace(false)
+public class BillingRunEvent extends Event {
+    @Label("Contracts Due")
+    public int contractsDue;
+
+    @Label("Parallelism")
+    @Description("0 for the sequential run")
+    public int parallelism;
+}
@@ -0,0 +1,27 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("insurance.Claim")
+@Label("Claim")
+@Category({"Insurance", "Claims"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class ClaimEvent extends Event {
+    @Label("Contract Number")
+    public String contractNumber;
+
+    @Label("Affected Persons")
+    public int affectedPersons;
+
+    @Label("Paid Out Amount")
+    public long paidOutAmount;
+
+    @Label("Contract Deactivated")
+    public boolean contractDeactivated;
+}
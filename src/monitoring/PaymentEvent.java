@@ -0,0 +1,30 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("insurance.Payment")
+@Label("Payment")
+@Category({"Insurance", "Payments"})
+@Description("A payment on a contract, a master payment is allocated to its active children")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PaymentEvent extends Event {
+    @Label("Contract Number")
+    public String contractNumber;
+
+    @Label("Amount")
+    public int amount;
+
+    @Label("Children Touched")
+    public int childrenTouched;
+
+    @Label("Allocation Rounds")
+    @Description("Full premium rounds prepaid to every active child")
+    public long allocationRounds;
+}
@@ -0,0 +1,34 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// one per billed contract, so only the slow ones are recorded unless the threshold is lowered
+@Name("insurance.PremiumCharge")
+@Label("Premium Charge")
+@Category({"Insurance", "Billing"})
+@Description("Due premiums charged on a single contract or on a master contract with its children")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PremiumChargeEvent extends Event {
+    @Label("Contract Number")
+    public String contractNumber;
+
+    @Label("Master Contract")
+    public boolean master;
+
+    @Label("Children Charged")
+    public int childrenCharged;
+
+    @Label("Periods Charged")
+    @Description("Premium periods charged, summed over the children of a master")
+    public int periodsCharged;
+
+    @Label("Amount Charged")
+    public long amountCharged;
+}
@@ -0,0 +1,196 @@
+package objects;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Supplier;
+
+// canonical instances by an encoded numeric code, striped over locked segments of open addressing tables,
+// a code identifies its instance unless it is marked as hashed, then the keys are compared on a code match too
+abstract class IdentityPool<T> {
+    static final long HASHED = 1L << 62;
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment[] segments;
+    private final ReferenceQueue<T> queue;
+
+    IdentityPool(PoolRetention retention) {
+        if (retention == null) throw new IllegalArgumentException("Retention cannot be null!");
+        this.segments = new Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+        this.queue = retention == PoolRetention.WEAK ? new ReferenceQueue<>() : null;
+    }
+
+    abstract String keyOf(T value);
+
+    public PoolRetention getRetention() {
+        return queue == null ? PoolRetention.STRONG : PoolRetention.WEAK;
+    }
+
+    public int size() {
+        expunge();
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.codes = new long[INITIAL_CAPACITY];
+                segment.values = new Object[INITIAL_CAPACITY];
+                segment.size = 0;
+            }
+        }
+        if (queue != null) {
+            while (queue.poll() != null) ;
+        }
+    }
+
+    T find(long code, String key) {
+        expunge();
+        Segment segment = segmentOf(code);
+        synchronized (segment) {
+            int slot = indexOf(segment, code, key);
+            return slot < 0 ? null : value(segment.values[slot]);
+        }
+    }
+
+    T intern(long code, String key, Supplier<T> factory) {
+        expunge();
+        Segment segment = segmentOf(code);
+        synchronized (segment) {
+            int slot = indexOf(segment, code, key);
+            if (slot >= 0) return value(segment.values[slot]);
+
+            T value = factory.get();
+            if (segment.size + 1 > segment.codes.length * 3 / 4) resize(segment);
+            insert(segment, code, queue == null ? value : new WeakEntry<>(value, queue, code));
+            segment.size++;
+            return value;
+        }
+    }
+
+    boolean evict(long code, String key) {
+        expunge();
+        Segment segment = segmentOf(code);
+        synchronized (segment) {
+            int slot = indexOf(segment, code, key);
+            if (slot < 0) return false;
+            delete(segment, slot);
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(Object entry) {
+        return queue == null ? (T) entry : ((WeakEntry<T>) entry).get();
+    }
+
+    private int indexOf(Segment segment, long code, String key) {
+        long[] codes = segment.codes;
+        Object[] values = segment.values;
+        int mask = codes.length - 1;
+        for (int i = home(code) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (codes[i] != code) continue;
+            T value = value(values[i]);
+            // a cleared weak entry stays until it is expunged, a new instance is inserted next to it
+            if (value != null && ((code & HASHED) == 0 || key.equals(keyOf(value)))) return i;
+        }
+        return -1;
+    }
+
+    private static void insert(Segment segment, long code, Object entry) {
+        int mask = segment.codes.length - 1;
+        int i = home(code) & mask;
+        while (segment.values[i] != null) {
+            i = (i + 1) & mask;
+        }
+        segment.codes[i] = code;
+        segment.values[i] = entry;
+    }
+
+    private static void resize(Segment segment) {
+        long[] codes = segment.codes;
+        Object[] values = segment.values;
+        segment.codes = new long[codes.length * 2];
+        segment.values = new Object[codes.length * 2];
+        for (int i = 0; i < codes.length; i++) {
+            if (values[i] != null) insert(segment, codes[i], values[i]);
+        }
+    }
+
+    // backward shift deletion keeps the probe sequences intact without tombstones
+    private static void delete(Segment segment, int slot) {
+        long[] codes = segment.codes;
+        Object[] values = segment.values;
+        int mask = codes.length - 1;
+        values[slot] = null;
+        segment.size--;
+
+        for (int j = (slot + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = home(codes[j]) & mask;
+            boolean reachable = slot <= j ? home > slot && home <= j : home > slot || home <= j;
+            if (reachable) continue;
+
+            codes[slot] = codes[j];
+            values[slot] = values[j];
+            values[j] = null;
+            slot = j;
+        }
+    }
+
+    private void expunge() {
+        if (queue == null) return;
+        Reference<? extends T> reference;
+        while ((reference = queue.poll()) != null) {
+            WeakEntry<?> entry = (WeakEntry<?>) reference;
+            Segment segment = segmentOf(entry.code);
+            synchronized (segment) {
+                int mask = segment.codes.length - 1;
+                for (int i = home(entry.code) & mask; segment.values[i] != null; i = (i + 1) & mask) {
+                    if (segment.values[i] == entry) {
+                        delete(segment, i);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private Segment segmentOf(long code) {
+        return segments[(int) (mix(code) >>> (64 - SEGMENT_BITS))];
+    }
+
+    // the low bits of the mixed code pick the slot and the high bits pick the segment
+    private static int home(long code) {
+        return (int) mix(code);
+    }
+
+    private static long mix(long code) {
+        code *= 0x9E3779B97F4A7C15L;
+        return code ^ (code >>> 29);
+    }
+
+    private static final class Segment {
+        private long[] codes = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int size;
+    }
+
+    private static final class WeakEntry<T> extends WeakReference<T> {
+        private final long code;
+
+        WeakEntry(T value, ReferenceQueue<T> queue, long code) {
+            super(value, queue);
+            this.code = code;
+        }
+    }
+}
@@ -2,77 +2,79 @@ package objects;
 
 import contracts.AbstractContract;
 
-import java.time.DateTimeException;
-import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Person {
     private final static int MAX_OLD_RC_YEAR = 1953;
+    private static final AtomicIntegerFieldUpdater<Person> PAID_OUT_AMOUNT =
+            AtomicIntegerFieldUpdater.newUpdater(Person.class, "paidOutAmount");
 
     private final  String id;
     private LegalForm legalForm;
-    private int paidOutAmount;
-    private final Set<AbstractContract> contracts;
+    private volatile int paidOutAmount;
+    // most persons are only insured or beneficiaries, so the set is created with the first contract they hold
+    private Set<AbstractContract> contracts;
 
     public Person(String id) {
         if(id == null || id.isEmpty()) throw new IllegalArgumentException("ID cannot be null or empty!");
 
-        if(!isValidRegistrationNumber(id)) throw new IllegalArgumentException("The id is incorrect!");
-        if(isICO(id)) legalForm = LegalForm.LEGAL;
-        else if (isRC(id)) legalForm = LegalForm.NATURAL;
+        legalForm = legalFormOf(id);
+        if(legalForm == null) throw new IllegalArgumentException("The id is incorrect!");
 
         this.id = id;
         this.paidOutAmount = 0;
-        this.contracts = new LinkedHashSet<>();
     }
 
     public static boolean isValidRegistrationNumber(String registrationNumber) {
-        return isICO(registrationNumber) || isRC(registrationNumber);
+        return legalFormOf(registrationNumber) != null;
     }
 
-    private static boolean canParseToInteger(String string) {
-        try {
-            Long.parseLong(string);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+    // one pass over the characters with the same results as the Long.parseLong and LocalDate based checks, without allocating or throwing
+    private static LegalForm legalFormOf(String id) {
+        int length = id.length();
+        if (length != 6 && length != 8 && length != 9 && length != 10) return null;
+        if (!isNumber(id)) return null;
+
+        if (length == 6 || length == 8) return LegalForm.LEGAL;
+        return isRC(id) ? LegalForm.NATURAL : null;
     }
 
-    private  static boolean isICO(String id) {
-        if (id.length() != 6 && id.length() != 8) return false;
+    private static boolean isNumber(String id) {
+        char first = id.charAt(0);
+        if (first != '+' && first != '-' && Character.digit(first, 10) < 0) return false;
 
-        return canParseToInteger(id);
+        for (int i = 1; i < id.length(); i++) {
+            if (Character.digit(id.charAt(i), 10) < 0) return false;
+        }
+        return true;
     }
 
     private static boolean isRC(String id) {
-        if (id.length() != 9 && id.length() != 10) return false;
-
-        if (!canParseToInteger(id)) return false;
-
-        int year = 1900 + Integer.parseInt(id.substring(0, 2));
-        int month = Integer.parseInt(id.substring(2,4));
+        int year = 1900 + parseTwoDigits(id, 0);
+        int month = parseTwoDigits(id, 2);
 
         if((month < 1 || month > 12) && (month < 51 || month > 62)) return false;
 
         if(id.length() == 9 && year > MAX_OLD_RC_YEAR) return false;
         else if (id.length() == 9) {
-            return isValidBirthNumber(id.substring(0,6));
+            return isValidBirthNumber(id);
         }
 
-        if(tenSumRC(id)) return isValidBirthNumber(id.substring(0, 6));
+        if(tenSumRC(id)) return isValidBirthNumber(id);
 
         return true;
     }
 
     private static boolean tenSumRC(String id) {
-        char[] array = id.toCharArray();
         int sum = 0;
 
         for (int i = 0; i < 10; i++) {
-            int digit = array[i] - '0';
+            int digit = id.charAt(i) - '0';
             sum += (i % 2 == 0 ? digit : -digit);
         }
 
@@ -80,17 +82,27 @@ public class Person {
     }
 
     public static boolean isValidBirthNumber(String birthNumber) {
-        int year = 1900 + Integer.parseInt(birthNumber.substring(0, 2));
-        int month = Integer.parseInt(birthNumber.substring(2,4));
+        int year = 1900 + parseTwoDigits(birthNumber, 0);
+        int month = parseTwoDigits(birthNumber, 2);
         if(month >= 51) month -= 50;
-        int day = Integer.parseInt(birthNumber.substring(4,6));
+        int day = parseTwoDigits(birthNumber, 4);
+
+        if (month < 1 || month > 12 || day < 1) return false;
+        return day <= Month.of(month).length(Year.isLeap(year));
+    }
 
-        try {
-            LocalDate.of(year, month, day);
-            return true;
-        } catch (DateTimeException e) {
-            return false;
+    // Integer.parseInt of the two characters at index, including its optional leading sign
+    private static int parseTwoDigits(String value, int index) {
+        char first = value.charAt(index);
+        int second = Character.digit(value.charAt(index + 1), 10);
+        int tens = Character.digit(first, 10);
+        if (second < 0 || (tens < 0 && first != '+' && first != '-')) {
+            throw new NumberFormatException("For input string: \"" + value.substring(index, index + 2) + "\"");
         }
+
+        if (first == '-') return -second;
+        if (first == '+') return second;
+        return tens * 10 + second;
     }
 
     public String getId() {
@@ -106,23 +118,26 @@ public class Person {
     }
 
     public Set<AbstractContract> getContracts() {
-        return Collections.unmodifiableSet(contracts);
+        return contracts == null ? Collections.emptySet() : Collections.unmodifiableSet(contracts);
     }
 
-    public void addContract(AbstractContract contract) {
+    // shards of a sharded company add the contracts of a person from their own threads
+    public synchronized void addContract(AbstractContract contract) {
         if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
         if (!contract.getPolicyHolder().equals(this)) throw new IllegalArgumentException("This person is not the policy holder of the contract.");
 
+        if (contracts == null) contracts = new LinkedHashSet<>();
         contracts.add(contract);
     }
 
     public void payout(int paidOutAmount) {
         if (paidOutAmount <= 0) throw new IllegalArgumentException("Paid out amount cannot be negative!");
-        this.paidOutAmount += paidOutAmount;
+        // claims of different contracts may pay the same person from several threads
+        PAID_OUT_AMOUNT.addAndGet(this, paidOutAmount);
     }
 
-    public void removeContract(AbstractContract contract) {
-
+    public synchronized void removeContract(AbstractContract contract) {
+        if (contracts == null) return;
         contracts.remove(contract);
     }
 
@@ -0,0 +1,55 @@
+package objects;
+
+public class PersonRegistry extends IdentityPool<Person> {
+
+    public PersonRegistry() {
+        this(PoolRetention.STRONG);
+    }
+
+    // weak registries drop persons nothing else refers to, strong ones keep them until they are evicted
+    public PersonRegistry(PoolRetention retention) {
+        super(retention);
+    }
+
+    // the digits as a number with the length and the optional sign above them, ids written with other than ascii digits
+    // can share a code, so theirs is marked as hashed and the registry tells them apart by the id
+    public static long encodeId(String id) {
+        if (id == null || id.isEmpty()) throw new IllegalArgumentException("ID cannot be null or empty!");
+        if (!Person.isValidRegistrationNumber(id)) throw new IllegalArgumentException("The id is incorrect!");
+
+        char first = id.charAt(0);
+        long sign = first == '+' ? 1 : first == '-' ? 2 : 0;
+        long digits = 0;
+        long hashed = 0;
+        for (int i = sign == 0 ? 0 : 1; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c > '9') hashed = HASHED;
+            digits = digits * 10 + Character.digit(c, 10);
+        }
+        return hashed | (long) id.length() << 40 | sign << 36 | digits;
+    }
+
+    public Person find(String id) {
+        if (id == null || !Person.isValidRegistrationNumber(id)) return null;
+        return find(encodeId(id), id);
+    }
+
+    public Person intern(String id) {
+        return intern(encodeId(id), id, () -> new Person(id));
+    }
+
+    public Person intern(Person person) {
+        if (person == null) throw new IllegalArgumentException("Person cannot be null!");
+        return intern(encodeId(person.getId()), person.getId(), () -> person);
+    }
+
+    public boolean evict(String id) {
+        if (id == null || !Person.isValidRegistrationNumber(id)) return false;
+        return evict(encodeId(id), id);
+    }
+
+    @Override
+    String keyOf(Person person) {
+        return person.getId();
+    }
+}
@@ -0,0 +1,6 @@
+package objects;
+
+public enum PoolRetention {
+    STRONG,
+    WEAK
+}
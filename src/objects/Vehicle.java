@@ -12,7 +12,9 @@ public class Vehicle {
         this.originalValue = originalValue;
     }
 
-    private boolean isValidLicensePlate(String licensePlate) {
+    public static boolean isValidLicensePlate(String licensePlate) {
+        if (licensePlate == null) return false;
+
         char[] array = licensePlate.toCharArray();
         for(char element : array) {
             if (!Character.isUpperCase(element) && !Character.isDigit(element)) return false;
@@ -27,4 +29,18 @@ public class Vehicle {
     public int getOriginalValue() {
         return originalValue;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Vehicle)) return false;
+
+        Vehicle that = (Vehicle) obj;
+        return originalValue == that.originalValue && licensePlate.equals(that.licensePlate);
+    }
+
+    @Override
+    public int hashCode() {
+        return licensePlate.hashCode();
+    }
 }
@@ -0,0 +1,54 @@
+package objects;
+
+public class VehicleRegistry extends IdentityPool<Vehicle> {
+    public VehicleRegistry() {
+        this(PoolRetention.STRONG);
+    }
+
+    // weak registries drop vehicles nothing else refers to, strong ones keep them until they are evicted
+    public VehicleRegistry(PoolRetention retention) {
+        super(retention);
+    }
+
+    // base 36 for plates of ascii digits and capitals, other plates are only hashed and told apart by the plate
+    public static long encodeLicensePlate(String licensePlate) {
+        if (!Vehicle.isValidLicensePlate(licensePlate)) throw new IllegalArgumentException("The license plate is incorrect!");
+
+        long code = 0;
+        for (int i = 0; i < licensePlate.length(); i++) {
+            char c = licensePlate.charAt(i);
+            if (c >= '0' && c <= '9') code = code * 36 + (c - '0');
+            else if (c >= 'A' && c <= 'Z') code = code * 36 + (c - 'A' + 10);
+            else return HASHED | licensePlate.hashCode() & 0xFFFFFFFFL;
+        }
+        return code;
+    }
+
+    public Vehicle find(String licensePlate) {
+        if (!Vehicle.isValidLicensePlate(licensePlate)) return null;
+        return find(encodeLicensePlate(licensePlate), licensePlate);
+    }
+
+    public Vehicle intern(String licensePlate, int originalValue) {
+        Vehicle vehicle = intern(encodeLicensePlate(licensePlate), licensePlate, () -> new Vehicle(licensePlate, originalValue));
+        if (vehicle.getOriginalValue() != originalValue) throw new IllegalArgumentException("A vehicle with this license plate has a different original value!");
+        return vehicle;
+    }
+
+    public Vehicle intern(Vehicle vehicle) {
+        if (vehicle == null) throw new IllegalArgumentException("Vehicle cannot be null!");
+        Vehicle canonical = intern(encodeLicensePlate(vehicle.getLicensePlate()), vehicle.getLicensePlate(), () -> vehicle);
+        if (canonical.getOriginalValue() != vehicle.getOriginalValue()) throw new IllegalArgumentException("A vehicle with this license plate has a different original value!");
+        return canonical;
+    }
+
+    public boolean evict(String licensePlate) {
+        if (!Vehicle.isValidLicensePlate(licensePlate)) return false;
+        return evict(encodeLicensePlate(licensePlate), licensePlate);
+    }
+
+    @Override
+    String keyOf(Vehicle vehicle) {
+        return vehicle.getLicensePlate();
+    }
+}
@@ -1,12 +1,16 @@
 package payment;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class ContractPaymentData {
+    private static final AtomicIntegerFieldUpdater<ContractPaymentData> OUTSTANDING_BALANCE =
+            AtomicIntegerFieldUpdater.newUpdater(ContractPaymentData.class, "outstandingBalance");
+
     private int premium;
     private PremiumPaymentFrequency premiumPaymentFrequency;
     private LocalDateTime nextPaymentTime;
-    private int outstandingBalance;
+    private volatile int outstandingBalance;
 
     public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, int outstandingBalance) {
         if (premium <= 0) throw new IllegalArgumentException("Premium must be positive!");
@@ -19,6 +23,10 @@ public class ContractPaymentData {
         this.outstandingBalance = outstandingBalance;
     }
 
+    // for StoredPaymentData, which keeps its state in a PaymentDataStore
+    ContractPaymentData() {
+    }
+
     public int getPremium() {
         return premium;
     }
@@ -36,6 +44,10 @@ public class ContractPaymentData {
         return outstandingBalance;
     }
 
+    public int addToOutstandingBalance(int amount) {
+        return OUTSTANDING_BALANCE.addAndGet(this, amount);
+    }
+
     public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
         if(premiumPaymentFrequency == null) throw new IllegalArgumentException("Premium payment frequency cannot be null!");
         this.premiumPaymentFrequency = premiumPaymentFrequency;
@@ -52,4 +64,16 @@ public class ContractPaymentData {
     public void updateNextPaymentTime() {
         this.nextPaymentTime = nextPaymentTime.plusMonths(premiumPaymentFrequency.getValueInMonths());
     }
+
+    public int chargeDuePremiums(LocalDateTime time) {
+        if (time == null) throw new IllegalArgumentException("Time cannot be null!");
+
+        int months = premiumPaymentFrequency.getValueInMonths();
+        int periods = PremiumAccrual.duePeriods(nextPaymentTime, months, time);
+        if (periods == 0) return 0;
+
+        addToOutstandingBalance(periods * premium);
+        this.nextPaymentTime = PremiumAccrual.advance(nextPaymentTime, months, periods);
+        return periods;
+    }
 }
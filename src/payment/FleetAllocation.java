@@ -0,0 +1,80 @@
+package payment;
+
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+
+import java.util.Arrays;
+
+final class FleetAllocation {
+    private final ContractPaymentData[] activeChildren;
+    private final long[] premiumTotals;
+    private int size;
+    private long rounds;
+
+    private FleetAllocation(int capacity) {
+        this.activeChildren = new ContractPaymentData[capacity];
+        this.premiumTotals = new long[capacity];
+    }
+
+    // same balances as clearing debts child by child and then paying one premium per child round-robin until the amount runs out
+    static FleetAllocation allocate(MasterVehicleContract contract, int amount) {
+        FleetAllocation allocation = new FleetAllocation(contract.getChildContracts().size());
+        int remaining = allocation.clearDebts(contract, amount);
+        if (allocation.size == 0) throw new InvalidContractException("Master contract has no active child contracts!");
+        allocation.prepay(remaining);
+        return allocation;
+    }
+
+    // the active children the amount was allocated to
+    int getChildrenTouched() {
+        return size;
+    }
+
+    // full premium rounds prepaid to every active child
+    long getRounds() {
+        return rounds;
+    }
+
+    // a partially cleared debt does not reduce the amount left for the following children or for the prepayment
+    private int clearDebts(MasterVehicleContract contract, int amount) {
+        long premiumTotal = 0;
+        for (SingleVehicleContract child : contract.getChildContracts()) {
+            if (!child.isActive()) continue;
+
+            ContractPaymentData data = child.getContractPaymentData();
+            int currentBalance = data.getOutstandingBalance();
+            if (currentBalance > 0) {
+                if (amount >= currentBalance) {
+                    amount -= currentBalance;
+                    data.addToOutstandingBalance(-currentBalance);
+                } else {
+                    data.addToOutstandingBalance(-amount);
+                }
+            }
+
+            premiumTotal += data.getPremium();
+            activeChildren[size] = data;
+            premiumTotals[size++] = premiumTotal;
+        }
+        return amount;
+    }
+
+    // every child gets one premium per full round, then the remainder covers whole premiums in order and the rest goes to the next child
+    private void prepay(int amount) {
+        if (amount <= 0) return;
+
+        rounds = amount / premiumTotals[size - 1];
+        long remainder = amount - rounds * premiumTotals[size - 1];
+        int partial = remainder == 0 ? 0 : Arrays.binarySearch(premiumTotals, 0, size, remainder);
+        if (partial < 0) partial = -partial - 1;
+
+        for (int i = 0; i < size; i++) {
+            int premium = activeChildren[i].getPremium();
+            long paid = rounds * premium;
+            if (i < partial) paid += premium;
+            else if (i == partial) paid += remainder - (i == 0 ? 0 : premiumTotals[i - 1]);
+            if (paid != 0) activeChildren[i].addToOutstandingBalance((int) -paid);
+        }
+    }
+}
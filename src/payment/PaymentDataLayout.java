@@ -0,0 +1,7 @@
+package payment;
+
+public enum PaymentDataLayout {
+    OBJECTS,
+    COMPACT,
+    OFF_HEAP
+}
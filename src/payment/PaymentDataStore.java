@@ -0,0 +1,360 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public class PaymentDataStore {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+    // the frequency ordinal shares its byte with the flag of slots billed by scanning
+    private static final int FREQUENCY_MASK = 0x7F;
+    private static final int BILLED_BY_SCAN = 0x80;
+
+    private final boolean offHeap;
+    // chunks never move once created, so flyweights keep working while the store grows
+    private volatile Chunk[] chunks;
+    private volatile int size;
+
+    public PaymentDataStore() {
+        this(PaymentDataLayout.COMPACT);
+    }
+
+    public PaymentDataStore(PaymentDataLayout layout) {
+        if (layout == null || layout == PaymentDataLayout.OBJECTS) throw new IllegalArgumentException("Payment data store needs a compact or off-heap layout!");
+        this.offHeap = layout == PaymentDataLayout.OFF_HEAP;
+        this.chunks = new Chunk[0];
+    }
+
+    public PaymentDataLayout getLayout() {
+        return offHeap ? PaymentDataLayout.OFF_HEAP : PaymentDataLayout.COMPACT;
+    }
+
+    public synchronized ContractPaymentData create(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, int outstandingBalance) {
+        if (premium <= 0) throw new IllegalArgumentException("Premium must be positive!");
+        if (premiumPaymentFrequency == null) throw new IllegalArgumentException("Premium payment frequency cannot be null!");
+        if (nextPaymentTime == null) throw new IllegalArgumentException("Next payment time cannot be null!");
+
+        int slot = size;
+        if (slot == Integer.MAX_VALUE) throw new IllegalStateException("Payment data store is full!");
+        Chunk[] current = chunks;
+        if (slot >>> CHUNK_BITS == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = offHeap ? new DirectChunk() : new HeapChunk();
+            chunks = current;
+        }
+
+        Chunk chunk = current[slot >>> CHUNK_BITS];
+        int index = slot & CHUNK_MASK;
+        chunk.setPremium(index, premium);
+        chunk.setFlags(index, premiumPaymentFrequency.ordinal());
+        chunk.setNextPaymentMinutes(index, toEpochMinutes(nextPaymentTime));
+        chunk.setBalance(index, outstandingBalance);
+        size = slot + 1;
+        return new StoredPaymentData(this, slot);
+    }
+
+    public ContractPaymentData get(int slot) {
+        checkSlot(slot);
+        return new StoredPaymentData(this, slot);
+    }
+
+    // the owner is what a billing scan hands back for a due slot
+    public void bind(AbstractContract contract) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+        int slot = slotOf(contract.getContractPaymentData());
+        if (slot < 0) throw new IllegalArgumentException("Payment data does not belong to this store!");
+        chunk(slot).setOwner(slot & CHUNK_MASK, contract);
+    }
+
+    public boolean contains(ContractPaymentData data) {
+        return slotOf(data) >= 0;
+    }
+
+    public int slotOf(ContractPaymentData data) {
+        if (!(data instanceof StoredPaymentData)) return -1;
+        StoredPaymentData stored = (StoredPaymentData) data;
+        return stored.getStore() == this ? stored.getSlot() : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public AbstractContract getOwner(int slot) {
+        checkSlot(slot);
+        return chunk(slot).getOwner(slot & CHUNK_MASK);
+    }
+
+    // only slots billed by scanning are returned by nextDue, everything else is left to the billing schedule
+    public void setBilledByScan(int slot, boolean billedByScan) {
+        checkSlot(slot);
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        int frequency = chunk.getFlags(index) & FREQUENCY_MASK;
+        chunk.setFlags(index, billedByScan ? frequency | BILLED_BY_SCAN : frequency);
+    }
+
+    public boolean isBilledByScan(ContractPaymentData data) {
+        int slot = slotOf(data);
+        return slot >= 0 && (chunk(slot).getFlags(slot & CHUNK_MASK) & BILLED_BY_SCAN) != 0;
+    }
+
+    // first slot billed by scanning from the given one whose next payment time is not after the given time, or -1
+    public int nextDue(int fromSlot, LocalDateTime time) {
+        if (time == null) throw new IllegalArgumentException("Time cannot be null!");
+        long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+        if (minute < Integer.MIN_VALUE) return -1;
+        int due = (int) Math.min(minute, Integer.MAX_VALUE);
+
+        Chunk[] current = chunks;
+        int end = size;
+        for (int slot = Math.max(fromSlot, 0); slot < end; ) {
+            int chunkStart = slot & ~CHUNK_MASK;
+            int index = current[slot >>> CHUNK_BITS].nextDue(slot & CHUNK_MASK, Math.min(end - chunkStart, CHUNK_SIZE), due);
+            if (index >= 0) return chunkStart + index;
+            slot = chunkStart + CHUNK_SIZE;
+        }
+        return -1;
+    }
+
+    int getPremium(int slot) {
+        return chunk(slot).getPremium(slot & CHUNK_MASK);
+    }
+
+    void setPremium(int slot, int premium) {
+        chunk(slot).setPremium(slot & CHUNK_MASK, premium);
+    }
+
+    PremiumPaymentFrequency getPremiumPaymentFrequency(int slot) {
+        return FREQUENCIES[chunk(slot).getFlags(slot & CHUNK_MASK) & FREQUENCY_MASK];
+    }
+
+    void setPremiumPaymentFrequency(int slot, PremiumPaymentFrequency premiumPaymentFrequency) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        chunk.setFlags(index, chunk.getFlags(index) & BILLED_BY_SCAN | premiumPaymentFrequency.ordinal());
+    }
+
+    LocalDateTime getNextPaymentTime(int slot) {
+        return fromEpochMinutes(chunk(slot).getNextPaymentMinutes(slot & CHUNK_MASK));
+    }
+
+    void setNextPaymentTime(int slot, LocalDateTime nextPaymentTime) {
+        chunk(slot).setNextPaymentMinutes(slot & CHUNK_MASK, toEpochMinutes(nextPaymentTime));
+    }
+
+    int getOutstandingBalance(int slot) {
+        return chunk(slot).getBalance(slot & CHUNK_MASK);
+    }
+
+    void setOutstandingBalance(int slot, int outstandingBalance) {
+        chunk(slot).setBalance(slot & CHUNK_MASK, outstandingBalance);
+    }
+
+    int addToOutstandingBalance(int slot, int amount) {
+        return chunk(slot).addToBalance(slot & CHUNK_MASK, amount);
+    }
+
+    int chargeDuePremiums(int slot, LocalDateTime time) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        int months = FREQUENCIES[chunk.getFlags(index) & FREQUENCY_MASK].getValueInMonths();
+        LocalDateTime nextPaymentTime = fromEpochMinutes(chunk.getNextPaymentMinutes(index));
+        int periods = PremiumAccrual.duePeriods(nextPaymentTime, months, time);
+        if (periods == 0) return 0;
+
+        chunk.addToBalance(index, periods * chunk.getPremium(index));
+        chunk.setNextPaymentMinutes(index, toEpochMinutes(PremiumAccrual.advance(nextPaymentTime, months, periods)));
+        return periods;
+    }
+
+    private Chunk chunk(int slot) {
+        return chunks[slot >>> CHUNK_BITS];
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) throw new IndexOutOfBoundsException("Slot " + slot + " is out of range!");
+    }
+
+    // seconds and nanos are dropped, the compact layouts keep times to the minute
+    static int toEpochMinutes(LocalDateTime time) {
+        long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+        if (minute < Integer.MIN_VALUE || minute > Integer.MAX_VALUE) throw new IllegalArgumentException("Next payment time is out of range!");
+        return (int) minute;
+    }
+
+    static LocalDateTime fromEpochMinutes(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    private abstract static class Chunk {
+        private volatile AbstractContract[] owners;
+
+        abstract int getPremium(int index);
+
+        abstract void setPremium(int index, int premium);
+
+        abstract int getFlags(int index);
+
+        abstract void setFlags(int index, int flags);
+
+        abstract int getNextPaymentMinutes(int index);
+
+        abstract void setNextPaymentMinutes(int index, int minute);
+
+        abstract int getBalance(int index);
+
+        abstract void setBalance(int index, int balance);
+
+        abstract int addToBalance(int index, int amount);
+
+        abstract int nextDue(int from, int to, int due);
+
+        AbstractContract getOwner(int index) {
+            AbstractContract[] current = owners;
+            return current == null ? null : current[index];
+        }
+
+        // owners are only kept by stores that contracts are bound to
+        synchronized void setOwner(int index, AbstractContract contract) {
+            if (owners == null) owners = new AbstractContract[CHUNK_SIZE];
+            owners[index] = contract;
+        }
+    }
+
+    private static final class HeapChunk extends Chunk {
+        private static final VarHandle BALANCE = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private final int[] premiums = new int[CHUNK_SIZE];
+        private final byte[] flags = new byte[CHUNK_SIZE];
+        private final int[] nextPaymentMinutes = new int[CHUNK_SIZE];
+        private final int[] balances = new int[CHUNK_SIZE];
+
+        @Override
+        int getPremium(int index) {
+            return premiums[index];
+        }
+
+        @Override
+        void setPremium(int index, int premium) {
+            premiums[index] = premium;
+        }
+
+        @Override
+        int getFlags(int index) {
+            return flags[index] & 0xFF;
+        }
+
+        @Override
+        void setFlags(int index, int flags) {
+            this.flags[index] = (byte) flags;
+        }
+
+        @Override
+        int getNextPaymentMinutes(int index) {
+            return nextPaymentMinutes[index];
+        }
+
+        @Override
+        void setNextPaymentMinutes(int index, int minute) {
+            nextPaymentMinutes[index] = minute;
+        }
+
+        @Override
+        int getBalance(int index) {
+            return (int) BALANCE.getVolatile(balances, index);
+        }
+
+        @Override
+        void setBalance(int index, int balance) {
+            BALANCE.setVolatile(balances, index, balance);
+        }
+
+        @Override
+        int addToBalance(int index, int amount) {
+            return (int) BALANCE.getAndAdd(balances, index, amount) + amount;
+        }
+
+        @Override
+        int nextDue(int from, int to, int due) {
+            for (int index = from; index < to; index++) {
+                if (nextPaymentMinutes[index] <= due && (flags[index] & BILLED_BY_SCAN) != 0) return index;
+            }
+            return -1;
+        }
+    }
+
+    // one direct buffer per chunk holding the columns back to back
+    private static final class DirectChunk extends Chunk {
+        private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+        private static final int PREMIUMS = 0;
+        private static final int NEXT_PAYMENT_MINUTES = PREMIUMS + CHUNK_SIZE * Integer.BYTES;
+        private static final int BALANCES = NEXT_PAYMENT_MINUTES + CHUNK_SIZE * Integer.BYTES;
+        private static final int FLAGS = BALANCES + CHUNK_SIZE * Integer.BYTES;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(FLAGS + CHUNK_SIZE).order(ByteOrder.nativeOrder());
+
+        @Override
+        int getPremium(int index) {
+            return buffer.getInt(PREMIUMS + index * Integer.BYTES);
+        }
+
+        @Override
+        void setPremium(int index, int premium) {
+            buffer.putInt(PREMIUMS + index * Integer.BYTES, premium);
+        }
+
+        @Override
+        int getFlags(int index) {
+            return buffer.get(FLAGS + index) & 0xFF;
+        }
+
+        @Override
+        void setFlags(int index, int flags) {
+            buffer.put(FLAGS + index, (byte) flags);
+        }
+
+        @Override
+        int getNextPaymentMinutes(int index) {
+            return buffer.getInt(NEXT_PAYMENT_MINUTES + index * Integer.BYTES);
+        }
+
+        @Override
+        void setNextPaymentMinutes(int index, int minute) {
+            buffer.putInt(NEXT_PAYMENT_MINUTES + index * Integer.BYTES, minute);
+        }
+
+        @Override
+        int getBalance(int index) {
+            return (int) INT.getVolatile(buffer, BALANCES + index * Integer.BYTES);
+        }
+
+        @Override
+        void setBalance(int index, int balance) {
+            INT.setVolatile(buffer, BALANCES + index * Integer.BYTES, balance);
+        }
+
+        @Override
+        int addToBalance(int index, int amount) {
+            return (int) INT.getAndAdd(buffer, BALANCES + index * Integer.BYTES, amount) + amount;
+        }
+
+        @Override
+        int nextDue(int from, int to, int due) {
+            for (int index = from; index < to; index++) {
+                if (buffer.getInt(NEXT_PAYMENT_MINUTES + index * Integer.BYTES) <= due && (buffer.get(FLAGS + index) & BILLED_BY_SCAN) != 0) return index;
+            }
+            return -1;
+        }
+    }
+}
@@ -5,79 +5,230 @@ import contracts.AbstractContract;
 import contracts.InvalidContractException;
 import contracts.MasterVehicleContract;
 import contracts.SingleVehicleContract;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import monitoring.PaymentEvent;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 public class PaymentHandler {
-    private final Map<AbstractContract, Set<PaymentInstance>> paymentHistory;
+    private static final int LOCK_STRIPES = 64;
+
+    private final PaymentLedger ledger;
     private final InsuranceCompany insurer;
+    private final ReentrantLock[] locks;
+    private final LatencyHistogram payLatency;
+    private final Counter amountReceived;
 
     public PaymentHandler(InsuranceCompany insurer) {
         if (insurer == null) throw new IllegalArgumentException("Insurer cannot be null!");
         this.insurer = insurer;
-        this.paymentHistory = new HashMap<>();
+        this.ledger = new PaymentLedger();
+        this.locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.payLatency = insurer.getMetrics().histogram("payment.pay");
+        this.amountReceived = insurer.getMetrics().counter("payment.amountReceived");
     }
 
     public Map<AbstractContract, Set<PaymentInstance>> getPaymentHistory() {
-        return paymentHistory;
+        return ledger.asHistory();
+    }
+
+    public PaymentLedger getLedger() {
+        return ledger;
     }
 
     public void pay(MasterVehicleContract contract, int amount) {
+        long start = System.nanoTime();
+        PaymentEvent event = new PaymentEvent();
+        event.begin();
         if (contract == null || amount <= 0) throw new IllegalArgumentException("Contract is null or amount is negative!");
         if (!contract.isActive() || !contract.getInsurer().equals(this.insurer)) throw new InvalidContractException("The contract is inactive or insurers didn't match!");
         if (contract.getChildContracts().isEmpty()) throw  new IllegalArgumentException("Child Contracts iis empty!");
 
-        Set<SingleVehicleContract> childContracts = contract.getChildContracts();
-        int amountToSaved = amount;
-        for (SingleVehicleContract child : childContracts) {
-            if (child.isActive() && child.getContractPaymentData().getOutstandingBalance() > 0) {
-                int currentBalance = child.getContractPaymentData().getOutstandingBalance();
-                if (amount >= currentBalance){
-                    amount -= currentBalance;
-                    child.getContractPaymentData().setOutstandingBalance(0);
-                } else {
-                    child.getContractPaymentData().setOutstandingBalance(currentBalance - amount);
-                }
+        long stripes = stripesOf(contract);
+        FleetAllocation allocation;
+        lock(stripes);
+        try {
+            allocation = FleetAllocation.allocate(contract, amount);
+            LocalDateTime paymentTime = insurer.getCurrentTime();
+            record(contract, paymentTime, amount);
+            insurer.getListener().paymentReceived(contract, paymentTime, amount);
+        } finally {
+            unlock(stripes);
+        }
+        payLatency.recordSince(start);
+        commit(event, contract, amount, allocation.getChildrenTouched(), allocation.getRounds());
+    }
+
+    public void pay(AbstractContract contract, int amount) {
+        long start = System.nanoTime();
+        PaymentEvent event = new PaymentEvent();
+        event.begin();
+        if (contract == null || amount <= 0) throw new IllegalArgumentException("Contract is null or amount is negative!");
+        if (!contract.isActive() || !contract.getInsurer().equals(this.insurer)) throw new InvalidContractException("The contract is inactive or insurers didn't match!");
+
+        long stripe = stripeOf(contract);
+        lock(stripe);
+        try {
+            LocalDateTime paymentTime = insurer.getCurrentTime();
+            record(contract, paymentTime, amount);
+            contract.getContractPaymentData().addToOutstandingBalance(-amount);
+            insurer.getListener().paymentReceived(contract, paymentTime, amount);
+        } finally {
+            unlock(stripe);
+        }
+        payLatency.recordSince(start);
+        commit(event, contract, amount, 0, 0);
+    }
+
+    private static void commit(PaymentEvent event, AbstractContract contract, int amount, int childrenTouched, long allocationRounds) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.contractNumber = contract.getContractNumber();
+        event.amount = amount;
+        event.childrenTouched = childrenTouched;
+        event.allocationRounds = allocationRounds;
+        event.commit();
+    }
+
+    public List<PaymentResult> payAll(List<PaymentRecord> records) {
+        if (records == null) throw new IllegalArgumentException("Payment records cannot be null!");
+
+        String[] rejections = new String[records.size()];
+        Map<AbstractContract, List<Integer>> recordsByContract = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            PaymentRecord record = records.get(i);
+            rejections[i] = validate(record);
+            if (rejections[i] == null) {
+                AbstractContract contract = insurer.findContract(record.getContractNumber());
+                if (contract == null) contract = insurer.findChildContract(record.getContractNumber());
+                if (contract == null) rejections[i] = "Unknown contract number!";
+                else recordsByContract.computeIfAbsent(contract, c -> new ArrayList<>()).add(i);
             }
         }
 
-        while (amount > 0) {
-            for (SingleVehicleContract child : contract.getChildContracts()) {
-                if (child.isActive()) {
-                    int premium = child.getContractPaymentData().getPremium();
-                    int currentBalance = child.getContractPaymentData().getOutstandingBalance();
-                    if (amount >= premium) {
-                        child.getContractPaymentData().setOutstandingBalance(currentBalance - premium);
-                        amount -= premium;
-                    } else {
-                        child.getContractPaymentData().setOutstandingBalance(currentBalance - amount);
-                        amount = 0;
-                    }
-                }
+        for (Map.Entry<AbstractContract, List<Integer>> entry : recordsByContract.entrySet()) {
+            if (entry.getKey() instanceof MasterVehicleContract) {
+                applyAll((MasterVehicleContract) entry.getKey(), records, entry.getValue(), rejections);
+            } else {
+                applyAll(entry.getKey(), records, entry.getValue(), rejections);
+            }
+        }
+
+        List<PaymentResult> results = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            results.add(new PaymentResult(records.get(i), rejections[i]));
+        }
+        return results;
+    }
+
+    private static String validate(PaymentRecord record) {
+        if (record == null) return "Payment record is null!";
+        if (record.getContractNumber() == null) return "Contract number is null!";
+        if (record.getAmount() <= 0) return "Amount must be positive!";
+        if (record.getPaymentTime() == null) return "Payment time is null!";
+        return null;
+    }
+
+    private void applyAll(AbstractContract contract, List<PaymentRecord> records, List<Integer> indexes, String[] rejections) {
+        long stripe = stripeOf(contract);
+        lock(stripe);
+        try {
+            if (!contract.isActive()) {
+                reject(indexes, rejections, "The contract is inactive!");
+                return;
+            }
+
+            long total = 0;
+            for (int index : indexes) {
+                total += records.get(index).getAmount();
+            }
+            int amount;
+            try {
+                amount = Math.toIntExact(total);
+            } catch (ArithmeticException e) {
+                reject(indexes, rejections, "Total amount of the contract's payments is too large!");
+                return;
+            }
+            for (int index : indexes) {
+                PaymentRecord record = records.get(index);
+                record(contract, record.getPaymentTime(), record.getAmount());
+            }
+            contract.getContractPaymentData().addToOutstandingBalance(-amount);
+            for (int index : indexes) {
+                PaymentRecord record = records.get(index);
+                insurer.getListener().paymentReceived(contract, record.getPaymentTime(), record.getAmount());
             }
+        } finally {
+            unlock(stripe);
         }
+    }
 
-        PaymentInstance payment = new PaymentInstance(insurer.getCurrentTime(), amountToSaved);
+    private void applyAll(MasterVehicleContract contract, List<PaymentRecord> records, List<Integer> indexes, String[] rejections) {
+        long stripes = stripesOf(contract);
+        lock(stripes);
+        try {
+            if (!contract.isActive()) {
+                reject(indexes, rejections, "The contract is inactive!");
+                return;
+            }
+            if (contract.getChildContracts().isEmpty()) {
+                reject(indexes, rejections, "Child contracts is empty!");
+                return;
+            }
 
-        if (!paymentHistory.containsKey(contract)) {
-            paymentHistory.put(contract, new TreeSet<>());
+            for (int index : indexes) {
+                PaymentRecord record = records.get(index);
+                FleetAllocation.allocate(contract, record.getAmount());
+                record(contract, record.getPaymentTime(), record.getAmount());
+                insurer.getListener().paymentReceived(contract, record.getPaymentTime(), record.getAmount());
+            }
+        } finally {
+            unlock(stripes);
         }
+    }
 
-        paymentHistory.get(contract).add(payment);
+    private static void reject(List<Integer> indexes, String[] rejections, String reason) {
+        for (int index : indexes) {
+            rejections[index] = reason;
+        }
     }
 
-    public void pay(AbstractContract contract, int amount) {
-        if (contract == null || amount <= 0) throw new IllegalArgumentException("Contract is null or amount is negative!");
-        if (!contract.isActive() || !contract.getInsurer().equals(this.insurer)) throw new InvalidContractException("The contract is inactive or insurers didn't match!");
-        contract.getContractPaymentData().setOutstandingBalance( contract.getContractPaymentData().getOutstandingBalance() - amount);
+    private void record(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        ledger.record(contract, paymentTime, amount);
+        amountReceived.add(amount);
+    }
 
-        PaymentInstance payment = new PaymentInstance(insurer.getCurrentTime(), amount);
+    private static long stripesOf(MasterVehicleContract contract) {
+        long stripes = stripeOf(contract);
+        for (SingleVehicleContract child : contract.getChildContracts()) {
+            stripes |= stripeOf(child);
+        }
+        return stripes;
+    }
+
+    private static long stripeOf(AbstractContract contract) {
+        int hash = contract.hashCode();
+        return 1L << ((hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1));
+    }
+
+    // stripes are always taken in ascending order, so overlapping master payments cannot deadlock
+    private void lock(long stripes) {
+        for (long remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            locks[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+    }
 
-        if (!paymentHistory.containsKey(contract)) {
-            paymentHistory.put(contract, new TreeSet<>());
+    private void unlock(long stripes) {
+        for (long remaining = stripes; remaining != 0; remaining &= remaining - 1) {
+            locks[Long.numberOfTrailingZeros(remaining)].unlock();
         }
-        paymentHistory.get(contract).add(payment);
     }
 
     @Override
@@ -85,12 +236,12 @@ public class PaymentHandler {
         if (this == o) return true;
         if (!(o instanceof PaymentHandler)) return false;
         PaymentHandler that = (PaymentHandler) o;
-        return this.paymentHistory.equals(that.paymentHistory) &&
+        return this.ledger.equals(that.ledger) &&
                 this.insurer.equals(that.insurer);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(paymentHistory, insurer);
+        return Objects.hash(ledger, insurer);
     }
 }
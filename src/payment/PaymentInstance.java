@@ -1,6 +1,7 @@
 package payment;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class PaymentInstance implements Comparable<PaymentInstance> {
     private final LocalDateTime paymentTime;
@@ -23,6 +24,21 @@ public class PaymentInstance implements Comparable<PaymentInstance> {
 
     @Override
     public int compareTo(PaymentInstance o) {
-        return this.paymentTime.compareTo(o.paymentTime);
+        int compared = this.paymentTime.compareTo(o.paymentTime);
+        return compared != 0 ? compared : Integer.compare(this.paymentAmount, o.paymentAmount);
+    }
+
+    // instances are created per read of the ledger, so two reads of the same payment have to be equal
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PaymentInstance)) return false;
+        PaymentInstance that = (PaymentInstance) o;
+        return this.paymentAmount == that.paymentAmount && this.paymentTime.equals(that.paymentTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(paymentTime, paymentAmount);
     }
 }
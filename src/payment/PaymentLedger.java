@@ -0,0 +1,273 @@
+package payment;
+
+import contracts.AbstractContract;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PaymentLedger {
+    private final Map<AbstractContract, Payments> payments;
+    private final Map<AbstractContract, Set<PaymentInstance>> history;
+    private final LongAdder recorded;
+
+    public PaymentLedger() {
+        this.payments = new ConcurrentHashMap<>();
+        this.history = new HistoryView();
+        this.recorded = new LongAdder();
+    }
+
+    public void record(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        if (contract == null) throw new IllegalArgumentException("Contract cannot be null!");
+        if (paymentTime == null || amount <= 0) throw new IllegalArgumentException("Payment time is null or payment amount is negative!");
+        payments.computeIfAbsent(contract, c -> new Payments()).add(paymentTime.toEpochSecond(ZoneOffset.UTC), paymentTime.getNano(), amount);
+        recorded.increment();
+    }
+
+    public Set<AbstractContract> getContracts() {
+        return Collections.unmodifiableSet(payments.keySet());
+    }
+
+    public Payments getPayments(AbstractContract contract) {
+        return payments.get(contract);
+    }
+
+    public int countPayments(AbstractContract contract) {
+        Payments found = payments.get(contract);
+        return found == null ? 0 : found.size();
+    }
+
+    // payments of every contract
+    public long countPayments() {
+        return recorded.sum();
+    }
+
+    // from is inclusive and to is exclusive
+    public List<PaymentInstance> paymentsBetween(AbstractContract contract, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) throw new IllegalArgumentException("Time range cannot be null!");
+        Payments found = payments.get(contract);
+        return found == null ? Collections.emptyList() : found.between(from, to);
+    }
+
+    public long totalBetween(AbstractContract contract, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) throw new IllegalArgumentException("Time range cannot be null!");
+        Payments found = payments.get(contract);
+        return found == null ? 0 : found.totalBetween(from, to);
+    }
+
+    // read-only view in the shape of the old history map, payment instances are created while iterating,
+    // the sets are multisets: equal payments made in the same instant are each iterated and counted by size()
+    Map<AbstractContract, Set<PaymentInstance>> asHistory() {
+        return history;
+    }
+
+    // payments of one contract ordered by time, payments made in the same instant are all kept in arrival order,
+    // times are held as epoch seconds and nanos so every LocalDateTime fits
+    public static final class Payments {
+        private long[] epochSeconds;
+        private int[] nanos;
+        private int[] amounts;
+        private int size;
+
+        private Payments() {
+            this.epochSeconds = new long[4];
+            this.nanos = new int[4];
+            this.amounts = new int[4];
+        }
+
+        private synchronized void add(long second, int nano, int amount) {
+            if (size == epochSeconds.length) {
+                epochSeconds = Arrays.copyOf(epochSeconds, size * 2);
+                nanos = Arrays.copyOf(nanos, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+
+            int index = size == 0 || compareAt(size - 1, second, nano) <= 0 ? size : upperBound(second, nano);
+            System.arraycopy(epochSeconds, index, epochSeconds, index + 1, size - index);
+            System.arraycopy(nanos, index, nanos, index + 1, size - index);
+            System.arraycopy(amounts, index, amounts, index + 1, size - index);
+            epochSeconds[index] = second;
+            nanos[index] = nano;
+            amounts[index] = amount;
+            size++;
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        public synchronized long getEpochSecond(int index) {
+            Objects.checkIndex(index, size);
+            return epochSeconds[index];
+        }
+
+        public synchronized int getNano(int index) {
+            Objects.checkIndex(index, size);
+            return nanos[index];
+        }
+
+        public synchronized LocalDateTime getPaymentTime(int index) {
+            Objects.checkIndex(index, size);
+            return timeAt(index);
+        }
+
+        public synchronized int getPaymentAmount(int index) {
+            Objects.checkIndex(index, size);
+            return amounts[index];
+        }
+
+        private synchronized PaymentInstance get(int index) {
+            Objects.checkIndex(index, size);
+            return new PaymentInstance(timeAt(index), amounts[index]);
+        }
+
+        private synchronized boolean contains(LocalDateTime time, int amount) {
+            long second = time.toEpochSecond(ZoneOffset.UTC);
+            int nano = time.getNano();
+            for (int i = lowerBound(second, nano); i < size && compareAt(i, second, nano) == 0; i++) {
+                if (amounts[i] == amount) return true;
+            }
+            return false;
+        }
+
+        private synchronized List<PaymentInstance> between(LocalDateTime from, LocalDateTime to) {
+            int start = lowerBound(from);
+            int end = Math.max(start, lowerBound(to));
+            List<PaymentInstance> found = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                found.add(new PaymentInstance(timeAt(i), amounts[i]));
+            }
+            return found;
+        }
+
+        private synchronized long totalBetween(LocalDateTime from, LocalDateTime to) {
+            long total = 0;
+            for (int i = lowerBound(from), end = lowerBound(to); i < end; i++) {
+                total += amounts[i];
+            }
+            return total;
+        }
+
+        private LocalDateTime timeAt(int index) {
+            return LocalDateTime.ofEpochSecond(epochSeconds[index], nanos[index], ZoneOffset.UTC);
+        }
+
+        private int compareAt(int index, long second, int nano) {
+            int compared = Long.compare(epochSeconds[index], second);
+            return compared != 0 ? compared : Integer.compare(nanos[index], nano);
+        }
+
+        private int lowerBound(LocalDateTime time) {
+            return lowerBound(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+        }
+
+        // first index with a time not before the given one
+        private int lowerBound(long second, int nano) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareAt(middle, second, nano) < 0) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        // first index with a time after the given one
+        private int upperBound(long second, int nano) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareAt(middle, second, nano) <= 0) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+    }
+
+    private class HistoryView extends AbstractMap<AbstractContract, Set<PaymentInstance>> {
+        @Override
+        public Set<PaymentInstance> get(Object key) {
+            Payments found = payments.get(key);
+            return found == null ? null : new PaymentsView(found);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return payments.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return payments.size();
+        }
+
+        @Override
+        public Set<Entry<AbstractContract, Set<PaymentInstance>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<AbstractContract, Set<PaymentInstance>>> iterator() {
+                    Iterator<Entry<AbstractContract, Payments>> iterator = payments.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<AbstractContract, Set<PaymentInstance>> next() {
+                            Entry<AbstractContract, Payments> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), new PaymentsView(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return payments.size();
+                }
+            };
+        }
+    }
+
+    private static class PaymentsView extends AbstractSet<PaymentInstance> {
+        private final Payments payments;
+
+        private PaymentsView(Payments payments) {
+            this.payments = payments;
+        }
+
+        @Override
+        public Iterator<PaymentInstance> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < payments.size();
+                }
+
+                @Override
+                public PaymentInstance next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return payments.get(next++);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof PaymentInstance)) return false;
+            PaymentInstance payment = (PaymentInstance) o;
+            return payments.contains(payment.getPaymentTime(), payment.getPaymentAmount());
+        }
+
+        @Override
+        public int size() {
+            return payments.size();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package payment;
+
+import java.time.LocalDateTime;
+
+public class PaymentRecord {
+    private final String contractNumber;
+    private final int amount;
+    private final LocalDateTime paymentTime;
+
+    public PaymentRecord(String contractNumber, int amount, LocalDateTime paymentTime) {
+        this.contractNumber = contractNumber;
+        this.amount = amount;
+        this.paymentTime = paymentTime;
+    }
+
+    public String getContractNumber() {
+        return contractNumber;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getPaymentTime() {
+        return paymentTime;
+    }
+}
@@ -0,0 +1,23 @@
+package payment;
+
+public class PaymentResult {
+    private final PaymentRecord record;
+    private final String rejectionReason;
+
+    public PaymentResult(PaymentRecord record, String rejectionReason) {
+        this.record = record;
+        this.rejectionReason = rejectionReason;
+    }
+
+    public PaymentRecord getRecord() {
+        return record;
+    }
+
+    public boolean isApplied() {
+        return rejectionReason == null;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+}
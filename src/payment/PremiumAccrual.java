@@ -0,0 +1,50 @@
+package payment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+final class PremiumAccrual {
+    // every month of a payment cycle is visited within five years
+    private static final int CYCLE_MONTHS = 60;
+
+    private PremiumAccrual() {
+    }
+
+    static int duePeriods(LocalDateTime nextPaymentTime, int months, LocalDateTime time) {
+        if (nextPaymentTime.isAfter(time)) return 0;
+
+        long monthsBetween = monthIndex(time.getYear(), time.getMonthValue()) - monthIndex(nextPaymentTime.getYear(), nextPaymentTime.getMonthValue());
+        int periods = Math.toIntExact(monthsBetween / months);
+        return advance(nextPaymentTime, months, periods).isAfter(time) ? periods : periods + 1;
+    }
+
+    // same result as calling plusMonths(months) periods times, including the day clamping at each month end
+    static LocalDateTime advance(LocalDateTime from, int months, int periods) {
+        if (periods == 0) return from;
+
+        long target = monthIndex(from.getYear(), from.getMonthValue()) + (long) months * periods;
+        int day = from.getDayOfMonth();
+        if (day > 28) {
+            long month = monthIndex(from.getYear(), from.getMonthValue());
+            int steps = Math.min(periods, CYCLE_MONTHS / months);
+            for (int i = 0; i < steps && day > 28; i++) {
+                month += months;
+                day = Math.min(day, monthLength(month));
+            }
+            day = Math.min(day, monthLength(target));
+        }
+
+        LocalDate date = LocalDate.of(Math.toIntExact(Math.floorDiv(target, 12)), Math.floorMod(target, 12) + 1, day);
+        return LocalDateTime.of(date, from.toLocalTime());
+    }
+
+    private static long monthIndex(int year, int month) {
+        return year * 12L + month - 1;
+    }
+
+    private static int monthLength(long monthIndex) {
+        return Month.of(Math.floorMod(monthIndex, 12) + 1).length(Year.isLeap(Math.floorDiv(monthIndex, 12)));
+    }
+}
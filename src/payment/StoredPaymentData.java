@@ -0,0 +1,90 @@
+package payment;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// flyweight over one slot of a PaymentDataStore
+final class StoredPaymentData extends ContractPaymentData {
+    private final PaymentDataStore store;
+    private final int slot;
+
+    StoredPaymentData(PaymentDataStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    PaymentDataStore getStore() {
+        return store;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public int getPremium() {
+        return store.getPremium(slot);
+    }
+
+    @Override
+    public void setPremium(int premium) {
+        if (premium <= 0) throw new IllegalArgumentException("Premium must be positive!");
+        store.setPremium(slot, premium);
+    }
+
+    @Override
+    public void setOutstandingBalance(int outstandingBalance) {
+        store.setOutstandingBalance(slot, outstandingBalance);
+    }
+
+    @Override
+    public int getOutstandingBalance() {
+        return store.getOutstandingBalance(slot);
+    }
+
+    @Override
+    public int addToOutstandingBalance(int amount) {
+        return store.addToOutstandingBalance(slot, amount);
+    }
+
+    @Override
+    public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency) {
+        if (premiumPaymentFrequency == null) throw new IllegalArgumentException("Premium payment frequency cannot be null!");
+        store.setPremiumPaymentFrequency(slot, premiumPaymentFrequency);
+    }
+
+    @Override
+    public PremiumPaymentFrequency getPremiumPaymentFrequency() {
+        return store.getPremiumPaymentFrequency(slot);
+    }
+
+    @Override
+    public LocalDateTime getNextPaymentTime() {
+        return store.getNextPaymentTime(slot);
+    }
+
+    @Override
+    public void updateNextPaymentTime() {
+        store.setNextPaymentTime(slot, getNextPaymentTime().plusMonths(getPremiumPaymentFrequency().getValueInMonths()));
+    }
+
+    @Override
+    public int chargeDuePremiums(LocalDateTime time) {
+        if (time == null) throw new IllegalArgumentException("Time cannot be null!");
+        return store.chargeDuePremiums(slot, time);
+    }
+
+    // flyweights over the same slot are the same payment data
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StoredPaymentData)) return false;
+        StoredPaymentData that = (StoredPaymentData) o;
+        return this.store == that.store && this.slot == that.slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(store), slot);
+    }
+}
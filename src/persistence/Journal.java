@@ -0,0 +1,567 @@
+package persistence;
+
+import company.CompanyListener;
+import company.InsuranceCompany;
+import contracts.*;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentRecord;
+import payment.PaymentResult;
+import payment.PremiumPaymentFrequency;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+public class Journal implements CompanyListener, Closeable {
+    private static final int MAGIC = 0x494E534A;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PENDING_BYTES = 4 << 20;
+    private static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(10);
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private static final byte CURRENT_TIME_CHANGED = 1;
+    private static final byte VEHICLE_INSURED = 2;
+    private static final byte PERSONS_INSURED = 3;
+    private static final byte MASTER_CONTRACT_CREATED = 4;
+    private static final byte CONTRACT_MOVED = 5;
+    private static final byte PREMIUMS_CHARGED = 6;
+    private static final byte PAYMENT_RECEIVED = 7;
+    private static final byte VEHICLE_CLAIM_PROCESSED = 8;
+    private static final byte TRAVEL_CLAIM_PROCESSED = 9;
+    private static final byte CONTRACT_CHARGED = 10;
+
+    private final InsuranceCompany company;
+    private final FileChannel channel;
+    private final long commitIntervalNanos;
+    private final ReentrantLock lock;
+    private final Condition pendingWork;
+    private final Condition flushed;
+    private final CRC32 crc;
+    private final Thread flusher;
+    private RecordBuffer pending;
+    private RecordBuffer flushing;
+    private long appendedRecords;
+    private long durableRecords;
+    private boolean syncRequested;
+    private boolean closed;
+    private IOException failure;
+
+    private Journal(InsuranceCompany company, FileChannel channel, Duration commitInterval) {
+        this.company = company;
+        this.channel = channel;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.lock = new ReentrantLock();
+        this.pendingWork = lock.newCondition();
+        this.flushed = lock.newCondition();
+        this.crc = new CRC32();
+        this.pending = new RecordBuffer();
+        this.flushing = new RecordBuffer();
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    public static Journal open(Path path, InsuranceCompany company) throws IOException {
+        return open(path, company, DEFAULT_COMMIT_INTERVAL);
+    }
+
+    // replays the records already in the file into the company, drops a torn last record and starts appending after it
+    public static Journal open(Path path, InsuranceCompany company, Duration commitInterval) throws IOException {
+        if (path == null || company == null) throw new IllegalArgumentException("Path or company is null!");
+        if (commitInterval == null || commitInterval.isNegative()) throw new IllegalArgumentException("Commit interval cannot be null or negative!");
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                channel.force(true);
+                end = HEADER_BYTES;
+            } else {
+                end = replay(channel, company, path);
+                channel.truncate(end);
+            }
+            channel.position(end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        Journal journal = new Journal(company, channel, commitInterval);
+        journal.flusher.start();
+        company.addListener(journal);
+        return journal;
+    }
+
+    private static long replay(FileChannel channel, InsuranceCompany company, Path path) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) throw new IOException("Journal is too large to map!");
+        MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (in.getInt() != MAGIC) throw new IOException("Not a company journal!");
+        int version = in.getInt();
+        if (version != VERSION) throw new IOException("Unsupported journal version " + version + "!");
+
+        Replay replay = new Replay(in, company);
+        CRC32 crc = new CRC32();
+        long records = 0;
+        while (in.remaining() >= Integer.BYTES) {
+            int start = in.position();
+            int length = in.getInt();
+            if (length <= 0 || length > in.remaining() - Integer.BYTES) {
+                in.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(in.slice(in.position(), length));
+            if ((int) crc.getValue() != in.getInt(in.position() + length)) {
+                in.position(start);
+                break;
+            }
+
+            try {
+                replay.apply();
+            } catch (RuntimeException e) {
+                throw new IOException("Journal " + path + " record " + records + " could not be replayed!", e);
+            }
+            in.position(start + Integer.BYTES + length + Integer.BYTES);
+            records++;
+        }
+        return in.position();
+    }
+
+    // blocks until every record appended before the call is on disk
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = appendedRecords;
+            while (durableRecords < target && failure == null) {
+                syncRequested = true;
+                pendingWork.signal();
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        company.removeListener(this);
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            pendingWork.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pending.size == 0 && !closed) {
+                    pendingWork.awaitUninterruptibly();
+                }
+                if (pending.size == 0) return;
+
+                // give concurrent writers one commit interval to join the batch unless someone is already waiting for it
+                if (!syncRequested && !closed && pending.size < MAX_PENDING_BYTES) {
+                    pendingWork.awaitNanos(commitIntervalNanos);
+                }
+
+                RecordBuffer batch = pending;
+                pending = flushing;
+                flushing = batch;
+                long batchRecords = appendedRecords;
+                syncRequested = false;
+                flushed.signalAll();
+
+                lock.unlock();
+                IOException error = null;
+                try {
+                    ByteBuffer buffer = ByteBuffer.wrap(batch.data, 0, batch.size);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+
+                batch.size = 0;
+                if (error != null && failure == null) failure = error;
+                durableRecords = batchRecords;
+                flushed.signalAll();
+                if (failure != null) return;
+            }
+        } catch (InterruptedException e) {
+            failure = new IOException("Journal flusher was interrupted!", e);
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RecordBuffer begin(byte type) {
+        lock.lock();
+        if (failure != null || closed) {
+            lock.unlock();
+            throw new UncheckedIOException(new IOException("Journal is closed or failed!", failure));
+        }
+        while (pending.size >= MAX_PENDING_BYTES) {
+            pendingWork.signal();
+            flushed.awaitUninterruptibly();
+        }
+
+        RecordBuffer record = pending;
+        record.mark = record.size;
+        record.writeInt(0);
+        record.writeByte(type);
+        return record;
+    }
+
+    private void end(RecordBuffer record) {
+        try {
+            int start = record.mark + Integer.BYTES;
+            int length = record.size - start;
+            record.putInt(record.mark, length);
+            crc.reset();
+            crc.update(record.data, start, length);
+            record.writeInt((int) crc.getValue());
+            appendedRecords++;
+            // the flusher only needs waking for the first record of a batch, later ones would cut its commit interval short
+            if (record.mark == 0 || record.size >= MAX_PENDING_BYTES) pendingWork.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void currentTimeChanged(LocalDateTime currentTime) {
+        RecordBuffer record = begin(CURRENT_TIME_CHANGED);
+        record.writeTime(currentTime);
+        end(record);
+    }
+
+    @Override
+    public void vehicleInsured(SingleVehicleContract contract) {
+        RecordBuffer record = begin(VEHICLE_INSURED);
+        record.writeString(contract.getContractNumber());
+        record.writePerson(contract.getBeneficiary());
+        record.writePerson(contract.getPolicyHolder());
+        record.writeInt(contract.getContractPaymentData().getPremium());
+        record.writeByte((byte) contract.getContractPaymentData().getPremiumPaymentFrequency().ordinal());
+        record.writeString(contract.getInsuredVehicle().getLicensePlate());
+        record.writeInt(contract.getInsuredVehicle().getOriginalValue());
+        end(record);
+    }
+
+    @Override
+    public void personsInsured(TravelContract contract) {
+        RecordBuffer record = begin(PERSONS_INSURED);
+        record.writeString(contract.getContractNumber());
+        record.writePerson(contract.getPolicyHolder());
+        record.writeInt(contract.getContractPaymentData().getPremium());
+        record.writeByte((byte) contract.getContractPaymentData().getPremiumPaymentFrequency().ordinal());
+        record.writePersons(contract.getInsuredPersons());
+        end(record);
+    }
+
+    @Override
+    public void masterVehicleContractCreated(MasterVehicleContract contract) {
+        RecordBuffer record = begin(MASTER_CONTRACT_CREATED);
+        record.writeString(contract.getContractNumber());
+        record.writePerson(contract.getBeneficiary());
+        record.writePerson(contract.getPolicyHolder());
+        end(record);
+    }
+
+    @Override
+    public void contractMoved(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract) {
+        RecordBuffer record = begin(CONTRACT_MOVED);
+        record.writeString(masterVehicleContract.getContractNumber());
+        record.writeString(singleVehicleContract.getContractNumber());
+        end(record);
+    }
+
+    // billing runs charge every due contract again on replay, recording their contracts as well keeps replay simple,
+    // charging twice at the same time charges nothing the second time
+    @Override
+    public void premiumsCharged(AbstractContract contract) {
+        RecordBuffer record = begin(CONTRACT_CHARGED);
+        record.writeString(contract.getContractNumber());
+        end(record);
+    }
+
+    @Override
+    public void premiumsCharged() {
+        end(begin(PREMIUMS_CHARGED));
+    }
+
+    @Override
+    public void paymentReceived(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+        RecordBuffer record = begin(PAYMENT_RECEIVED);
+        record.writeString(contract.getContractNumber());
+        record.writeTime(paymentTime);
+        record.writeInt(amount);
+        end(record);
+    }
+
+    @Override
+    public void claimProcessed(SingleVehicleContract contract, int expectedDamage) {
+        RecordBuffer record = begin(VEHICLE_CLAIM_PROCESSED);
+        record.writeString(contract.getContractNumber());
+        record.writeInt(expectedDamage);
+        end(record);
+    }
+
+    @Override
+    public void claimProcessed(TravelContract contract, Set<Person> affectedPersons) {
+        RecordBuffer record = begin(TRAVEL_CLAIM_PROCESSED);
+        record.writeString(contract.getContractNumber());
+        record.writePersons(affectedPersons);
+        end(record);
+    }
+
+    private static final class RecordBuffer {
+        private byte[] data = new byte[1 << 16];
+        private int size;
+        private int mark;
+
+        private void ensureCapacity(int bytes) {
+            if (size + bytes > data.length) data = Arrays.copyOf(data, Math.max(size + bytes, data.length * 2));
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            data[size++] = value;
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            putInt(size, value);
+            size += Integer.BYTES;
+        }
+
+        private void putInt(int index, int value) {
+            data[index] = (byte) (value >>> 24);
+            data[index + 1] = (byte) (value >>> 16);
+            data[index + 2] = (byte) (value >>> 8);
+            data[index + 3] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            if (isAscii(value)) {
+                writeVarInt(value.length());
+                ensureCapacity(value.length());
+                for (int i = 0; i < value.length(); i++) {
+                    data[size++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) return false;
+            }
+            return true;
+        }
+
+        private void writePerson(Person person) {
+            writeString(person == null ? "" : person.getId());
+        }
+
+        private void writePersons(Set<Person> persons) {
+            writeVarInt(persons.size());
+            for (Person person : persons) {
+                writePerson(person);
+            }
+        }
+
+        private void writeTime(LocalDateTime time) {
+            writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(time.getNano());
+        }
+    }
+
+    // re-executes journaled operations through the public company API, so replayed state goes through the same rules
+    private static final class Replay {
+        private final ByteBuffer in;
+        private final InsuranceCompany company;
+        private final Map<String, AbstractContract> contracts;
+        private final Map<String, Person> persons;
+        private byte[] stringBuffer;
+
+        private Replay(ByteBuffer in, InsuranceCompany company) {
+            this.in = in;
+            this.company = company;
+            this.contracts = new HashMap<>();
+            this.persons = new HashMap<>();
+            this.stringBuffer = new byte[64];
+
+            for (AbstractContract contract : company.getContracts()) {
+                register(contract);
+                if (contract instanceof MasterVehicleContract) {
+                    for (SingleVehicleContract child : ((MasterVehicleContract) contract).getChildContracts()) {
+                        register(child);
+                    }
+                }
+                if (contract instanceof TravelContract) {
+                    for (Person person : ((TravelContract) contract).getInsuredPersons()) {
+                        persons.putIfAbsent(person.getId(), person);
+                    }
+                }
+            }
+        }
+
+        private void register(AbstractContract contract) {
+            contracts.put(contract.getContractNumber(), contract);
+            persons.putIfAbsent(contract.getPolicyHolder().getId(), contract.getPolicyHolder());
+            if (contract instanceof AbstractVehicleContract) {
+                Person beneficiary = ((AbstractVehicleContract) contract).getBeneficiary();
+                if (beneficiary != null) persons.putIfAbsent(beneficiary.getId(), beneficiary);
+            }
+        }
+
+        private void apply() {
+            byte type = in.get();
+            switch (type) {
+                case CURRENT_TIME_CHANGED -> company.setCurrentTime(readTime());
+                case VEHICLE_INSURED -> {
+                    String contractNumber = readString();
+                    Person beneficiary = readPerson();
+                    Person policyHolder = readPerson();
+                    int premium = in.getInt();
+                    PremiumPaymentFrequency frequency = FREQUENCIES[in.get()];
+                    Vehicle vehicle = new Vehicle(readString(), in.getInt());
+                    register(company.insureVehicle(contractNumber, beneficiary, policyHolder, premium, frequency, vehicle));
+                }
+                case PERSONS_INSURED -> {
+                    String contractNumber = readString();
+                    Person policyHolder = readPerson();
+                    int premium = in.getInt();
+                    PremiumPaymentFrequency frequency = FREQUENCIES[in.get()];
+                    register(company.insurePersons(contractNumber, policyHolder, premium, frequency, readPersons()));
+                }
+                case MASTER_CONTRACT_CREATED -> {
+                    String contractNumber = readString();
+                    Person beneficiary = readPerson();
+                    register(company.createMasterVehicleContract(contractNumber, beneficiary, readPerson()));
+                }
+                case CONTRACT_MOVED -> {
+                    MasterVehicleContract master = (MasterVehicleContract) contract(readString());
+                    company.moveSingleVehicleContractToMasterVehicleContract(master, (SingleVehicleContract) contract(readString()));
+                }
+                case PREMIUMS_CHARGED -> company.chargePremiumsOnContracts();
+                case CONTRACT_CHARGED -> contract(readString()).updateBalance();
+                case PAYMENT_RECEIVED -> {
+                    AbstractContract contract = contract(readString());
+                    LocalDateTime paymentTime = readTime();
+                    int amount = in.getInt();
+                    replayPayment(contract, paymentTime, amount);
+                }
+                case VEHICLE_CLAIM_PROCESSED -> company.processClaim((SingleVehicleContract) contract(readString()), in.getInt());
+                case TRAVEL_CLAIM_PROCESSED -> {
+                    TravelContract contract = (TravelContract) contract(readString());
+                    company.processClaim(contract, readPersons());
+                }
+                default -> throw new IllegalStateException("Unknown journal record type " + type + "!");
+            }
+        }
+
+        private void replayPayment(AbstractContract contract, LocalDateTime paymentTime, int amount) {
+            PaymentRecord record = new PaymentRecord(contract.getContractNumber(), amount, paymentTime);
+            PaymentResult result = company.getHandler().payAll(List.of(record)).get(0);
+            if (!result.isApplied()) throw new IllegalStateException(result.getRejectionReason());
+        }
+
+        private AbstractContract contract(String contractNumber) {
+            AbstractContract contract = contracts.get(contractNumber);
+            if (contract == null) throw new IllegalStateException("Unknown contract " + contractNumber + "!");
+            return contract;
+        }
+
+        private Person readPerson() {
+            String id = readString();
+            return id.isEmpty() ? null : persons.computeIfAbsent(id, Person::new);
+        }
+
+        private Set<Person> readPersons() {
+            int count = readVarInt();
+            Set<Person> result = new LinkedHashSet<>();
+            for (int i = 0; i < count; i++) {
+                result.add(readPerson());
+            }
+            return result;
+        }
+
+        private LocalDateTime readTime() {
+            long epochSecond = in.getLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length > stringBuffer.length) stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+            in.get(stringBuffer, 0, length);
+            return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package persistence;
+
+final class SnapshotFormat {
+    static final int MAGIC = 0x494E5343;
+    static final int VERSION = 1;
+
+    static final byte SINGLE_VEHICLE_CONTRACT = 1;
+    static final byte TRAVEL_CONTRACT = 2;
+    static final byte MASTER_VEHICLE_CONTRACT = 3;
+
+    static final int NO_PERSON = -1;
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,190 @@
+package persistence;
+
+import company.ContractStorage;
+import company.InsuranceCompany;
+import contracts.*;
+import objects.Person;
+import objects.Vehicle;
+import payment.ContractPaymentData;
+import payment.PaymentDataLayout;
+import payment.PaymentLedger;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class SnapshotReader {
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    private final MappedByteBuffer in;
+    private byte[] stringBuffer;
+    private Person[] persons;
+    private InsuranceCompany company;
+
+    private SnapshotReader(MappedByteBuffer in) {
+        this.in = in;
+        this.stringBuffer = new byte[64];
+    }
+
+    public static InsuranceCompany read(Path path) throws IOException {
+        if (path == null) throw new IllegalArgumentException("Path cannot be null!");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Snapshot is too large to map!");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SnapshotReader(buffer).readCompany();
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot " + path + " is corrupted!", e);
+        }
+    }
+
+    private InsuranceCompany readCompany() throws IOException {
+        if (in.getInt() != SnapshotFormat.MAGIC) throw new IOException("Not a company snapshot!");
+        int version = in.getInt();
+        if (version != SnapshotFormat.VERSION) throw new IOException("Unsupported snapshot version " + version + "!");
+        LocalDateTime currentTime = readTime();
+        PaymentDataLayout paymentDataLayout = PaymentDataLayout.values()[in.get()];
+        company = new InsuranceCompany(currentTime, paymentDataLayout, ContractStorage.values()[in.get()]);
+
+        persons = new Person[readVarInt()];
+        for (int i = 0; i < persons.length; i++) {
+            persons[i] = company.getPersonRegistry().intern(readString());
+            int paidOutAmount = in.getInt();
+            if (paidOutAmount > 0) persons[i].payout(paidOutAmount);
+        }
+
+        Map<String, AbstractContract> contractsByNumber = new HashMap<>();
+        int contracts = readVarInt();
+        for (int i = 0; i < contracts; i++) {
+            AbstractContract contract = readContract(contractsByNumber);
+            company.getContracts().add(contract);
+            contract.getPolicyHolder().addContract(contract);
+        }
+
+        PaymentLedger ledger = company.getHandler().getLedger();
+        int histories = readVarInt();
+        for (int i = 0; i < histories; i++) {
+            AbstractContract contract = contractsByNumber.get(readString());
+            int payments = readVarInt();
+            for (int j = 0; j < payments; j++) {
+                LocalDateTime paymentTime = readTime();
+                int amount = in.getInt();
+                if (contract != null) ledger.record(contract, paymentTime, amount);
+            }
+        }
+        return company;
+    }
+
+    private AbstractContract readContract(Map<String, AbstractContract> contractsByNumber) throws IOException {
+        byte type = in.get();
+        AbstractContract contract;
+        if (type == SnapshotFormat.SINGLE_VEHICLE_CONTRACT) {
+            contract = readSingleVehicleContract(contractsByNumber);
+        } else if (type == SnapshotFormat.TRAVEL_CONTRACT) {
+            String contractNumber = readString();
+            Person policyHolder = readPerson();
+            int coverageAmount = in.getInt();
+            boolean active = readBoolean();
+            ContractPaymentData data = readPaymentData();
+            Set<Person> insuredPersons = new LinkedHashSet<>();
+            for (int i = readVarInt(); i > 0; i--) {
+                insuredPersons.add(readPerson());
+            }
+            TravelContract travelContract = new TravelContract(contractNumber, company, policyHolder, data, coverageAmount, insuredPersons);
+            if (!active) travelContract.setInactive();
+            contract = company.restoreContract(travelContract);
+        } else if (type == SnapshotFormat.MASTER_VEHICLE_CONTRACT) {
+            String contractNumber = readString();
+            Person policyHolder = readPerson();
+            int coverageAmount = in.getInt();
+            boolean active = readBoolean();
+            MasterVehicleContract master = new MasterVehicleContract(contractNumber, company, readPerson(), policyHolder);
+            master.setCoverageAmount(coverageAmount);
+            for (int i = readVarInt(); i > 0; i--) {
+                master.addChildContract(readSingleVehicleContract(contractsByNumber));
+            }
+            if (!active && master.getChildContracts().isEmpty()) master.setInactive();
+            contract = company.restoreContract(master);
+        } else {
+            throw new IOException("Unknown contract type " + type + "!");
+        }
+
+        contractsByNumber.put(contract.getContractNumber(), contract);
+        return contract;
+    }
+
+    // a child that is also listed at the top level is written twice but restored as one instance
+    private SingleVehicleContract readSingleVehicleContract(Map<String, AbstractContract> contractsByNumber) {
+        String contractNumber = readString();
+        Person policyHolder = readPerson();
+        int coverageAmount = in.getInt();
+        boolean active = readBoolean();
+        Person beneficiary = readPerson();
+        AbstractContract restored = contractsByNumber.get(contractNumber);
+        if (restored instanceof SingleVehicleContract) {
+            // the copy must not take a slot in the payment data store
+            skipPaymentData();
+            readString();
+            in.getInt();
+            return (SingleVehicleContract) restored;
+        }
+        ContractPaymentData data = readPaymentData();
+        Vehicle vehicle = company.getVehicleRegistry().intern(readString(), in.getInt());
+
+        SingleVehicleContract contract = new SingleVehicleContract(contractNumber, company, beneficiary, policyHolder, data, coverageAmount, vehicle);
+        if (!active) contract.setInactive();
+        contract = company.restoreContract(contract);
+        contractsByNumber.put(contractNumber, contract);
+        return contract;
+    }
+
+    private ContractPaymentData readPaymentData() {
+        int premium = in.getInt();
+        PremiumPaymentFrequency frequency = FREQUENCIES[in.get()];
+        LocalDateTime nextPaymentTime = readTime();
+        return company.restorePaymentData(premium, frequency, nextPaymentTime, in.getInt());
+    }
+
+    private void skipPaymentData() {
+        in.position(in.position() + Integer.BYTES + 1);
+        readTime();
+        in.getInt();
+    }
+
+    private Person readPerson() {
+        int index = readVarInt() - 1;
+        return index == SnapshotFormat.NO_PERSON ? null : persons[index];
+    }
+
+    private boolean readBoolean() {
+        return in.get() != 0;
+    }
+
+    private LocalDateTime readTime() {
+        long epochSecond = in.getLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(), ZoneOffset.UTC);
+    }
+
+    private String readString() {
+        int length = readVarInt();
+        if (length > stringBuffer.length) stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+        in.get(stringBuffer, 0, length);
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
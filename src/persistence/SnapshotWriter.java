@@ -0,0 +1,171 @@
+package persistence;
+
+import company.InsuranceCompany;
+import contracts.*;
+import objects.Person;
+import payment.ContractPaymentData;
+import payment.PaymentLedger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class SnapshotWriter {
+    private final DataOutputStream out;
+    private final Map<Person, Integer> personIndexes;
+
+    private SnapshotWriter(DataOutputStream out) {
+        this.out = out;
+        this.personIndexes = new IdentityHashMap<>();
+    }
+
+    public static void write(InsuranceCompany company, Path path) throws IOException {
+        if (company == null || path == null) throw new IllegalArgumentException("Company or path is null!");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            new SnapshotWriter(out).writeCompany(company);
+        }
+    }
+
+    private void writeCompany(InsuranceCompany company) throws IOException {
+        out.writeInt(SnapshotFormat.MAGIC);
+        out.writeInt(SnapshotFormat.VERSION);
+        writeTime(company.getCurrentTime());
+        out.writeByte(company.getPaymentDataLayout().ordinal());
+        out.writeByte(company.getContractStorage().ordinal());
+
+        List<Person> persons = collectPersons(company);
+        writeVarInt(persons.size());
+        for (Person person : persons) {
+            writeString(person.getId());
+            out.writeInt(person.getPaidOutAmount());
+        }
+
+        writeVarInt(company.getContracts().size());
+        for (AbstractContract contract : company.getContracts()) {
+            writeContract(contract);
+        }
+
+        PaymentLedger ledger = company.getHandler().getLedger();
+        List<AbstractContract> paidContracts = new ArrayList<>(ledger.getContracts());
+        writeVarInt(paidContracts.size());
+        for (AbstractContract contract : paidContracts) {
+            PaymentLedger.Payments payments = ledger.getPayments(contract);
+            int size = payments.size();
+            writeString(contract.getContractNumber());
+            writeVarInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(payments.getEpochSecond(i));
+                writeVarInt(payments.getNano(i));
+                out.writeInt(payments.getPaymentAmount(i));
+            }
+        }
+    }
+
+    private List<Person> collectPersons(InsuranceCompany company) {
+        List<Person> persons = new ArrayList<>();
+        for (AbstractContract contract : company.getContracts()) {
+            addPerson(persons, contract.getPolicyHolder());
+            if (contract instanceof AbstractVehicleContract) {
+                addPerson(persons, ((AbstractVehicleContract) contract).getBeneficiary());
+            }
+            if (contract instanceof TravelContract) {
+                for (Person person : ((TravelContract) contract).getInsuredPersons()) {
+                    addPerson(persons, person);
+                }
+            }
+            if (contract instanceof MasterVehicleContract) {
+                for (SingleVehicleContract child : ((MasterVehicleContract) contract).getChildContracts()) {
+                    addPerson(persons, child.getPolicyHolder());
+                    addPerson(persons, child.getBeneficiary());
+                }
+            }
+        }
+        return persons;
+    }
+
+    private void addPerson(List<Person> persons, Person person) {
+        if (person != null && !personIndexes.containsKey(person)) {
+            personIndexes.put(person, persons.size());
+            persons.add(person);
+        }
+    }
+
+    private void writeContract(AbstractContract contract) throws IOException {
+        if (contract instanceof SingleVehicleContract) {
+            out.writeByte(SnapshotFormat.SINGLE_VEHICLE_CONTRACT);
+            writeSingleVehicleContract((SingleVehicleContract) contract);
+        } else if (contract instanceof TravelContract) {
+            TravelContract travelContract = (TravelContract) contract;
+            out.writeByte(SnapshotFormat.TRAVEL_CONTRACT);
+            writeContractHeader(contract);
+            writePaymentData(contract.getContractPaymentData());
+            writeVarInt(travelContract.getInsuredPersons().size());
+            for (Person person : travelContract.getInsuredPersons()) {
+                writePerson(person);
+            }
+        } else if (contract instanceof MasterVehicleContract) {
+            MasterVehicleContract masterContract = (MasterVehicleContract) contract;
+            out.writeByte(SnapshotFormat.MASTER_VEHICLE_CONTRACT);
+            writeContractHeader(contract);
+            writePerson(masterContract.getBeneficiary());
+            writeVarInt(masterContract.getChildContracts().size());
+            for (SingleVehicleContract child : masterContract.getChildContracts()) {
+                writeSingleVehicleContract(child);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown contract type " + contract.getClass().getName() + "!");
+        }
+    }
+
+    private void writeSingleVehicleContract(SingleVehicleContract contract) throws IOException {
+        writeContractHeader(contract);
+        writePerson(contract.getBeneficiary());
+        writePaymentData(contract.getContractPaymentData());
+        writeString(contract.getInsuredVehicle().getLicensePlate());
+        out.writeInt(contract.getInsuredVehicle().getOriginalValue());
+    }
+
+    private void writeContractHeader(AbstractContract contract) throws IOException {
+        writeString(contract.getContractNumber());
+        writePerson(contract.getPolicyHolder());
+        out.writeInt(contract.getCoverageAmount());
+        out.writeBoolean(contract.isActive());
+    }
+
+    private void writePaymentData(ContractPaymentData data) throws IOException {
+        out.writeInt(data.getPremium());
+        out.writeByte(data.getPremiumPaymentFrequency().ordinal());
+        writeTime(data.getNextPaymentTime());
+        out.writeInt(data.getOutstandingBalance());
+    }
+
+    private void writePerson(Person person) throws IOException {
+        writeVarInt(person == null ? SnapshotFormat.NO_PERSON + 1 : personIndexes.get(person) + 1);
+    }
+
+    private void writeTime(LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        writeVarInt(time.getNano());
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
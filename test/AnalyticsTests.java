@@ -0,0 +1,146 @@
+import analytics.ContractClass;
+import analytics.PortfolioAnalytics;
+import analytics.PortfolioSnapshot;
+import company.Claim;
+import company.CompanyListener;
+import company.ContractStorage;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyticsTests {
+
+    @Test
+    public void testAggregatesMatchRecomputationAfterRandomOperations() {
+        for (ContractStorage storage : ContractStorage.values()) {
+            InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), storage);
+            Person[] persons = new Person[40];
+            for (int i = 0; i < persons.length; i++) {
+                persons[i] = new Person(i < 10 ? String.format("%08d", i + 1) : String.format("%02d%02d%02d%03d", i, 1 + i % 12, 1 + i % 28, i));
+            }
+            // a contract insured before attaching is seeded from a full scan
+            company.insureVehicle("seed", null, persons[0], 1_000, PremiumPaymentFrequency.ANNUAL, new Vehicle("SEED000", 10_000));
+            PortfolioAnalytics analytics = PortfolioAnalytics.attach(company);
+
+            PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+            List<AbstractContract> contracts = new ArrayList<>();
+            List<MasterVehicleContract> masters = new ArrayList<>();
+            Random random = new Random(5);
+            for (int step = 0; step < 2_000; step++) {
+                int operation = random.nextInt(8);
+                try {
+                    if (operation == 0 || contracts.isEmpty()) {
+                        contracts.add(company.insureVehicle("v" + step, random.nextBoolean() ? persons[10 + random.nextInt(30)] : null, persons[random.nextInt(10)],
+                                1_000, frequencies[random.nextInt(frequencies.length)], new Vehicle(String.format("AN%05d", step), 10_000 + random.nextInt(20_000))));
+                    } else if (operation == 1) {
+                        Set<Person> insured = new LinkedHashSet<>(List.of(persons[10 + random.nextInt(30)], persons[10 + random.nextInt(30)]));
+                        contracts.add(company.insurePersons("t" + step, persons[random.nextInt(10)], 100, frequencies[random.nextInt(frequencies.length)], insured));
+                    } else if (operation == 2) {
+                        if (masters.size() < 5) masters.add(company.createMasterVehicleContract("m" + step, persons[10], persons[random.nextInt(10)]));
+                        AbstractContract contract = contracts.get(random.nextInt(contracts.size()));
+                        MasterVehicleContract master = masters.get(random.nextInt(masters.size()));
+                        if (contract instanceof SingleVehicleContract) master.requestAdditionOfChildContract((SingleVehicleContract) contract);
+                    } else if (operation == 3) {
+                        company.setCurrentTime(company.getCurrentTime().plusDays(random.nextInt(60)));
+                        if (random.nextBoolean()) company.chargePremiumsOnContracts();
+                        else company.chargePremiumsOnContracts(2);
+                    } else if (operation == 4) {
+                        AbstractContract contract = random.nextInt(4) == 0 && !masters.isEmpty() ? masters.get(random.nextInt(masters.size())) : contracts.get(random.nextInt(contracts.size()));
+                        contract.pay(1 + random.nextInt(2_000));
+                    } else if (operation == 5) {
+                        AbstractContract contract = contracts.get(random.nextInt(contracts.size()));
+                        if (contract instanceof SingleVehicleContract) company.processClaim((SingleVehicleContract) contract, 1 + random.nextInt(30_000));
+                        else company.processClaim((TravelContract) contract, Set.of(((TravelContract) contract).getInsuredPersons().iterator().next()));
+                    } else if (operation == 6) {
+                        List<Claim> claims = new ArrayList<>();
+                        for (int i = 0; i < 5; i++) {
+                            AbstractContract contract = contracts.get(random.nextInt(contracts.size()));
+                            if (contract instanceof SingleVehicleContract) claims.add(new Claim((SingleVehicleContract) contract, 1 + random.nextInt(30_000)));
+                            else claims.add(new Claim((TravelContract) contract, ((TravelContract) contract).getInsuredPersons()));
+                        }
+                        company.processClaims(claims, 2);
+                    } else {
+                        contracts.get(random.nextInt(contracts.size())).updateBalance();
+                    }
+                } catch (IllegalArgumentException | InvalidContractException e) {
+                    // rejected operations leave the company unchanged
+                }
+                if (step % 100 == 0) assertEquals(List.of(), analytics.checkConsistency(), storage + " step " + step);
+            }
+            assertEquals(List.of(), analytics.checkConsistency(), storage.toString());
+
+            PortfolioSnapshot snapshot = analytics.snapshot();
+            assertTrue(snapshot.getContracts(ContractClass.MASTER_VEHICLE) > 0);
+            assertTrue(snapshot.getPaidOutAmount() > 0);
+            assertTrue(snapshot.getActiveContracts() < snapshot.getContracts());
+        }
+    }
+
+    @Test
+    public void testDirectChangesAreTakenInByRefresh() {
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        Person holder = new Person("12345678");
+        List<String> events = new ArrayList<>();
+        company.addListener(new CompanyListener() {
+            @Override
+            public void vehicleInsured(SingleVehicleContract contract) {
+                events.add(contract.getContractNumber());
+            }
+        });
+        PortfolioAnalytics analytics = PortfolioAnalytics.attach(company);
+        SingleVehicleContract c1 = company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract m1 = company.createMasterVehicleContract("m1", new Person("8351068242"), holder);
+        m1.requestAdditionOfChildContract(c1);
+
+        // both listeners are notified
+        assertEquals(List.of("c1"), events);
+        assertEquals(2, analytics.snapshot().getActiveContracts());
+        assertEquals(7_500, analytics.snapshot().getCoverageExposure(ContractClass.SINGLE_VEHICLE));
+        assertEquals(100, analytics.snapshot().getOutstandingBalance(PremiumPaymentFrequency.MONTHLY));
+
+        m1.setInactive();
+        assertEquals(3, analytics.checkConsistency().size());
+        analytics.refresh(m1);
+        assertEquals(List.of(), analytics.checkConsistency());
+        assertEquals(0, analytics.snapshot().getActiveContracts());
+
+        analytics.detach();
+        company.insureVehicle("c2", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        assertEquals(List.of("c1", "c2"), events);
+        assertEquals(2, analytics.snapshot().getContracts());
+    }
+
+    @Test
+    public void testNumbersOfChildContractsCannotBeReused() {
+        for (ContractStorage storage : ContractStorage.values()) {
+            InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), storage);
+            Person holder = new Person("12345678");
+            PortfolioAnalytics analytics = PortfolioAnalytics.attach(company);
+            SingleVehicleContract c1 = company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+            MasterVehicleContract m1 = company.createMasterVehicleContract("m1", new Person("8351068242"), holder);
+            company.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+
+            assertThrows(IllegalArgumentException.class, () -> company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000)));
+            assertThrows(IllegalArgumentException.class, () -> company.insurePersons("c1", holder, 100, PremiumPaymentFrequency.MONTHLY, Set.of(new Person("8351068242"))));
+            assertThrows(IllegalArgumentException.class, () -> company.createMasterVehicleContract("c1", new Person("8351068242"), holder));
+            assertEquals(2, analytics.snapshot().getContracts(), storage.toString());
+            assertEquals(List.of(), analytics.checkConsistency(), storage.toString());
+
+            // a child taken out of its master gives its number back
+            m1.getChildContracts().remove(c1);
+            company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        }
+    }
+}
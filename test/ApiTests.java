@@ -0,0 +1,113 @@
+import api.CompanyServer;
+import company.InsuranceCompany;
+import loader.FlatJson;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiTests {
+
+    InsuranceCompany company;
+    CompanyServer server;
+    HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        company = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        server = new CompanyServer(company, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testInsurePayAndClaimOverHttp() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", "/contracts/vehicle", "{\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"premium\":100,"
+                + "\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}");
+        assertEquals(201, response.statusCode());
+        Map<String, Object> contract = FlatJson.parseObject(response.body());
+        assertEquals("VEHICLE", contract.get("type"));
+        assertEquals(7_500L, contract.get("coverageAmount"));
+        assertEquals(100L, contract.get("outstandingBalance"));
+
+        response = send("POST", "/contracts/travel", "{\"contractNumber\":\"t1\",\"policyHolder\":\"12345678\",\"premium\":100,"
+                + "\"frequency\":\"ANNUAL\",\"insuredPersons\":[\"8351068242\",\"0402114911\"]}");
+        assertEquals(201, response.statusCode());
+        assertEquals(2, company.findContract("t1").getCoverageAmount() / 10);
+
+        response = send("POST", "/contracts/c1/payments", "{\"amount\":60}");
+        assertEquals(200, response.statusCode());
+        assertEquals(40L, FlatJson.parseObject(response.body()).get("outstandingBalance"));
+
+        response = send("POST", "/contracts/t1/claims", "{\"affectedPersons\":[\"0402114911\"]}");
+        assertEquals(200, response.statusCode());
+        assertEquals(false, FlatJson.parseObject(response.body()).get("active"));
+        assertEquals(20, company.getPersonRegistry().find("0402114911").getPaidOutAmount());
+
+        response = send("GET", "/contracts/c1", null);
+        assertEquals(200, response.statusCode());
+        assertEquals("c1", FlatJson.parseObject(response.body()).get("contractNumber"));
+    }
+
+    @Test
+    public void testErrorsAreReportedWithStatusAndMessage() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/contracts/missing", null);
+        assertEquals(404, response.statusCode());
+        assertEquals("Contract not found!", FlatJson.parseObject(response.body()).get("error"));
+
+        assertEquals(405, send("DELETE", "/contracts/missing", null).statusCode());
+        assertEquals(404, send("POST", "/contracts/c1/refunds", "{}").statusCode());
+
+        response = send("POST", "/contracts/vehicle", "{\"contractNumber\":\"c1\",\"policyHolder\":\"123\",\"premium\":100,"
+                + "\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}");
+        assertEquals(400, response.statusCode());
+        assertEquals("The id is incorrect!", FlatJson.parseObject(response.body()).get("error"));
+        assertEquals(400, send("POST", "/contracts/travel", "{not json").statusCode());
+        assertTrue(company.getContracts().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentPaymentsAreAllApplied() throws Exception {
+        company.insureVehicle("c1", null, new Person("12345678"), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                statuses.add(clients.submit(() -> send("POST", "/contracts/c1/payments", "{\"amount\":5}").statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(200, status.get());
+            }
+        }
+        assertEquals(100 - 200 * 5, company.findContract("c1").getContractPaymentData().getOutstandingBalance());
+        assertEquals(200, company.getHandler().getLedger().countPayments());
+    }
+}
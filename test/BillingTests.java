@@ -0,0 +1,269 @@
+import company.BillingRunSummary;
+import company.ContractStorage;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PaymentDataLayout;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BillingTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legalPerson1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        legalPerson1 = new Person("12345678");
+    }
+
+    // the per-period loop chargePremiumOnContract used before the closed-form accrual
+    private static void chargeByLoop(ContractPaymentData data, LocalDateTime time) {
+        while (!data.getNextPaymentTime().isAfter(time)) {
+            data.setOutstandingBalance(data.getOutstandingBalance() + data.getPremium());
+            data.updateNextPaymentTime();
+        }
+    }
+
+    private static void assertSameCharge(LocalDateTime start, PremiumPaymentFrequency frequency, int premium, int balance, LocalDateTime time) {
+        ContractPaymentData expected = new ContractPaymentData(premium, frequency, start, balance);
+        ContractPaymentData actual = new ContractPaymentData(premium, frequency, start, balance);
+        chargeByLoop(expected, time);
+        actual.chargeDuePremiums(time);
+        String message = start + " " + frequency + " until " + time;
+        assertEquals(expected.getOutstandingBalance(), actual.getOutstandingBalance(), message);
+        assertEquals(expected.getNextPaymentTime(), actual.getNextPaymentTime(), message);
+    }
+
+    @Test
+    public void testChargeDuePremiumsMatchesLoopAtMonthEnds() {
+        int[][] startDates = {{2024, 1, 31}, {2024, 2, 29}, {2023, 2, 28}, {2024, 3, 31}, {2024, 4, 30},
+                {2024, 5, 31}, {2024, 8, 31}, {2024, 11, 30}, {2024, 12, 31}, {1999, 12, 29}, {2100, 1, 29}};
+        for (int[] date : startDates) {
+            LocalDateTime start = LocalDateTime.of(date[0], date[1], date[2], 9, 30, 15);
+            for (PremiumPaymentFrequency frequency : PremiumPaymentFrequency.values()) {
+                for (int months = -2; months <= 130; months++) {
+                    LocalDateTime time = start.plusMonths(months);
+                    assertSameCharge(start, frequency, 70, 0, time);
+                    assertSameCharge(start, frequency, 70, 0, time.minusNanos(1));
+                    assertSameCharge(start, frequency, 70, 0, time.plusDays(3));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChargeDuePremiumsMatchesLoopRandomized() {
+        Random random = new Random(42);
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        for (int i = 0; i < 50_000; i++) {
+            LocalDateTime start = LocalDateTime.of(1950 + random.nextInt(150), 1 + random.nextInt(12), 1, random.nextInt(24), random.nextInt(60))
+                    .plusDays(random.nextInt(31));
+            LocalDateTime time = start.plusMinutes(random.nextInt(40 * 365 * 24 * 60) - 365 * 24 * 60);
+            int premium = 1 + random.nextInt(5000);
+            int balance = random.nextInt(20_000) - 10_000;
+            assertSameCharge(start, frequencies[random.nextInt(frequencies.length)], premium, balance, time);
+        }
+    }
+
+    @Test
+    public void testChargeDuePremiumsReturnsPeriods() {
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, LocalDateTime.of(2024, 1, 31, 0, 0), 0);
+        assertEquals(0, data.chargeDuePremiums(LocalDateTime.of(2024, 1, 30, 23, 59)));
+        assertEquals(25, data.chargeDuePremiums(LocalDateTime.of(2026, 1, 28, 0, 0)));
+        assertEquals(2500, data.getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2026, 2, 28, 0, 0), data.getNextPaymentTime());
+        assertThrows(IllegalArgumentException.class, () -> data.chargeDuePremiums(null));
+    }
+
+    @Test
+    public void testChargePremiumsOnContractsAfterYears() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 400, PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+        assertEquals(100, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(400, c2.getContractPaymentData().getOutstandingBalance());
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2028, 4, 15, 12, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(3700, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2028, 5, 15, 12, 0), c1.getContractPaymentData().getNextPaymentTime());
+        assertEquals(5200, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2028, 7, 15, 12, 0), c2.getContractPaymentData().getNextPaymentTime());
+    }
+
+    private static List<ContractPaymentData> buildPortfolio(InsuranceCompany company) {
+        Person holder = new Person("12345678");
+        Person beneficiary = new Person("8351068242");
+        Random random = new Random(7);
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        List<ContractPaymentData> paymentData = new ArrayList<>();
+        MasterVehicleContract master = null;
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 500 == 0) master = company.createMasterVehicleContract("m" + i, beneficiary, holder);
+            company.setCurrentTime(LocalDateTime.of(2020, 1, 1, 0, 0).plusDays(random.nextInt(1500)));
+            SingleVehicleContract contract = company.insureVehicle("c" + i, null, holder, 500 + random.nextInt(500),
+                    frequencies[random.nextInt(frequencies.length)], new Vehicle(String.format("AB%05d", i), 10_000));
+            paymentData.add(contract.getContractPaymentData());
+            if (i % 3 == 0) company.moveSingleVehicleContractToMasterVehicleContract(master, contract);
+            if (i % 500 > 3 && i % 7 == 5) contract.setInactive();
+        }
+        company.setCurrentTime(LocalDateTime.of(2026, 6, 30, 0, 0));
+        return paymentData;
+    }
+
+    @Test
+    public void testParallelBillingMatchesSequential() {
+        InsuranceCompany sequential = new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0));
+        InsuranceCompany parallel = new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0));
+        List<ContractPaymentData> expected = buildPortfolio(sequential);
+        List<ContractPaymentData> actual = buildPortfolio(parallel);
+
+        long balanceBefore = actual.stream().mapToLong(ContractPaymentData::getOutstandingBalance).sum();
+        sequential.chargePremiumsOnContracts();
+        BillingRunSummary summary = parallel.chargePremiumsOnContracts(4);
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOutstandingBalance(), actual.get(i).getOutstandingBalance());
+            assertEquals(expected.get(i).getNextPaymentTime(), actual.get(i).getNextPaymentTime());
+        }
+        long balanceAfter = actual.stream().mapToLong(ContractPaymentData::getOutstandingBalance).sum();
+        assertEquals(balanceAfter - balanceBefore, summary.getPremiumCharged());
+        assertTrue(summary.getContractsCharged() > 0);
+        assertNotNull(summary.getWallTime());
+        assertThrows(IllegalArgumentException.class, () -> parallel.chargePremiumsOnContracts(0));
+    }
+
+    @Test
+    public void testChargePremiumsOnMasterContract() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", new Person("8351068242"), legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+        assertFalse(insuranceCompany.getContracts().contains(c1));
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 6, 15, 12, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(300, c1.getContractPaymentData().getOutstandingBalance());
+        for (AbstractContract contract : insuranceCompany.getContracts()) {
+            assertTrue(contract.isActive());
+        }
+    }
+
+    @Test
+    public void testDueScheduleMatchesFullScan() {
+        InsuranceCompany scheduled = new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0));
+        InsuranceCompany scanned = new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0));
+        List<ContractPaymentData> actual = buildPortfolio(scheduled);
+        List<ContractPaymentData> expected = buildPortfolio(scanned);
+
+        LocalDateTime time = LocalDateTime.of(2024, 2, 20, 0, 0);
+        for (int day = 0; day < 900; day += 7) {
+            scheduled.setCurrentTime(time.plusDays(day));
+            scanned.setCurrentTime(time.plusDays(day));
+            scheduled.chargePremiumsOnContracts();
+            for (AbstractContract contract : scanned.getContracts()) {
+                if (contract.isActive()) contract.updateBalance();
+            }
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOutstandingBalance(), actual.get(i).getOutstandingBalance());
+            assertEquals(expected.get(i).getNextPaymentTime(), actual.get(i).getNextPaymentTime());
+        }
+    }
+
+    @Test
+    public void testChargePremiumsOnlyOnDueContracts() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 22_000));
+        ContractPaymentData data = new ContractPaymentData(50, PremiumPaymentFrequency.QUARTERLY, insuranceCompany.getCurrentTime(), 0);
+        SingleVehicleContract c3 = new SingleVehicleContract("c3", insuranceCompany, null, legalPerson1, data, 5000, new Vehicle("SOMRYBA", 8_000));
+        insuranceCompany.getContracts().add(c3);
+
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2025, 5, 15, 12, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(200, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(1000, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(50, c3.getContractPaymentData().getOutstandingBalance());
+
+        c1.setInactive();
+        insuranceCompany.getContracts().remove(c3);
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2026, 4, 15, 12, 0));
+        insuranceCompany.chargePremiumsOnContracts();
+        assertEquals(200, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2000, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(50, c3.getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    public void testCompactLayoutsMatchObjects() {
+        InsuranceCompany objects = new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0));
+        List<ContractPaymentData> expected = buildPortfolio(objects);
+        List<InsuranceCompany> companies = List.of(new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0), PaymentDataLayout.COMPACT),
+                new InsuranceCompany(LocalDateTime.of(2020, 1, 1, 0, 0), ContractStorage.OFF_HEAP));
+        List<List<ContractPaymentData>> actual = new ArrayList<>();
+        for (InsuranceCompany company : companies) {
+            actual.add(buildPortfolio(company));
+        }
+        assertEquals(PaymentDataLayout.COMPACT, companies.get(0).getPaymentDataLayout());
+
+        LocalDateTime time = LocalDateTime.of(2024, 2, 20, 0, 0);
+        for (int day = 0; day < 900; day += 7) {
+            objects.setCurrentTime(time.plusDays(day));
+            objects.chargePremiumsOnContracts();
+            for (InsuranceCompany company : companies) {
+                company.setCurrentTime(time.plusDays(day));
+                if (day % 2 == 0) company.chargePremiumsOnContracts();
+                else company.chargePremiumsOnContracts(3);
+            }
+        }
+
+        for (List<ContractPaymentData> paymentData : actual) {
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getOutstandingBalance(), paymentData.get(i).getOutstandingBalance());
+                assertEquals(expected.get(i).getNextPaymentTime(), paymentData.get(i).getNextPaymentTime());
+                assertEquals(expected.get(i).getPremiumPaymentFrequency(), paymentData.get(i).getPremiumPaymentFrequency());
+            }
+        }
+    }
+
+    @Test
+    public void testCompactPaymentData() {
+        InsuranceCompany compact = new InsuranceCompany(LocalDateTime.of(2025, 1, 31, 9, 30, 45), PaymentDataLayout.COMPACT);
+        SingleVehicleContract c1 = compact.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        ContractPaymentData data = c1.getContractPaymentData();
+        assertEquals(100, data.getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 30), data.getNextPaymentTime());
+
+        data.setPremium(200);
+        data.setPremiumPaymentFrequency(PremiumPaymentFrequency.QUARTERLY);
+        assertEquals(150, data.addToOutstandingBalance(50));
+        data.updateNextPaymentTime();
+        assertEquals(LocalDateTime.of(2025, 5, 28, 9, 30), data.getNextPaymentTime());
+        assertThrows(IllegalArgumentException.class, () -> data.setPremium(0));
+        assertThrows(IllegalArgumentException.class, () -> data.setPremiumPaymentFrequency(null));
+
+        compact.setCurrentTime(LocalDateTime.of(2025, 5, 28, 9, 30, 0, 1));
+        compact.chargePremiumsOnContracts();
+        assertEquals(350, data.getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 8, 28, 9, 30), data.getNextPaymentTime());
+
+        c1.setInactive();
+        compact.setCurrentTime(LocalDateTime.of(2026, 1, 1, 0, 0));
+        compact.chargePremiumsOnContracts();
+        assertEquals(350, data.getOutstandingBalance());
+        assertThrows(IllegalArgumentException.class, () -> new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), (PaymentDataLayout) null));
+    }
+}
@@ -0,0 +1,303 @@
+import company.Claim;
+import company.ClaimRunSummary;
+import company.ContractStorage;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.ContractPaymentData;
+import payment.PaymentDataLayout;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContractTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legalPerson1;
+    Person naturalPerson1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        legalPerson1 = new Person("12345678");
+        naturalPerson1 = new Person("8351068242");
+    }
+
+    private static boolean scanIsActive(MasterVehicleContract master, boolean ownState) {
+        if (master.getChildContracts().isEmpty()) return ownState;
+        return master.getChildContracts().stream().anyMatch(SingleVehicleContract::isActive);
+    }
+
+    @Test
+    public void testCachedActivityMatchesFullScan() {
+        Random random = new Random(3);
+        List<MasterVehicleContract> masters = new ArrayList<>();
+        List<Boolean> ownStates = new ArrayList<>();
+        for (int m = 0; m < 5; m++) {
+            masters.add(insuranceCompany.createMasterVehicleContract("m" + m, naturalPerson1, legalPerson1));
+            ownStates.add(true);
+        }
+        List<SingleVehicleContract> contracts = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int m = random.nextInt(masters.size());
+            MasterVehicleContract master = masters.get(m);
+            switch (random.nextInt(8)) {
+                case 0, 1, 2 -> {
+                    SingleVehicleContract contract = insuranceCompany.insureVehicle("c" + step, null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY,
+                            new Vehicle(String.format("AB%05d", step), 10_000));
+                    if (random.nextInt(4) == 0) contract.setInactive();
+                    contracts.add(contract);
+                    if (contract.isActive() && master.isActive()) insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(master, contract);
+                    else master.getChildContracts().add(contract);
+                }
+                case 3, 4 -> {
+                    if (!contracts.isEmpty()) contracts.get(random.nextInt(contracts.size())).setInactive();
+                }
+                case 5 -> {
+                    Iterator<SingleVehicleContract> iterator = master.getChildContracts().iterator();
+                    if (iterator.hasNext()) {
+                        iterator.next();
+                        iterator.remove();
+                    }
+                }
+                case 6 -> {
+                    if (!contracts.isEmpty()) master.getChildContracts().remove(contracts.get(random.nextInt(contracts.size())));
+                }
+                default -> {
+                    if (random.nextInt(20) == 0) {
+                        master.setInactive();
+                        ownStates.set(m, false);
+                    }
+                }
+            }
+
+            for (int i = 0; i < masters.size(); i++) {
+                assertEquals(scanIsActive(masters.get(i), ownStates.get(i)), masters.get(i).isActive(), "step " + step);
+            }
+        }
+    }
+
+    @Test
+    public void testChildContractBelongsToOneMaster() {
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", naturalPerson1, legalPerson1);
+        MasterVehicleContract m2 = insuranceCompany.createMasterVehicleContract("m2", naturalPerson1, legalPerson1);
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+
+        assertSame(m1, c1.getMasterVehicleContract());
+        assertFalse(m1.getChildContracts().add(c1));
+        assertThrows(IllegalArgumentException.class, () -> m2.getChildContracts().add(c1));
+        assertThrows(IllegalArgumentException.class, () -> m2.getChildContracts().add(null));
+
+        m1.getChildContracts().clear();
+        assertNull(c1.getMasterVehicleContract());
+        assertTrue(m1.isActive());
+        m2.getChildContracts().add(c1);
+        insuranceCompany.processClaim(c1, 15_000);
+        assertFalse(m2.isActive());
+    }
+
+    private static List<String> describe(Collection<? extends AbstractContract> contracts) {
+        List<String> described = new ArrayList<>();
+        for (AbstractContract contract : contracts) {
+            ContractPaymentData data = contract.getContractPaymentData();
+            described.add(contract.getContractNumber() + " " + contract.isActive() + " " + contract.getCoverageAmount()
+                    + (data == null ? "" : " " + data.getPremium() + " " + data.getOutstandingBalance() + " " + data.getNextPaymentTime()));
+        }
+        return described;
+    }
+
+    @Test
+    public void testOffHeapRegistryMatchesHeap() {
+        InsuranceCompany heap = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), PaymentDataLayout.COMPACT);
+        InsuranceCompany offHeap = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), ContractStorage.OFF_HEAP);
+        Person[] holders = {legalPerson1, new Person("87654321"), naturalPerson1};
+        Random random = new Random(11);
+        for (int step = 0; step < 3_000; step++) {
+            int operation = random.nextInt(10);
+            String number = "c" + random.nextInt(400);
+            Person holder = holders[random.nextInt(holders.length)];
+            String plate = String.format("AB%05d", random.nextInt(300));
+            boolean readd = random.nextBoolean();
+            for (InsuranceCompany company : List.of(heap, offHeap)) {
+                AbstractContract found = company.findContract(number);
+                // numbers of children moved under a master stay taken
+                boolean taken = company.isContractNumberTaken(number);
+                if (operation < 4 && !taken) {
+                    company.insureVehicle(number, null, holder, 100 + step, PremiumPaymentFrequency.MONTHLY, new Vehicle(plate, 10_000));
+                } else if (operation == 4 && !taken) {
+                    company.insurePersons(number, holder, 100, PremiumPaymentFrequency.QUARTERLY, Set.of(holders[0], holders[2]));
+                } else if (operation == 5 && found != null) {
+                    company.getContracts().remove(found);
+                    if (readd) company.getContracts().add(found);
+                } else if (operation == 6 && found != null && found.isActive()) {
+                    found.setInactive();
+                } else if (operation == 7 && found != null) {
+                    found.setCoverageAmount(step);
+                } else if (operation == 8 && found instanceof SingleVehicleContract && found.isActive() && found.getPolicyHolder().equals(legalPerson1)) {
+                    MasterVehicleContract master = (MasterVehicleContract) company.findContract("m" + step % 3);
+                    if (master == null) master = company.createMasterVehicleContract("m" + step % 3, naturalPerson1, legalPerson1);
+                    company.moveSingleVehicleContractToMasterVehicleContract(master, (SingleVehicleContract) found);
+                } else if (operation == 9) {
+                    company.setCurrentTime(company.getCurrentTime().plusDays(10));
+                    company.chargePremiumsOnContracts();
+                }
+            }
+            // both companies draw the same random numbers, so the heap one decides what happened
+            assertEquals(describe(heap.getContracts()), describe(offHeap.getContracts()), "step " + step);
+        }
+
+        for (Person holder : holders) {
+            assertEquals(describe(heap.findContractsByPolicyHolder(holder.getId())), describe(offHeap.findContractsByPolicyHolder(holder.getId())));
+        }
+        for (int i = 0; i < 300; i++) {
+            String plate = String.format("AB%05d", i);
+            assertEquals(describe(heap.findContractsByLicensePlate(plate)), describe(offHeap.findContractsByLicensePlate(plate)));
+        }
+        assertEquals(heap.getContracts().size(), offHeap.getContracts().size());
+    }
+
+    @Test
+    public void testOffHeapContractViews() {
+        InsuranceCompany offHeap = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), ContractStorage.OFF_HEAP);
+        assertEquals(ContractStorage.OFF_HEAP, offHeap.getContractStorage());
+        assertEquals(PaymentDataLayout.OFF_HEAP, offHeap.getPaymentDataLayout());
+        assertThrows(IllegalArgumentException.class, () -> new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), PaymentDataLayout.OBJECTS, ContractStorage.OFF_HEAP));
+
+        Person beneficiary = new Person("0402114911");
+        SingleVehicleContract c1 = offHeap.insureVehicle("c1", beneficiary, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        TravelContract t1 = offHeap.insurePersons("t1", naturalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new LinkedHashSet<>(List.of(naturalPerson1, beneficiary)));
+        AbstractContract found = offHeap.findContract("c1");
+        assertEquals(c1, found);
+        assertSame(beneficiary, c1.getBeneficiary());
+        assertEquals("AA111AA", c1.getInsuredVehicle().getLicensePlate());
+        assertEquals(7_500, found.getCoverageAmount());
+        assertEquals(List.of(naturalPerson1, beneficiary), new ArrayList<>(t1.getInsuredPersons()));
+        assertEquals(c1.getContractPaymentData(), found.getContractPaymentData());
+        assertThrows(IllegalArgumentException.class, () -> offHeap.insureVehicle("c1", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA222AA", 15_000)));
+
+        found.setInactive();
+        assertFalse(c1.isActive());
+        offHeap.processClaim(t1, Set.of(beneficiary));
+        assertFalse(offHeap.findContract("t1").isActive());
+        assertEquals(20, beneficiary.getPaidOutAmount());
+        assertEquals(0, naturalPerson1.getPaidOutAmount());
+        assertTrue(legalPerson1.getContracts().contains(found));
+    }
+
+    @Test
+    public void testTravelContractIndexesInsuredPersons() {
+        Person traveller1 = new Person("0402114911");
+        Person traveller2 = new Person("7103192745");
+        Set<Person> byId = new TreeSet<>(Comparator.comparing(Person::getId));
+        byId.addAll(List.of(naturalPerson1, traveller1, traveller2));
+        TravelContract t1 = insuranceCompany.insurePersons("t1", naturalPerson1, 100, PremiumPaymentFrequency.MONTHLY, byId);
+
+        byId.clear();
+        assertEquals(3, t1.getInsuredPersons().size());
+        assertEquals(List.of(traveller1, traveller2, naturalPerson1), new ArrayList<>(t1.getInsuredPersons()));
+        assertThrows(UnsupportedOperationException.class, () -> t1.getInsuredPersons().add(legalPerson1));
+        assertThrows(UnsupportedOperationException.class, () -> t1.getInsuredPersons().remove(traveller1));
+        assertTrue(t1.getInsuredPersons().contains(new Person("7103192745")));
+        assertFalse(t1.getInsuredPersons().contains(legalPerson1));
+        assertSame(traveller2, t1.getInsuredPerson(new Person("7103192745")));
+        assertEquals(t1.getInsuredPersons(), Set.of(naturalPerson1, traveller1, traveller2));
+
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.processClaim(t1, Set.of(traveller1, legalPerson1)));
+        // only the affected persons share the coverage, each as the instance the contract insures
+        insuranceCompany.processClaim(t1, Set.of(new Person("0402114911"), new Person("7103192745")));
+        assertEquals(15, traveller1.getPaidOutAmount());
+        assertEquals(15, traveller2.getPaidOutAmount());
+        assertEquals(0, naturalPerson1.getPaidOutAmount());
+        assertFalse(t1.isActive());
+    }
+
+    // the same portfolio in every company, persons 0 to 9 hold the contracts and 10 to 39 are insured by the travel contracts
+    private static List<AbstractContract> claimPortfolio(InsuranceCompany company, Person[] persons) {
+        for (int i = 0; i < persons.length; i++) {
+            persons[i] = new Person(i < 10 ? String.format("%08d", i + 1) : String.format("%02d%02d%02d%03d", i, 1 + i % 12, 1 + i % 28, i));
+        }
+        List<AbstractContract> contracts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Person holder = persons[i % 10];
+            if (i % 4 == 3) {
+                Set<Person> insured = new LinkedHashSet<>(List.of(persons[10 + i % 30], persons[10 + (i * 7) % 30], persons[10 + (i * 13) % 30]));
+                contracts.add(company.insurePersons("t" + i, holder, 100, PremiumPaymentFrequency.MONTHLY, insured));
+            } else {
+                contracts.add(company.insureVehicle("v" + i, i % 3 == 0 ? persons[(i + 1) % 10] : null, holder, 100, PremiumPaymentFrequency.MONTHLY,
+                        new Vehicle(String.format("CL%05d", i), 10_000)));
+            }
+        }
+        return contracts;
+    }
+
+    @Test
+    public void testClaimBatchMatchesSequentialClaims() {
+        for (ContractStorage storage : ContractStorage.values()) {
+            InsuranceCompany sequential = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), storage);
+            InsuranceCompany batched = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), storage);
+            Person[] sequentialPersons = new Person[40];
+            Person[] batchedPersons = new Person[40];
+            List<AbstractContract> sequentialContracts = claimPortfolio(sequential, sequentialPersons);
+            List<AbstractContract> batchedContracts = claimPortfolio(batched, batchedPersons);
+
+            Random random = new Random(11);
+            List<String> sequentialRejections = new ArrayList<>();
+            List<Claim> claims = new ArrayList<>();
+            int[] damages = {-5, 100, 5_000, 6_999, 7_000, 20_000};
+            for (int step = 0; step < 3_000; step++) {
+                int index = random.nextInt(sequentialContracts.size());
+                String rejection = null;
+                try {
+                    if (sequentialContracts.get(index) instanceof SingleVehicleContract) {
+                        int damage = damages[random.nextInt(damages.length)];
+                        claims.add(new Claim((SingleVehicleContract) batchedContracts.get(index), damage));
+                        sequential.processClaim((SingleVehicleContract) sequentialContracts.get(index), damage);
+                    } else {
+                        int[] affected = random.ints(random.nextInt(3), 0, 40).toArray();
+                        Set<Person> sequentialAffected = new HashSet<>();
+                        Set<Person> batchedAffected = new HashSet<>();
+                        for (int person : affected) {
+                            sequentialAffected.add(sequentialPersons[person]);
+                            batchedAffected.add(batchedPersons[person]);
+                        }
+                        claims.add(new Claim((TravelContract) batchedContracts.get(index), batchedAffected));
+                        sequential.processClaim((TravelContract) sequentialContracts.get(index), sequentialAffected);
+                    }
+                } catch (IllegalArgumentException | InvalidContractException e) {
+                    rejection = e.getMessage();
+                }
+                sequentialRejections.add(rejection);
+            }
+
+            ClaimRunSummary summary = batched.processClaims(claims, 4);
+            long paidOut = 0;
+            for (int i = 0; i < sequentialPersons.length; i++) {
+                assertEquals(sequentialPersons[i].getPaidOutAmount(), batchedPersons[i].getPaidOutAmount(), storage + " person " + i);
+                paidOut += batchedPersons[i].getPaidOutAmount();
+            }
+            assertEquals(paidOut, summary.getPaidOutAmount());
+            int deactivated = 0;
+            for (int i = 0; i < sequentialContracts.size(); i++) {
+                assertEquals(sequentialContracts.get(i).isActive(), batchedContracts.get(i).isActive(), storage + " contract " + i);
+                if (!batchedContracts.get(i).isActive()) deactivated++;
+            }
+            assertEquals(deactivated, summary.getContractsDeactivated());
+            for (int i = 0; i < claims.size(); i++) {
+                assertEquals(sequentialRejections.get(i), summary.getRejectedClaims().get(claims.get(i)), storage + " claim " + i);
+            }
+            assertEquals(claims.size(), summary.getClaimsProcessed() + summary.getClaimsRejected());
+            assertTrue(summary.getClaimsProcessed() > 0 && summary.getClaimsRejected() > 0);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import events.ContractEvent;
+import events.ContractEventPublisher;
+import events.ContractEventType;
+import events.OverflowPolicy;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventsTests {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 15, 12, 0);
+
+    // records what it gets and requests only when told to
+    private static class Recorder implements Flow.Subscriber<ContractEvent> {
+        final List<ContractEvent> events = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ContractEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        List<ContractEventType> types() {
+            List<ContractEventType> types = new ArrayList<>();
+            for (ContractEvent event : events) {
+                types.add(event.getType());
+            }
+            return types;
+        }
+    }
+
+    @Test
+    public void testBalanceAndStatusChangesArePublishedInOrder() {
+        InsuranceCompany company = new InsuranceCompany(START);
+        // delivering on the publishing thread keeps the test deterministic
+        ContractEventPublisher publisher = ContractEventPublisher.attach(company, Runnable::run, 64, OverflowPolicy.CANCEL);
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        Person holder = new Person("12345678");
+        SingleVehicleContract vehicle = company.insureVehicle("v1", null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("EV00001", 20_000));
+        vehicle.pay(400);
+        MasterVehicleContract master = company.createMasterVehicleContract("m1", new Person("87654321"), holder);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, vehicle);
+        company.setCurrentTime(START.plusYears(1));
+        company.chargePremiumsOnContracts();
+        company.processClaim(vehicle, 15_000);
+        TravelContract travel = company.insurePersons("t1", holder, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("8001011234")));
+        company.processClaim(travel, Set.of(new Person("8001011234")));
+
+        assertEquals(List.of(ContractEventType.CONTRACT_INSURED, ContractEventType.PAYMENT_APPLIED, ContractEventType.CHILD_MOVED, ContractEventType.PREMIUM_CHARGED,
+                ContractEventType.CLAIM_PAID, ContractEventType.CONTRACT_DEACTIVATED, ContractEventType.CONTRACT_INSURED, ContractEventType.CLAIM_PAID,
+                ContractEventType.CONTRACT_DEACTIVATED), recorder.types());
+        assertEquals(1000, recorder.events.get(0).getOutstandingBalance());
+        assertEquals(400, recorder.events.get(1).getAmount());
+        assertEquals(600, recorder.events.get(1).getOutstandingBalance());
+        assertEquals("m1", recorder.events.get(2).getMasterContractNumber());
+        assertEquals("m1", recorder.events.get(3).getContractNumber());
+        assertEquals(1600, recorder.events.get(3).getOutstandingBalance());
+        assertEquals(10_000, recorder.events.get(4).getAmount());
+        assertEquals(START.plusYears(1), recorder.events.get(4).getTime());
+        assertEquals(10, recorder.events.get(7).getAmount());
+        assertEquals(0, publisher.getDroppedEvents());
+
+        publisher.detach();
+        assertTrue(recorder.completed);
+        company.insureVehicle("v2", null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("EV00002", 20_000));
+        assertEquals(9, recorder.events.size());
+    }
+
+    @Test
+    public void testSlowSubscribersGetTheirOverflowPolicy() {
+        InsuranceCompany company = new InsuranceCompany(START);
+        ContractEventPublisher publisher = ContractEventPublisher.attach(company, Runnable::run, 4, OverflowPolicy.DROP_OLDEST);
+        Recorder oldestDropped = new Recorder();
+        Recorder newestDropped = new Recorder();
+        Recorder cancelled = new Recorder();
+        publisher.subscribe(oldestDropped);
+        publisher.subscribe(newestDropped, 4, OverflowPolicy.DROP_NEWEST);
+        publisher.subscribe(cancelled, 4, OverflowPolicy.CANCEL);
+        // one event is delivered right away, the rest waits in the buffers
+        oldestDropped.subscription.request(1);
+        newestDropped.subscription.request(1);
+        cancelled.subscription.request(1);
+
+        Person holder = new Person("12345678");
+        for (int i = 0; i < 10; i++) {
+            company.insureVehicle("v" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(String.format("EV%05d", i), 20_000));
+        }
+        assertEquals(2, publisher.getSubscriberCount());
+        assertInstanceOf(IllegalStateException.class, cancelled.error);
+        assertEquals(1, cancelled.events.size());
+
+        oldestDropped.subscription.request(100);
+        newestDropped.subscription.request(100);
+        List<String> oldest = new ArrayList<>();
+        for (ContractEvent event : oldestDropped.events) {
+            oldest.add(event.getContractNumber());
+        }
+        List<String> newest = new ArrayList<>();
+        for (ContractEvent event : newestDropped.events) {
+            newest.add(event.getContractNumber());
+        }
+        assertEquals(List.of("v0", "v6", "v7", "v8", "v9"), oldest);
+        assertEquals(List.of("v0", "v1", "v2", "v3", "v4"), newest);
+        assertEquals(5 + 5 + 1, publisher.getDroppedEvents());
+
+        // a non-positive request ends the subscription with an error
+        newestDropped.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, newestDropped.error);
+        assertEquals(1, publisher.getSubscriberCount());
+        oldestDropped.subscription.cancel();
+        assertEquals(0, publisher.getSubscriberCount());
+        assertThrows(NullPointerException.class, () -> publisher.subscribe(null));
+    }
+}
@@ -0,0 +1,131 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import loader.FlatJson;
+import loader.InputFormat;
+import loader.LoadReport;
+import loader.PortfolioLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoaderTests {
+
+    InsuranceCompany insuranceCompany;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+    }
+
+    @Test
+    public void testLoadCsvWritesRejects() throws IOException {
+        Path input = directory.resolve("portfolio.csv");
+        Path rejects = directory.resolve("rejects.tsv");
+        Files.write(input, List.of(
+                "type,contractNumber,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,insuredPersons",
+                "VEHICLE,c1,12345678,8351068242,1500,ANNUAL,AA111AA,15000,",
+                "VEHICLE,c2,12345678,,100,MONTHLY,aa111aa,15000,",
+                "TRAVEL,t1,8351068242,,100,QUARTERLY,,,0402114911;8351068242",
+                "TRAVEL,t2,1234,,100,QUARTERLY,,,0402114911",
+                "VEHICLE,c1,12345678,,1500,ANNUAL,BANAN22,15000,",
+                "",
+                "VEHICLE,c3,12345678,,abc,ANNUAL,BANAN22,15000,"));
+
+        LoadReport report = new PortfolioLoader(insuranceCompany).load(input, InputFormat.CSV, rejects);
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(4, report.getRejected());
+        assertEquals(2, insuranceCompany.getContracts().size());
+        SingleVehicleContract c1 = (SingleVehicleContract) insuranceCompany.findContract("c1");
+        assertEquals("8351068242", c1.getBeneficiary().getId());
+        assertEquals(1500, c1.getContractPaymentData().getOutstandingBalance());
+        TravelContract t1 = (TravelContract) insuranceCompany.findContract("t1");
+        assertEquals(2, t1.getInsuredPersons().size());
+        assertTrue(t1.getInsuredPersons().contains(c1.getBeneficiary()));
+        assertSame(c1.getBeneficiary(), t1.getPolicyHolder());
+
+        List<String> rejected = Files.readAllLines(rejects);
+        assertEquals(4, rejected.size());
+        assertTrue(rejected.get(0).startsWith("3\tInvalid license plate!"));
+        assertTrue(rejected.get(1).startsWith("5\tInvalid policy holder id!"));
+        assertTrue(rejected.get(2).startsWith("6\t"));
+        assertTrue(rejected.get(3).startsWith("8\t"));
+    }
+
+    @Test
+    public void testLoadNdjson() throws IOException {
+        Path input = directory.resolve("portfolio.ndjson");
+        Files.write(input, List.of(
+                "{\"type\":\"VEHICLE\",\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"beneficiary\":null,\"premium\":400,\"frequency\":\"QUARTERLY\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}",
+                "{\"type\":\"TRAVEL\",\"contractNumber\":\"t1\",\"policyHolder\":\"12345678\",\"premium\":50,\"frequency\":\"MONTHLY\",\"insuredPersons\":[\"0402114911\",\"8351068242\"]}",
+                "{\"type\":\"TRAVEL\",\"contractNumber\":\"t2\",\"policyHolder\":\"12345678\",\"premium\":50,\"frequency\":\"MONTHLY\",\"insuredPersons\":[]}",
+                "{\"type\":\"VEHICLE\",\"contractNumber\":\"c2\""));
+
+        LoadReport report = new PortfolioLoader(insuranceCompany).load(input, InputFormat.NDJSON, null);
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertEquals(PremiumPaymentFrequency.QUARTERLY, insuranceCompany.findContract("c1").getContractPaymentData().getPremiumPaymentFrequency());
+        assertSame(insuranceCompany.findContract("c1").getPolicyHolder(), insuranceCompany.findContract("t1").getPolicyHolder());
+        assertEquals(2, insuranceCompany.findContractsByPolicyHolder("12345678").size());
+    }
+
+    @Test
+    public void testMissingOrUnknownFrequencyIsRejected() throws IOException {
+        Path input = directory.resolve("portfolio.ndjson");
+        Path rejects = directory.resolve("rejects.tsv");
+        Files.write(input, List.of(
+                "{\"type\":\"VEHICLE\",\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"premium\":400,\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}",
+                "{\"type\":\"VEHICLE\",\"contractNumber\":\"c2\",\"policyHolder\":\"12345678\",\"premium\":400,\"frequency\":\"WEEKLY\",\"licensePlate\":\"AA222AA\",\"vehicleValue\":15000}",
+                "{\"type\":\"VEHICLE\",\"contractNumber\":\"c3\",\"policyHolder\":\"12345678\",\"premium\":400,\"frequency\":\"ANNUAL\",\"licensePlate\":\"AA333AA\",\"vehicleValue\":15000}"));
+
+        LoadReport report = new PortfolioLoader(insuranceCompany).load(input, InputFormat.NDJSON, rejects);
+
+        assertEquals(1, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertNotNull(insuranceCompany.findContract("c3"));
+        List<String> rejected = Files.readAllLines(rejects);
+        assertTrue(rejected.get(0).startsWith("1\tUnknown payment frequency!"));
+        assertTrue(rejected.get(1).startsWith("2\tUnknown payment frequency!"));
+
+        Path csv = directory.resolve("portfolio.csv");
+        Files.write(csv, List.of("type,contractNumber,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,insuredPersons", "VEHICLE,c4,12345678,,400,,AA444AA,15000,", "VEHICLE,c5,12345678,,400,DAILY,AA555AA,15000,"));
+        assertEquals(2, new PortfolioLoader(insuranceCompany).load(csv, InputFormat.CSV, null).getRejected());
+    }
+
+    @Test
+    public void testJsonNumbers() {
+        Map<String, Object> object = FlatJson.parseObject("{\"count\":-12,\"nsPerOp\":103.5,\"small\":-2.5e-3,\"large\":1E6,\"values\":[1,0.25]}");
+        assertEquals(-12L, object.get("count"));
+        assertEquals(103.5, object.get("nsPerOp"));
+        assertEquals(-0.0025, object.get("small"));
+        assertEquals(1e6, object.get("large"));
+        assertEquals(List.of(1L, 0.25), object.get("values"));
+        assertThrows(IllegalArgumentException.class, () -> FlatJson.parseObject("{\"a\":1.}"));
+        assertThrows(IllegalArgumentException.class, () -> FlatJson.parseObject("{\"a\":1e}"));
+        assertThrows(IllegalArgumentException.class, () -> FlatJson.parseObject("{\"a\":-}"));
+    }
+
+    @Test
+    public void testFractionalPremiumIsRejected() throws IOException {
+        Path ndjson = directory.resolve("portfolio.ndjson");
+        Files.write(ndjson, List.of("{\"type\":\"VEHICLE\",\"contractNumber\":\"c1\",\"policyHolder\":\"12345678\",\"premium\":400.5,\"frequency\":\"ANNUAL\",\"licensePlate\":\"AA111AA\",\"vehicleValue\":15000}"));
+        LoadReport report = new PortfolioLoader(insuranceCompany).load(ndjson, InputFormat.NDJSON, null);
+        assertEquals(1, report.getRejected());
+        assertNull(insuranceCompany.findContract("c1"));
+    }
+}
@@ -0,0 +1,84 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import metrics.HistogramSnapshot;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.MetricsSnapshot;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTests {
+
+    @Test
+    public void testHistogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(3);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMaxNanos());
+        assertEquals(Arrays.stream(values).sum(), snapshot.getTotalNanos());
+        for (double percentile : new double[]{1, 25, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = snapshot.getPercentileNanos(percentile);
+            assertTrue(reported <= exact && reported >= exact - exact / 32, percentile + ": " + reported + " for " + exact);
+        }
+
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentileNanos(99));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentileNanos(101));
+    }
+
+    @Test
+    public void testCompanyOperationsAreCountedAndExported() {
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        Person holder = new Person("12345678");
+        SingleVehicleContract c1 = company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        company.insureVehicle("c2", null, holder, 400, PremiumPaymentFrequency.QUARTERLY, new Vehicle("BANAN22", 22_000));
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle("c3", null, holder, 1, PremiumPaymentFrequency.MONTHLY, new Vehicle("CC333CC", 15_000)));
+        c1.pay(30);
+        c1.pay(20);
+        company.processClaim(c1, 14_000);
+
+        MetricsSnapshot snapshot = company.getMetrics().snapshot();
+        assertEquals(2, snapshot.getHistograms().get("company.insureVehicle").getCount());
+        assertEquals(2, snapshot.getHistograms().get("payment.pay").getCount());
+        assertEquals(1, snapshot.getHistograms().get("company.processClaim").getCount());
+        assertEquals(50, snapshot.getCounters().get("payment.amountReceived"));
+        assertEquals(1, snapshot.getCounters().get("company.processClaim.deactivated"));
+        assertEquals(2, snapshot.getGauges().get("company.contracts"));
+        assertEquals(450, snapshot.getGauges().get("company.outstandingBalance"));
+        assertEquals(2, snapshot.getGauges().get("payment.history.size"));
+
+        assertTrue(snapshot.toText().contains("payment.amountReceived 50\n"));
+        String json = snapshot.toJson();
+        assertTrue(json.startsWith("{\"counters\":{"));
+        assertTrue(json.contains("\"company.contracts\":2"));
+        assertTrue(json.contains("\"payment.pay\":{\"count\":2,"));
+    }
+
+    @Test
+    public void testRegistryReturnsTheSameMetricForAName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("a"), registry.counter("a"));
+        assertSame(registry.histogram("b"), registry.histogram("b"));
+        registry.gauge("g", () -> 1);
+        registry.gauge("g", () -> 2);
+        assertEquals(2, registry.snapshot().getGauges().get("g"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter(""));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("a").add(-1));
+    }
+}
@@ -0,0 +1,94 @@
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import monitoring.BillingRunEvent;
+import monitoring.ClaimEvent;
+import monitoring.PaymentEvent;
+import monitoring.PremiumChargeEvent;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonitoringTests {
+
+    @Test
+    public void testRecordingHoldsBillingPaymentAndClaimEvents() throws IOException {
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 12, 0));
+        Person holder = new Person("12345678");
+        SingleVehicleContract c1 = company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = company.insureVehicle("c2", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 20_000));
+        SingleVehicleContract c3 = company.insureVehicle("c3", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("CC333CC", 10_000));
+        MasterVehicleContract m1 = company.createMasterVehicleContract("m1", new Person("8351068242"), holder);
+        m1.requestAdditionOfChildContract(c1);
+        m1.requestAdditionOfChildContract(c2);
+
+        Path file = Files.createTempFile("insurance", ".jfr");
+        try (Recording recording = new Recording()) {
+            // the per-contract events are only recorded above a threshold by default
+            recording.enable(BillingRunEvent.class);
+            recording.enable(PremiumChargeEvent.class).withoutThreshold();
+            recording.enable(PaymentEvent.class).withoutThreshold();
+            recording.enable(ClaimEvent.class).withoutThreshold();
+            recording.start();
+
+            company.setCurrentTime(LocalDateTime.of(2025, 3, 1, 12, 0));
+            company.chargePremiumsOnContracts();
+            m1.pay(1_000);
+            c3.pay(50);
+            company.processClaim(c3, 9_000);
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> runs = named(events, "insurance.BillingRun");
+            assertEquals(1, runs.size());
+            assertEquals(2, runs.get(0).getInt("contractsDue"));
+            assertEquals(0, runs.get(0).getInt("parallelism"));
+
+            List<RecordedEvent> charges = named(events, "insurance.PremiumCharge");
+            assertEquals(2, charges.size());
+            RecordedEvent master = charges.stream().filter(e -> e.getBoolean("master")).findFirst().orElseThrow();
+            assertEquals("m1", master.getString("contractNumber"));
+            assertEquals(2, master.getInt("childrenCharged"));
+            assertEquals(4, master.getInt("periodsCharged"));
+            assertEquals(400, master.getLong("amountCharged"));
+            RecordedEvent single = charges.stream().filter(e -> !e.getBoolean("master")).findFirst().orElseThrow();
+            assertEquals("c3", single.getString("contractNumber"));
+            assertEquals(200, single.getLong("amountCharged"));
+
+            List<RecordedEvent> payments = named(events, "insurance.Payment");
+            assertEquals(2, payments.size());
+            assertEquals("m1", payments.get(0).getString("contractNumber"));
+            assertEquals(1_000, payments.get(0).getInt("amount"));
+            assertEquals(2, payments.get(0).getInt("childrenTouched"));
+            assertEquals(2, payments.get(0).getLong("allocationRounds"));
+            assertEquals(0, payments.get(1).getInt("childrenTouched"));
+
+            List<RecordedEvent> claims = named(events, "insurance.Claim");
+            assertEquals(1, claims.size());
+            assertEquals("c3", claims.get(0).getString("contractNumber"));
+            assertEquals(5_000, claims.get(0).getLong("paidOutAmount"));
+            assertTrue(claims.get(0).getBoolean("contractDeactivated"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+}
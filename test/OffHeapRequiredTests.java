@@ -0,0 +1,16 @@
+import company.ContractStorage;
+import company.InsuranceCompany;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.time.LocalDateTime;
+
+// the required behaviour has to hold with contracts kept off-heap as well
+public class OffHeapRequiredTests extends RequiredTests {
+
+    @BeforeEach
+    @Override
+    void setUp() {
+        super.setUp();
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0), ContractStorage.OFF_HEAP);
+    }
+}
@@ -0,0 +1,350 @@
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PaymentLedger;
+import payment.PaymentRecord;
+import payment.PaymentResult;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentTests {
+
+    InsuranceCompany insuranceCompany;
+    Person legalPerson1;
+    Person naturalPerson1;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0));
+        legalPerson1 = new Person("12345678");
+        naturalPerson1 = new Person("8351068242");
+    }
+
+    @Test
+    public void testConcurrentPaymentsConserveBalances() throws Exception {
+        int threads = 32;
+        int paymentsPerThread = 20_000;
+        List<SingleVehicleContract> singles = new ArrayList<>();
+        List<MasterVehicleContract> masters = new ArrayList<>();
+        for (int m = 0; m < 4; m++) {
+            masters.add(insuranceCompany.createMasterVehicleContract("m" + m, naturalPerson1, legalPerson1));
+        }
+        for (int i = 0; i < 40; i++) {
+            SingleVehicleContract contract = insuranceCompany.insureVehicle("c" + i, null, legalPerson1, 100 + i, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(String.format("AB%05d", i), 10_000));
+            contract.getContractPaymentData().setOutstandingBalance(0);
+            singles.add(contract);
+            if (i % 2 == 0) insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(masters.get(i / 2 % masters.size()), contract);
+        }
+
+        AtomicLongArray paidDirectly = new AtomicLongArray(singles.size());
+        AtomicLongArray paidToMaster = new AtomicLongArray(masters.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < paymentsPerThread; i++) {
+                    int amount = 1 + random.nextInt(500);
+                    if ((i + seed) % 5 == 0) {
+                        int master = random.nextInt(masters.size());
+                        insuranceCompany.getHandler().pay(masters.get(master), amount);
+                        paidToMaster.addAndGet(master, amount);
+                    } else {
+                        int single = random.nextInt(singles.size());
+                        insuranceCompany.getHandler().pay(singles.get(single), amount);
+                        paidDirectly.addAndGet(single, amount);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int m = 0; m < masters.size(); m++) {
+            long expected = -paidToMaster.get(m);
+            long actual = 0;
+            for (SingleVehicleContract child : masters.get(m).getChildContracts()) {
+                expected -= paidDirectly.get(singles.indexOf(child));
+                actual += child.getContractPaymentData().getOutstandingBalance();
+            }
+            assertEquals(expected, actual);
+        }
+        for (int i = 1; i < singles.size(); i += 2) {
+            assertEquals(-paidDirectly.get(i), singles.get(i).getContractPaymentData().getOutstandingBalance());
+        }
+    }
+
+    @Test
+    public void testPaymentHistoryIsRecordedPerContract() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        c1.pay(100);
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusDays(1));
+        c1.pay(30);
+
+        assertEquals(20, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2, insuranceCompany.getHandler().getPaymentHistory().get(c1).size());
+        assertNull(insuranceCompany.getHandler().getPaymentHistory().get(new SingleVehicleContract("c2", insuranceCompany, null, legalPerson1,
+                c1.getContractPaymentData(), 100, new Vehicle("BANAN22", 22_000))));
+
+        AbstractContract inactive = insuranceCompany.insureVehicle("c3", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("SOMRYBA", 8_000));
+        inactive.setInactive();
+        assertThrows(RuntimeException.class, () -> inactive.pay(10));
+        assertThrows(IllegalArgumentException.class, () -> c1.pay(0));
+    }
+
+    @Test
+    public void testPayAllAppliesAndRejectsPerRecord() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        SingleVehicleContract c3 = insuranceCompany.insureVehicle("c3", null, legalPerson1, 200, PremiumPaymentFrequency.QUARTERLY, new Vehicle("SOMRYBA", 8_000));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", naturalPerson1, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c2);
+        c3.setInactive();
+
+        LocalDateTime time = insuranceCompany.getCurrentTime();
+        List<PaymentRecord> records = Arrays.asList(
+                new PaymentRecord("c1", 50, time),
+                new PaymentRecord("unknown", 50, time),
+                new PaymentRecord("m1", 250, time.plusHours(1)),
+                new PaymentRecord("c1", 70, time.plusHours(2)),
+                new PaymentRecord("c3", 10, time),
+                new PaymentRecord("c1", -5, time),
+                new PaymentRecord("c1", 5, null),
+                null);
+        List<PaymentResult> results = insuranceCompany.getHandler().payAll(records);
+
+        assertEquals(records.size(), results.size());
+        boolean[] applied = {true, false, true, true, false, false, false, false};
+        for (int i = 0; i < applied.length; i++) {
+            assertEquals(applied[i], results.get(i).isApplied(), "record " + i);
+            assertSame(records.get(i), results.get(i).getRecord());
+            assertEquals(applied[i], results.get(i).getRejectionReason() == null);
+        }
+        assertEquals(30, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(-150, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(200, c3.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2, insuranceCompany.getHandler().getPaymentHistory().get(c1).size());
+        assertEquals(time.plusHours(1), insuranceCompany.getHandler().getPaymentHistory().get(m1).iterator().next().getPaymentTime());
+        assertThrows(IllegalArgumentException.class, () -> insuranceCompany.getHandler().payAll(null));
+    }
+
+    @Test
+    public void testPayAllRejectsContractPaymentsAboveIntRange() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+
+        LocalDateTime time = insuranceCompany.getCurrentTime();
+        List<PaymentResult> results = insuranceCompany.getHandler().payAll(List.of(
+                new PaymentRecord("c1", Integer.MAX_VALUE, time),
+                new PaymentRecord("c2", 40, time),
+                new PaymentRecord("c1", 1, time)));
+
+        assertFalse(results.get(0).isApplied());
+        assertTrue(results.get(1).isApplied());
+        assertFalse(results.get(2).isApplied());
+        assertEquals(150, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(60, c2.getContractPaymentData().getOutstandingBalance());
+        assertNull(insuranceCompany.getHandler().getPaymentHistory().get(c1));
+    }
+
+    @Test
+    public void testPayAllRecordsEveryTimeAndPaysChildren() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", naturalPerson1, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c2);
+
+        List<PaymentResult> results = insuranceCompany.getHandler().payAll(List.of(
+                new PaymentRecord("c1", 30, LocalDateTime.of(2025, 1, 1, 0, 0)),
+                new PaymentRecord("c1", 30, LocalDateTime.of(2400, 1, 1, 0, 0)),
+                new PaymentRecord("c2", 40, insuranceCompany.getCurrentTime())));
+
+        for (PaymentResult result : results) {
+            assertTrue(result.isApplied(), result.getRejectionReason());
+        }
+        assertEquals(90, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2, insuranceCompany.getHandler().getLedger().countPayments(c1));
+        assertEquals(60, c2.getContractPaymentData().getOutstandingBalance());
+        assertEquals(1, insuranceCompany.getHandler().getLedger().countPayments(c2));
+    }
+
+    // the debt clearing and round-robin loop pay(MasterVehicleContract, int) used before the fleet allocation
+    private static void allocateByLoop(MasterVehicleContract contract, int amount) {
+        for (SingleVehicleContract child : contract.getChildContracts()) {
+            ContractPaymentData data = child.getContractPaymentData();
+            if (child.isActive() && data.getOutstandingBalance() > 0) {
+                int currentBalance = data.getOutstandingBalance();
+                if (amount >= currentBalance) {
+                    amount -= currentBalance;
+                    data.setOutstandingBalance(0);
+                } else {
+                    data.setOutstandingBalance(currentBalance - amount);
+                }
+            }
+        }
+
+        while (amount > 0) {
+            for (SingleVehicleContract child : contract.getChildContracts()) {
+                if (child.isActive()) {
+                    ContractPaymentData data = child.getContractPaymentData();
+                    if (amount >= data.getPremium()) {
+                        data.setOutstandingBalance(data.getOutstandingBalance() - data.getPremium());
+                        amount -= data.getPremium();
+                    } else {
+                        data.setOutstandingBalance(data.getOutstandingBalance() - amount);
+                        amount = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    private static MasterVehicleContract buildFleet(InsuranceCompany company, long seed) {
+        Random random = new Random(seed);
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = company.createMasterVehicleContract("m", new Person("8351068242"), holder);
+        int children = 1 + random.nextInt(40);
+        for (int i = 0; i < children; i++) {
+            SingleVehicleContract contract = company.insureVehicle("c" + i, null, holder, 100 + random.nextInt(400), PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(String.format("AB%05d", i), 10_000));
+            contract.getContractPaymentData().setOutstandingBalance(random.nextInt(3) == 0 ? 0 : random.nextInt(2_000) - 500);
+            company.moveSingleVehicleContractToMasterVehicleContract(master, contract);
+        }
+        for (SingleVehicleContract child : master.getChildContracts()) {
+            if (random.nextInt(4) == 0 && master.getChildContracts().stream().filter(SingleVehicleContract::isActive).count() > 1) child.setInactive();
+        }
+        return master;
+    }
+
+    @Test
+    public void testFleetAllocationMatchesRoundRobin() {
+        Random random = new Random(11);
+        for (long seed = 0; seed < 3_000; seed++) {
+            MasterVehicleContract expected = buildFleet(new InsuranceCompany(insuranceCompany.getCurrentTime()), seed);
+            MasterVehicleContract actual = buildFleet(new InsuranceCompany(insuranceCompany.getCurrentTime()), seed);
+            for (int payment = 0; payment < 3; payment++) {
+                int amount = 1 + (random.nextBoolean() ? random.nextInt(3_000) : random.nextInt(200_000));
+                allocateByLoop(expected, amount);
+                actual.pay(amount);
+
+                Iterator<SingleVehicleContract> actualChildren = actual.getChildContracts().iterator();
+                for (SingleVehicleContract child : expected.getChildContracts()) {
+                    assertEquals(child.getContractPaymentData().getOutstandingBalance(), actualChildren.next().getContractPaymentData().getOutstandingBalance(),
+                            "seed " + seed + " amount " + amount);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFleetAllocationAtRoundBoundaries() {
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", naturalPerson1, legalPerson1);
+        int[] premiums = {100, 200, 300};
+        for (int i = 0; i < premiums.length; i++) {
+            SingleVehicleContract contract = insuranceCompany.insureVehicle("c" + i, null, legalPerson1, premiums[i], PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(String.format("AB%05d", i), 10_000));
+            contract.getContractPaymentData().setOutstandingBalance(0);
+            insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, contract);
+        }
+
+        int[][] expected = {{-100, -200, 0}, {-200, -400, -300}, {-300, -600, -450}, {-500, -1000, -1050}};
+        int[] amounts = {300, 600, 450, 1200};
+        for (int payment = 0; payment < amounts.length; payment++) {
+            m1.pay(amounts[payment]);
+            Iterator<SingleVehicleContract> children = m1.getChildContracts().iterator();
+            for (int balance : expected[payment]) {
+                assertEquals(balance, children.next().getContractPaymentData().getOutstandingBalance(), "payment " + payment);
+            }
+        }
+    }
+
+    @Test
+    public void testLedgerKeepsSameInstantPaymentsAndAnswersRanges() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        LocalDateTime time = insuranceCompany.getCurrentTime();
+        c1.pay(10);
+        c1.pay(20);
+        insuranceCompany.getHandler().payAll(List.of(new PaymentRecord("c1", 40, time.minusDays(2)), new PaymentRecord("c1", 80, time.plusDays(1)),
+                new PaymentRecord("c1", 160, time.minusDays(2))));
+
+        PaymentLedger ledger = insuranceCompany.getHandler().getLedger();
+        assertEquals(5, ledger.countPayments(c1));
+        assertEquals(5, insuranceCompany.getHandler().getPaymentHistory().get(c1).size());
+        assertEquals(-160, c1.getContractPaymentData().getOutstandingBalance());
+
+        int[] amounts = {40, 160, 10, 20, 80};
+        Iterator<PaymentInstance> payments = insuranceCompany.getHandler().getPaymentHistory().get(c1).iterator();
+        for (int amount : amounts) {
+            assertEquals(amount, payments.next().getPaymentAmount());
+        }
+        assertFalse(payments.hasNext());
+
+        assertEquals(List.of(10, 20), ledger.paymentsBetween(c1, time, time.plusDays(1)).stream().map(PaymentInstance::getPaymentAmount).toList());
+        assertEquals(30, ledger.totalBetween(c1, time, time.plusDays(1)));
+        assertEquals(310, ledger.totalBetween(c1, time.minusYears(1), time.plusYears(1)));
+        assertEquals(200, ledger.totalBetween(c1, time.minusDays(2), time.minusDays(2).plusNanos(1)));
+        assertEquals(0, ledger.totalBetween(c1, time.plusDays(1), time));
+        assertTrue(ledger.paymentsBetween(c1, time.plusDays(2), time.plusDays(3)).isEmpty());
+        assertEquals(time.plusDays(1), ledger.getPayments(c1).getPaymentTime(4));
+        assertEquals(0, ledger.countPayments(insuranceCompany.insureVehicle("c2", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("BANAN22", 15_000))));
+        assertThrows(IllegalArgumentException.class, () -> ledger.totalBetween(c1, null, time));
+
+        // the history is read back as new instances, they compare by time and amount
+        Set<PaymentInstance> history = insuranceCompany.getHandler().getPaymentHistory().get(c1);
+        assertTrue(history.contains(new PaymentInstance(time.minusDays(2), 160)));
+        assertTrue(history.contains(new PaymentInstance(time, 20)));
+        assertFalse(history.contains(new PaymentInstance(time, 30)));
+        assertFalse(history.contains(new PaymentInstance(LocalDateTime.MAX, 20)));
+        assertEquals(new PaymentInstance(time, 10).hashCode(), new PaymentInstance(time, 10).hashCode());
+        assertEquals(history, new HashSet<>(history));
+
+        assertTrue(new PaymentInstance(time, 10).compareTo(new PaymentInstance(time, 20)) < 0);
+        assertTrue(new PaymentInstance(time.plusNanos(1), 10).compareTo(new PaymentInstance(time, 20)) > 0);
+        assertEquals(0, new PaymentInstance(time, 10).compareTo(new PaymentInstance(time, 10)));
+    }
+
+    @Test
+    public void testLedgerHoldsEveryPaymentTime() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", null, legalPerson1, 150, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("AA111AA", 15_000));
+        insuranceCompany.setCurrentTime(LocalDateTime.of(2300, 1, 1, 0, 0));
+        c1.pay(10);
+        insuranceCompany.getHandler().payAll(List.of(new PaymentRecord("c1", 20, LocalDateTime.MAX), new PaymentRecord("c1", 40, LocalDateTime.MIN),
+                new PaymentRecord("c1", 80, LocalDateTime.of(1600, 1, 1, 0, 0))));
+
+        PaymentLedger ledger = insuranceCompany.getHandler().getLedger();
+        assertEquals(0, c1.getContractPaymentData().getOutstandingBalance());
+        assertEquals(4, ledger.countPayments(c1));
+        assertEquals(LocalDateTime.MIN, ledger.getPayments(c1).getPaymentTime(0));
+        assertEquals(LocalDateTime.MAX, ledger.getPayments(c1).getPaymentTime(3));
+        assertEquals(10, ledger.totalBetween(c1, LocalDateTime.of(2300, 1, 1, 0, 0), LocalDateTime.MAX));
+        assertEquals(130, ledger.totalBetween(c1, LocalDateTime.MIN, LocalDateTime.MAX));
+        assertTrue(insuranceCompany.getHandler().getPaymentHistory().get(c1).contains(new PaymentInstance(LocalDateTime.MAX, 20)));
+    }
+}
@@ -0,0 +1,299 @@
+import company.ContractStorage;
+import company.InsuranceCompany;
+import contracts.*;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import payment.ContractPaymentData;
+import payment.PaymentDataLayout;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+import payment.PaymentRecord;
+import persistence.Journal;
+import persistence.SnapshotReader;
+import persistence.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceTests {
+
+    InsuranceCompany insuranceCompany;
+    Person naturalPerson1;
+    Person naturalPerson2;
+    Person legalPerson1;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        insuranceCompany = new InsuranceCompany(LocalDateTime.of(2025, 4, 15, 12, 0, 30, 500));
+        naturalPerson1 = new Person("8351068242");
+        naturalPerson2 = new Person("0402114911");
+        legalPerson1 = new Person("12345678");
+    }
+
+    private void buildCompany() {
+        SingleVehicleContract c1 = insuranceCompany.insureVehicle("c1", naturalPerson1, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = insuranceCompany.insureVehicle("c2", null, legalPerson1, 184, PremiumPaymentFrequency.MONTHLY, new Vehicle("BANAN22", 22_000));
+        SingleVehicleContract c3 = insuranceCompany.insureVehicle("c3", naturalPerson2, legalPerson1, 400, PremiumPaymentFrequency.SEMI_ANNUAL, new Vehicle("SOMRYBA", 8_000));
+        insuranceCompany.insureVehicle("c4", null, naturalPerson2, 1000, PremiumPaymentFrequency.QUARTERLY, new Vehicle("ICOOKED", 40_000));
+        TravelContract t1 = insuranceCompany.insurePersons("t1", naturalPerson1, 100, PremiumPaymentFrequency.MONTHLY, new LinkedHashSet<>(List.of(naturalPerson1, naturalPerson2)));
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", naturalPerson1, legalPerson1);
+        insuranceCompany.createMasterVehicleContract("m2", naturalPerson2, legalPerson1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c1);
+        insuranceCompany.moveSingleVehicleContractToMasterVehicleContract(m1, c2);
+
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(3));
+        insuranceCompany.chargePremiumsOnContracts();
+        m1.pay(2000);
+        c3.pay(100);
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusDays(1));
+        c3.pay(50);
+        insuranceCompany.processClaim(c3, 7_000);
+        insuranceCompany.processClaim(t1, Set.of(naturalPerson2));
+    }
+
+    private static void assertSameContract(AbstractContract expected, AbstractContract actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getContractNumber(), actual.getContractNumber());
+        assertEquals(expected.getPolicyHolder(), actual.getPolicyHolder());
+        assertEquals(expected.getCoverageAmount(), actual.getCoverageAmount());
+        assertEquals(expected.isActive(), actual.isActive());
+
+        ContractPaymentData expectedData = expected.getContractPaymentData();
+        ContractPaymentData actualData = actual.getContractPaymentData();
+        if (expectedData == null) {
+            assertNull(actualData);
+        } else {
+            assertEquals(expectedData.getPremium(), actualData.getPremium());
+            assertEquals(expectedData.getPremiumPaymentFrequency(), actualData.getPremiumPaymentFrequency());
+            assertEquals(expectedData.getNextPaymentTime(), actualData.getNextPaymentTime());
+            assertEquals(expectedData.getOutstandingBalance(), actualData.getOutstandingBalance());
+        }
+        if (expected instanceof AbstractVehicleContract) {
+            assertEquals(((AbstractVehicleContract) expected).getBeneficiary(), ((AbstractVehicleContract) actual).getBeneficiary());
+        }
+        if (expected instanceof SingleVehicleContract) {
+            assertEquals(((SingleVehicleContract) expected).getInsuredVehicle().getLicensePlate(), ((SingleVehicleContract) actual).getInsuredVehicle().getLicensePlate());
+            assertEquals(((SingleVehicleContract) expected).getInsuredVehicle().getOriginalValue(), ((SingleVehicleContract) actual).getInsuredVehicle().getOriginalValue());
+        }
+        if (expected instanceof TravelContract) {
+            assertEquals(((TravelContract) expected).getInsuredPersons(), ((TravelContract) actual).getInsuredPersons());
+        }
+        if (expected instanceof MasterVehicleContract) {
+            Iterator<SingleVehicleContract> expectedChildren = ((MasterVehicleContract) expected).getChildContracts().iterator();
+            Iterator<SingleVehicleContract> actualChildren = ((MasterVehicleContract) actual).getChildContracts().iterator();
+            while (expectedChildren.hasNext()) {
+                assertSameContract(expectedChildren.next(), actualChildren.next());
+            }
+            assertFalse(actualChildren.hasNext());
+        }
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        buildCompany();
+        insuranceCompany.findContract("m2").setInactive();
+        Path snapshot = directory.resolve("company.snapshot");
+        SnapshotWriter.write(insuranceCompany, snapshot);
+        InsuranceCompany restored = SnapshotReader.read(snapshot);
+
+        assertEquals(insuranceCompany.getCurrentTime(), restored.getCurrentTime());
+        assertEquals(insuranceCompany.getContracts().size(), restored.getContracts().size());
+        Iterator<AbstractContract> restoredContracts = restored.getContracts().iterator();
+        for (AbstractContract contract : insuranceCompany.getContracts()) {
+            AbstractContract restoredContract = restoredContracts.next();
+            assertSame(restored, restoredContract.getInsurer());
+            assertSameContract(contract, restoredContract);
+        }
+
+        SingleVehicleContract c3 = (SingleVehicleContract) restored.findContract("c3");
+        TravelContract t1 = (TravelContract) restored.findContract("t1");
+        MasterVehicleContract m1 = (MasterVehicleContract) restored.findContract("m1");
+        assertSame(c3.getBeneficiary(), t1.getInsuredPersons().stream().filter(p -> p.getId().equals("0402114911")).findFirst().orElseThrow());
+        assertSame(m1.getPolicyHolder(), c3.getPolicyHolder());
+        assertEquals(naturalPerson2.getPaidOutAmount(), c3.getBeneficiary().getPaidOutAmount());
+        assertEquals(naturalPerson1.getPaidOutAmount(), t1.getPolicyHolder().getPaidOutAmount());
+        assertEquals(legalPerson1.getContracts().stream().map(AbstractContract::getContractNumber).toList(),
+                m1.getPolicyHolder().getContracts().stream().map(AbstractContract::getContractNumber).toList());
+        assertFalse(restored.findContract("m2").isActive());
+
+        Map<AbstractContract, Set<PaymentInstance>> expectedHistory = insuranceCompany.getHandler().getPaymentHistory();
+        Map<AbstractContract, Set<PaymentInstance>> restoredHistory = restored.getHandler().getPaymentHistory();
+        assertEquals(expectedHistory.size(), restoredHistory.size());
+        for (Map.Entry<AbstractContract, Set<PaymentInstance>> entry : expectedHistory.entrySet()) {
+            Iterator<PaymentInstance> restoredPayments = restoredHistory.get(restored.findContract(entry.getKey().getContractNumber())).iterator();
+            for (PaymentInstance payment : entry.getValue()) {
+                PaymentInstance restoredPayment = restoredPayments.next();
+                assertEquals(payment.getPaymentTime(), restoredPayment.getPaymentTime());
+                assertEquals(payment.getPaymentAmount(), restoredPayment.getPaymentAmount());
+            }
+        }
+
+        restored.setCurrentTime(restored.getCurrentTime().plusMonths(2));
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(2));
+        restored.chargePremiumsOnContracts();
+        insuranceCompany.chargePremiumsOnContracts();
+        assertSameContract(insuranceCompany.findContract("m1"), restored.findContract("m1"));
+    }
+
+    @Test
+    public void testSnapshotKeepsLayoutStorageAndMasterCoverage() throws IOException {
+        insuranceCompany = new InsuranceCompany(insuranceCompany.getCurrentTime(), PaymentDataLayout.COMPACT, ContractStorage.OFF_HEAP);
+        buildCompany();
+        insuranceCompany.findContract("m1").setCoverageAmount(12_000);
+        Path snapshot = directory.resolve("company.snapshot");
+        SnapshotWriter.write(insuranceCompany, snapshot);
+        InsuranceCompany restored = SnapshotReader.read(snapshot);
+
+        assertEquals(PaymentDataLayout.COMPACT, restored.getPaymentDataLayout());
+        assertEquals(ContractStorage.OFF_HEAP, restored.getContractStorage());
+        assertEquals(12_000, restored.findContract("m1").getCoverageAmount());
+        Iterator<AbstractContract> restoredContracts = restored.getContracts().iterator();
+        for (AbstractContract contract : insuranceCompany.getContracts()) {
+            assertSameContract(contract, restoredContracts.next());
+        }
+
+        restored.setCurrentTime(restored.getCurrentTime().plusMonths(2));
+        insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(2));
+        restored.chargePremiumsOnContracts();
+        insuranceCompany.chargePremiumsOnContracts();
+        for (String contractNumber : List.of("m1", "c3", "c4", "t1")) {
+            assertSameContract(insuranceCompany.findContract(contractNumber), restored.findContract(contractNumber));
+        }
+    }
+
+    @Test
+    public void testReadRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> SnapshotReader.read(file));
+    }
+
+    private static void assertSameState(InsuranceCompany expected, InsuranceCompany actual) {
+        assertEquals(expected.getCurrentTime(), actual.getCurrentTime());
+        assertEquals(expected.getContracts().size(), actual.getContracts().size());
+        Iterator<AbstractContract> actualContracts = actual.getContracts().iterator();
+        for (AbstractContract contract : expected.getContracts()) {
+            assertSameContract(contract, actualContracts.next());
+        }
+        for (Map.Entry<AbstractContract, Set<PaymentInstance>> entry : expected.getHandler().getPaymentHistory().entrySet()) {
+            AbstractContract contract = entry.getKey();
+            Set<PaymentInstance> actualHistory = actual.getHandler().getPaymentHistory().entrySet().stream()
+                    .filter(e -> e.getKey().getContractNumber().equals(contract.getContractNumber())).findFirst().orElseThrow().getValue();
+            assertEquals(entry.getValue().size(), actualHistory.size(), contract.getContractNumber());
+        }
+    }
+
+    @Test
+    public void testSnapshotInternsVehicles() throws IOException {
+        buildCompany();
+        Path snapshot = directory.resolve("company.snapshot");
+        SnapshotWriter.write(insuranceCompany, snapshot);
+        InsuranceCompany restored = SnapshotReader.read(snapshot);
+
+        Vehicle vehicle = restored.getVehicleRegistry().find("SOMRYBA");
+        assertNotNull(vehicle);
+        assertSame(vehicle, ((SingleVehicleContract) restored.findContract("c3")).getInsuredVehicle());
+        assertThrows(IllegalArgumentException.class, () -> restored.insureVehicle("c9", null, legalPerson1, 400, PremiumPaymentFrequency.ANNUAL,
+                new Vehicle("SOMRYBA", 9_000)));
+    }
+
+    @Test
+    public void testJournalReplayRebuildsState() throws IOException {
+        LocalDateTime start = insuranceCompany.getCurrentTime();
+        Path file = directory.resolve("company.journal");
+        try (Journal journal = Journal.open(file, insuranceCompany)) {
+            buildCompany();
+            SingleVehicleContract c4 = (SingleVehicleContract) insuranceCompany.findContract("c4");
+            List<PaymentRecord> records = List.of(new PaymentRecord("c4", 300, start.plusDays(3)), new PaymentRecord("m1", 120, start.plusDays(4)));
+            insuranceCompany.getHandler().payAll(records);
+            SingleVehicleContract c2 = ((MasterVehicleContract) insuranceCompany.findContract("m1")).getChildContracts().stream()
+                    .filter(c -> c.getContractNumber().equals("c2")).findFirst().orElseThrow();
+            c2.pay(40);
+            insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(7));
+            insuranceCompany.chargePremiumsOnContracts(2);
+            insuranceCompany.processClaim(c4, 100);
+            journal.sync();
+        }
+
+        InsuranceCompany replayed = new InsuranceCompany(start);
+        try (Journal journal = Journal.open(file, replayed)) {
+            assertSameState(insuranceCompany, replayed);
+            assertEquals(naturalPerson2.getPaidOutAmount(), replayed.findContract("c4").getPolicyHolder().getPaidOutAmount());
+            for (Person person : ((TravelContract) replayed.findContract("t1")).getInsuredPersons()) {
+                Person original = person.getId().equals(naturalPerson1.getId()) ? naturalPerson1 : naturalPerson2;
+                assertEquals(original.getPaidOutAmount(), person.getPaidOutAmount());
+            }
+
+            replayed.setCurrentTime(replayed.getCurrentTime().plusDays(1));
+            replayed.findContract("c4").pay(10);
+            journal.sync();
+        }
+
+        InsuranceCompany again = new InsuranceCompany(start);
+        Journal.open(file, again).close();
+        assertSameState(replayed, again);
+    }
+
+    @Test
+    public void testJournalDropsTornLastRecord() throws IOException {
+        Path file = directory.resolve("company.journal");
+        LocalDateTime start = insuranceCompany.getCurrentTime();
+        try (Journal journal = Journal.open(file, insuranceCompany)) {
+            insuranceCompany.insureVehicle("c1", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("AA111AA", 15_000));
+            insuranceCompany.insureVehicle("c2", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("BANAN22", 15_000));
+            journal.sync();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        InsuranceCompany replayed = new InsuranceCompany(start);
+        try (Journal journal = Journal.open(file, replayed)) {
+            assertNotNull(replayed.findContract("c1"));
+            assertNull(replayed.findContract("c2"));
+            replayed.insureVehicle("c3", null, legalPerson1, 1500, PremiumPaymentFrequency.ANNUAL, new Vehicle("SOMRYBA", 15_000));
+            journal.sync();
+        }
+
+        InsuranceCompany again = new InsuranceCompany(start);
+        Journal.open(file, again).close();
+        assertEquals(2, again.getContracts().size());
+        assertNotNull(again.findContract("c3"));
+
+        Path other = directory.resolve("other.journal");
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThrows(IOException.class, () -> Journal.open(other, new InsuranceCompany(start)));
+    }
+
+    @Test
+    public void testJournalReplaysChargesOnSingleContracts() throws IOException {
+        LocalDateTime start = insuranceCompany.getCurrentTime();
+        Path file = directory.resolve("company.journal");
+        try (Journal journal = Journal.open(file, insuranceCompany)) {
+            buildCompany();
+            insuranceCompany.setCurrentTime(insuranceCompany.getCurrentTime().plusMonths(4));
+            // charged outside of a billing run, which would otherwise charge them on replay only
+            insuranceCompany.chargePremiumOnContract(insuranceCompany.findContract("c4"));
+            insuranceCompany.findContract("m1").updateBalance();
+            insuranceCompany.findContract("c4").pay(500);
+            journal.sync();
+        }
+
+        InsuranceCompany replayed = new InsuranceCompany(start);
+        Journal.open(file, replayed).close();
+        assertSameState(insuranceCompany, replayed);
+    }
+}
@@ -0,0 +1,244 @@
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.*;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonTests {
+
+    // the Long.parseLong and LocalDate based validation Person used before the single pass validator
+    private static boolean canParseToInteger(String string) {
+        try {
+            Long.parseLong(string);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean legacyIsICO(String id) {
+        if (id.length() != 6 && id.length() != 8) return false;
+        return canParseToInteger(id);
+    }
+
+    private static boolean legacyIsRC(String id) {
+        if (id.length() != 9 && id.length() != 10) return false;
+        if (!canParseToInteger(id)) return false;
+
+        int year = 1900 + Integer.parseInt(id.substring(0, 2));
+        int month = Integer.parseInt(id.substring(2, 4));
+        if ((month < 1 || month > 12) && (month < 51 || month > 62)) return false;
+
+        if (id.length() == 9 && year > 1953) return false;
+        else if (id.length() == 9) return legacyIsValidBirthNumber(id.substring(0, 6));
+
+        char[] array = id.toCharArray();
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            int digit = array[i] - '0';
+            sum += (i % 2 == 0 ? digit : -digit);
+        }
+        if (sum % 11 == 0) return legacyIsValidBirthNumber(id.substring(0, 6));
+        return true;
+    }
+
+    private static boolean legacyIsValidBirthNumber(String birthNumber) {
+        int year = 1900 + Integer.parseInt(birthNumber.substring(0, 2));
+        int month = Integer.parseInt(birthNumber.substring(2, 4));
+        if (month >= 51) month -= 50;
+        int day = Integer.parseInt(birthNumber.substring(4, 6));
+        try {
+            LocalDate.of(year, month, day);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    private static void assertSameValidation(String id) {
+        boolean ico = legacyIsICO(id);
+        boolean rc = legacyIsRC(id);
+        assertEquals(ico || rc, Person.isValidRegistrationNumber(id), id);
+        if (ico || rc) {
+            assertEquals(ico ? LegalForm.LEGAL : LegalForm.NATURAL, new Person(id).getLegalForm(), id);
+        } else {
+            assertThrows(IllegalArgumentException.class, () -> new Person(id), id);
+        }
+    }
+
+    // suffix digits that make the alternating sum of a ten digit number divisible by eleven, or not
+    private static String suffix(String prefix, boolean divisible) {
+        int sum = 0;
+        for (int i = 0; i < 6; i++) {
+            sum += (i % 2 == 0 ? 1 : -1) * (prefix.charAt(i) - '0');
+        }
+        for (int d8 = 0; d8 < 10; d8++) {
+            for (int d9 = 0; d9 < 10; d9++) {
+                if (((sum + d8 - d9) % 11 == 0) == divisible) return "00" + d8 + d9;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Test
+    public void testBirthNumberValidationMatchesLegacyOverDateSpace() {
+        for (int date = 0; date < 1_000_000; date++) {
+            String prefix = String.format("%06d", date);
+            assertEquals(legacyIsValidBirthNumber(prefix), Person.isValidBirthNumber(prefix), prefix);
+            assertEquals(legacyIsRC(prefix + "123"), Person.isValidRegistrationNumber(prefix + "123"), prefix);
+            String divisible = prefix + suffix(prefix, true);
+            assertEquals(legacyIsRC(divisible), Person.isValidRegistrationNumber(divisible), divisible);
+            String notDivisible = prefix + suffix(prefix, false);
+            assertEquals(legacyIsRC(notDivisible), Person.isValidRegistrationNumber(notDivisible), notDivisible);
+        }
+    }
+
+    @Test
+    public void testRegistrationNumberValidationMatchesLegacyOnEdgeCases() {
+        String[] ids = {"123456", "12345678", "1234567", "12345", "12345678901", "+12345", "-1234567", "+", "-",
+                "12a456", "1234 678", "+51101123", "-5101011", "-510101234", "+9605051234", "5a02101234",
+                "2902290000", "0002290000", "0102290000", "4802290000", "5302310000", "5362310000", "5313010000",
+                "530101123", "540101123", "000000000", "0051011234", "7103192745", "8351068242", "0402114911",
+                "١٢٣٤٥٦", "٨٣٥١٠٦٨٢٤٢", "83٥1068242", "+٨٣٥١٠٦٨٢٤", "８３５１０６８２４２", "835106824２"};
+        for (String id : ids) {
+            assertSameValidation(id);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Person(""));
+        assertThrows(IllegalArgumentException.class, () -> new Person(null));
+    }
+
+    @Test
+    public void testPublicBirthNumberCheckKeepsLegacyFailures() {
+        for (String birthNumber : new String[]{"+10101", "-50101", "1+0101", "01-105", "010132", "01013", "0x0101", "0101"}) {
+            Class<? extends Throwable> expected = null;
+            boolean valid = false;
+            try {
+                valid = legacyIsValidBirthNumber(birthNumber);
+            } catch (RuntimeException e) {
+                expected = e.getClass();
+            }
+            if (expected == null) assertEquals(valid, Person.isValidBirthNumber(birthNumber), birthNumber);
+            else assertThrows(expected, () -> Person.isValidBirthNumber(birthNumber), birthNumber);
+        }
+    }
+
+    @Test
+    public void testPersonRegistryCanonicalizesIds() {
+        PersonRegistry registry = new PersonRegistry();
+        Person first = registry.intern("12345678");
+        assertSame(first, registry.intern("12345678"));
+        assertSame(first, registry.intern(new Person("12345678")));
+        assertSame(first, registry.find("12345678"));
+        assertNull(registry.find("87654321"));
+        assertNull(registry.find("12x45678"));
+
+        // the same digits with a sign, leading zeros or other digit characters are different ids
+        String[] similar = {"012345", "+12345", "-12345", "١٢٣٤٥٦", "12٣٤٥٦", "123456"};
+        for (String id : similar) {
+            assertEquals(id, registry.intern(id).getId());
+        }
+        assertEquals(PersonRegistry.encodeId("١٢٣٤٥٦"), PersonRegistry.encodeId("12٣٤٥٦"));
+        assertNotEquals(PersonRegistry.encodeId("012345"), PersonRegistry.encodeId("+12345"));
+        assertEquals(1 + similar.length, registry.size());
+
+        assertTrue(registry.evict("12345678"));
+        assertFalse(registry.evict("12345678"));
+        assertNotSame(first, registry.intern("12345678"));
+        assertThrows(IllegalArgumentException.class, () -> registry.intern("1234567"));
+        assertThrows(IllegalArgumentException.class, () -> registry.intern((Person) null));
+    }
+
+    @Test
+    public void testPersonRegistryUnderConcurrentInterning() throws Exception {
+        PersonRegistry registry = new PersonRegistry();
+        int ids = 20_000;
+        int evicted = ids - 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Person[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                results.add(executor.submit(() -> {
+                    Person[] persons = new Person[ids];
+                    for (int i = 0; i < ids; i++) {
+                        persons[i] = registry.intern(String.format("%08d", i));
+                        if (i >= 1000 && i % 7 == 0) registry.evict(String.format("%08d", i - 1000));
+                    }
+                    return persons;
+                }));
+            }
+            Person[] expected = results.get(0).get();
+            for (Future<Person[]> result : results) {
+                Person[] persons = result.get();
+                for (int i = evicted; i < ids; i++) {
+                    assertSame(expected[i], persons[i], persons[i].getId());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = evicted; i < ids; i++) {
+            assertNotNull(registry.find(String.format("%08d", i)));
+        }
+    }
+
+    @Test
+    public void testWeakRegistryDropsUnreferencedPersons() throws InterruptedException {
+        PersonRegistry registry = new PersonRegistry(PoolRetention.WEAK);
+        Person kept = registry.intern("12345678");
+        for (int i = 0; i < 1000; i++) {
+            registry.intern(String.format("%06d", i));
+        }
+        for (int attempt = 0; attempt < 50 && registry.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, registry.size());
+        assertSame(kept, registry.intern("12345678"));
+    }
+
+    @Test
+    public void testVehicleRegistryCanonicalizesPlates() {
+        VehicleRegistry registry = new VehicleRegistry();
+        Vehicle vehicle = registry.intern("AB12345", 10_000);
+        assertSame(vehicle, registry.intern(new Vehicle("AB12345", 10_000)));
+        assertEquals(vehicle, new Vehicle("AB12345", 10_000));
+        assertNotEquals(vehicle, new Vehicle("AB12345", 12_000));
+        assertThrows(IllegalArgumentException.class, () -> registry.intern("AB12345", 12_000));
+
+        // plates with other than ascii capitals and digits are told apart by the plate
+        Vehicle accented = registry.intern("ŽB12345", 10_000);
+        assertNotSame(vehicle, accented);
+        assertSame(accented, registry.find("ŽB12345"));
+        assertNotEquals(VehicleRegistry.encodeLicensePlate("0000001"), VehicleRegistry.encodeLicensePlate("0000010"));
+        assertTrue(registry.evict("AB12345"));
+        assertNull(registry.find("AB12345"));
+    }
+
+    @Test
+    public void testCompanyCanonicalizesInsuredPersonsAndVehicles() {
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.now());
+        Person holder = new Person("12345678");
+        SingleVehicleContract c1 = company.insureVehicle("c1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        SingleVehicleContract c2 = company.insureVehicle("c2", null, new Person("12345678"), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA111AA", 15_000));
+        TravelContract t1 = company.insurePersons("t1", new Person("12345678"), 100, PremiumPaymentFrequency.MONTHLY, Set.of(new Person("7103192745")));
+
+        assertSame(holder, c2.getPolicyHolder());
+        assertSame(holder, t1.getPolicyHolder());
+        assertSame(c1.getInsuredVehicle(), c2.getInsuredVehicle());
+        assertSame(company.getPersonRegistry().find("7103192745"), t1.getInsuredPersons().iterator().next());
+        assertEquals(3, holder.getContracts().size());
+    }
+}
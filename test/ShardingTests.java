@@ -0,0 +1,151 @@
+import company.InsuranceCompany;
+import company.ShardedInsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardingTests {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 4, 15, 12, 0);
+
+    @Test
+    public void testContractsAreRoutedByNumberAndListingsMerged() {
+        ShardedInsuranceCompany company = new ShardedInsuranceCompany(START, 4);
+        Person holder = new Person("12345678");
+        Set<Integer> shardsUsed = new LinkedHashSet<>();
+        for (int i = 0; i < 40; i++) {
+            SingleVehicleContract contract = company.insureVehicle("v" + i, null, new Person("12345678"), 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(String.format("SH%05d", i), 20_000));
+            assertSame(company.getShard(company.shardOf("v" + i)), contract.getInsurer());
+            assertSame(contract, company.findContract("v" + i));
+            shardsUsed.add(company.shardOf(contract));
+        }
+        assertEquals(4, shardsUsed.size());
+        assertEquals(40, company.countContracts());
+        assertEquals(40, company.findContractsByPolicyHolder("12345678").size());
+        assertEquals(1, company.findContractsByLicensePlate("SH00007").size());
+
+        // every shard interned the same person
+        Person interned = company.findContract("v0").getPolicyHolder();
+        for (int i = 1; i < 40; i++) {
+            assertSame(interned, company.findContract("v" + i).getPolicyHolder());
+        }
+        assertEquals(40, interned.getContracts().size());
+        assertNotSame(holder, interned);
+
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle("v3", null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("SH99999", 20_000)));
+        assertNull(company.findContract("missing"));
+        assertThrows(IllegalArgumentException.class, () -> company.pay(new InsuranceCompany(START).insureVehicle("x", null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("SH88888", 20_000)), 10));
+    }
+
+    @Test
+    public void testFleetStaysInTheShardOfItsMaster() {
+        ShardedInsuranceCompany company = new ShardedInsuranceCompany(START, 8);
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = company.createMasterVehicleContract("m", new Person("87654321"), holder);
+        for (int i = 0; i < 16; i++) {
+            SingleVehicleContract child = company.insureVehicle(master, "child" + i, null, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(String.format("FL%05d", i), 20_000));
+            assertSame(master.getInsurer(), child.getInsurer());
+            assertSame(master, child.getMasterVehicleContract());
+        }
+        assertEquals(16, master.getChildContracts().size());
+
+        // a contract insured in another shard cannot join the fleet
+        String elsewhere = null;
+        for (int i = 0; elsewhere == null; i++) {
+            if (company.shardOf("other" + i) != company.shardOf(master)) elsewhere = "other" + i;
+        }
+        SingleVehicleContract other = company.insureVehicle(elsewhere, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("FL99999", 20_000));
+        assertThrows(IllegalArgumentException.class, () -> company.moveSingleVehicleContractToMasterVehicleContract(master, other));
+
+        company.pay(master, 16 * 1000);
+        for (SingleVehicleContract child : master.getChildContracts()) {
+            assertEquals(0, child.getContractPaymentData().getOutstandingBalance());
+        }
+    }
+
+    @Test
+    public void testBillingAndClaimsRunOnEveryShard() throws Exception {
+        ShardedInsuranceCompany company = new ShardedInsuranceCompany(START, 4);
+        int threads = 8;
+        int perThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> insured = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                insured.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        int n = thread * perThread + i;
+                        AbstractContract contract = company.insureVehicle("c" + n, null, new Person("12345678"), 1000, PremiumPaymentFrequency.MONTHLY, new Vehicle(String.format("BC%05d", n), 20_000));
+                        company.pay(contract, 1000);
+                    }
+                }));
+            }
+            for (Future<?> future : insured) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * perThread, company.countContracts());
+
+        company.setCurrentTime(START.plusMonths(2));
+        company.chargePremiumsOnContracts();
+        for (int n = 0; n < threads * perThread; n++) {
+            assertEquals(2000, company.findContract("c" + n).getContractPaymentData().getOutstandingBalance());
+        }
+
+        Person traveller = new Person("8001011234");
+        TravelContract travel = company.insurePersons("t", new Person("12345678"), 100, PremiumPaymentFrequency.ANNUAL, Set.of(traveller));
+        company.processClaim(travel, Set.of(new Person("8001011234")));
+        assertFalse(travel.isActive());
+        company.processClaim((SingleVehicleContract) company.findContract("c0"), 15_000);
+        assertEquals(10_000, company.findContract("t").getPolicyHolder().getPaidOutAmount());
+        assertEquals(10, travel.getInsuredPerson(traveller).getPaidOutAmount());
+    }
+
+    @Test
+    public void testChildNumbersAreFoundAndStayUnique() {
+        ShardedInsuranceCompany company = new ShardedInsuranceCompany(START, 4);
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = company.createMasterVehicleContract("m", new Person("87654321"), holder);
+        int masterShard = company.shardOf(master);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; numbers.size() < 3; i++) {
+            if (company.shardOf("f" + i) != masterShard) numbers.add("f" + i);
+        }
+
+        // a child whose number hashes to another shard is found in the shard of its master
+        SingleVehicleContract child = company.insureVehicle(master, numbers.get(0), null, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00001", 20_000));
+        assertSame(child, company.findContract(numbers.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle(numbers.get(0), null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00002", 20_000)));
+        assertThrows(IllegalArgumentException.class, () -> company.insurePersons(numbers.get(0), holder, 100, PremiumPaymentFrequency.ANNUAL, Set.of(new Person("8351068242"))));
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle(master, numbers.get(0), null, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00003", 20_000)));
+
+        // a number already taken in the shard it hashes to cannot be reused by a child
+        SingleVehicleContract existing = company.insureVehicle(numbers.get(1), null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00004", 20_000));
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle(master, numbers.get(1), null, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00005", 20_000)));
+        assertSame(existing, company.findContract(numbers.get(1)));
+        assertEquals(1, master.getChildContracts().size());
+
+        // a rejected vehicle gives the number back
+        assertThrows(IllegalArgumentException.class, () -> company.insureVehicle(master, numbers.get(2), null, 1, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00006", 20_000)));
+        assertNull(company.findContract(numbers.get(2)));
+        company.insureVehicle(numbers.get(2), null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("CH00006", 20_000));
+    }
+}
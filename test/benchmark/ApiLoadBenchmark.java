@@ -0,0 +1,203 @@
+package benchmark;
+
+import api.CompanyServer;
+import company.InsuranceCompany;
+import metrics.HistogramSnapshot;
+import metrics.LatencyHistogram;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// every client is a virtual thread holding one keep-alive connection and sending its requests one after another:
+// 70% contract lookups, 25% payments, 4% vehicle insurances and 1% vehicle claims,
+// the server runs in a child JVM, so neither process needs a file descriptor for both ends of every connection
+public class ApiLoadBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(Integer.parseInt(args[1]));
+            return;
+        }
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int contracts = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Process server = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-cp", System.getProperty("java.class.path"),
+                ApiLoadBenchmark.class.getName(), "serve", Integer.toString(contracts)).redirectErrorStream(true).start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+            // the JVM may print notices before the port
+            String line = output.readLine();
+            while (line != null && !line.startsWith("port ")) {
+                line = output.readLine();
+            }
+            if (line == null) throw new IllegalStateException("Server did not start!");
+            run(Integer.parseInt(line.substring(5)), clients, requestsPerClient, contracts);
+        } finally {
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    private static void serve(int contracts) throws IOException {
+        // the default keeps at most 200 idle connections open
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "100000");
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person holder = new Person("99999999");
+        for (int i = 0; i < contracts; i++) {
+            company.insureVehicle("c" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        CompanyServer server = new CompanyServer(company, new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.start();
+        System.out.println("port " + server.getPort());
+        System.out.flush();
+        // runs until the load generator ends the process
+        System.in.read();
+        server.close();
+    }
+
+    private static void run(int port, int clients, int requestsPerClient, int contracts) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+
+        long connectStart = System.nanoTime();
+        long[] sendStart = new long[1];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    Connection connection = null;
+                    try {
+                        connection = new Connection(port);
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    }
+                    connected.countDown();
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    Random random = new Random(client);
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        String contract = "c" + random.nextInt(contracts);
+                        int operation = random.nextInt(100);
+                        long start = System.nanoTime();
+                        try {
+                            if (connection == null) connection = new Connection(port);
+                            int status;
+                            if (operation < 70) {
+                                status = connection.send("GET", "/contracts/" + contract, null);
+                            } else if (operation < 95) {
+                                status = connection.send("POST", "/contracts/" + contract + "/payments", "{\"amount\":" + (1 + random.nextInt(100)) + "}");
+                            } else if (operation < 99) {
+                                status = connection.send("POST", "/contracts/vehicle", "{\"contractNumber\":\"n" + client + "-" + r + "\",\"policyHolder\":\"99999999\","
+                                        + "\"premium\":1000,\"frequency\":\"ANNUAL\",\"licensePlate\":\"" + plate(client * requestsPerClient + r) + "\",\"vehicleValue\":20000}");
+                            } else {
+                                status = connection.send("POST", "/contracts/" + contract + "/claims", "{\"expectedDamage\":" + (1 + random.nextInt(20_000)) + "}");
+                            }
+                            latencies.recordSince(start);
+                            // payments and claims on contracts a claim has deactivated
+                            if (status >= 400) rejected.incrementAndGet();
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                            if (connection != null) connection.close();
+                            connection = null;
+                        }
+                    }
+                    if (connection != null) connection.close();
+                });
+            }
+            connected.await();
+            sendStart[0] = System.nanoTime();
+            go.countDown();
+        }
+        long end = System.nanoTime();
+
+        HistogramSnapshot snapshot = latencies.snapshot();
+        System.out.printf("%,d clients connected in %,.0f ms%n", clients, (sendStart[0] - connectStart) / 1e6);
+        System.out.printf("%,d requests in %,.0f ms, %,.0f requests/s, %,d rejected with 4xx, %,d I/O failures%n", snapshot.getCount(), (end - sendStart[0]) / 1e6,
+                snapshot.getCount() / ((end - sendStart[0]) / 1e9), rejected.get(), failures.get());
+        System.out.printf("latency p50 %,.2f ms, p90 %,.2f ms, p99 %,.2f ms, max %,.2f ms%n", snapshot.getPercentileNanos(50) / 1e6,
+                snapshot.getPercentileNanos(90) / 1e6, snapshot.getPercentileNanos(99) / 1e6, snapshot.getMaxNanos() / 1e6);
+    }
+
+    // plates for newly insured vehicles, distinct from those of the preloaded contracts
+    private static String plate(int i) {
+        return "N" + ContractRegistryBenchmark.plate(i).substring(1);
+    }
+
+    // a minimal HTTP/1.1 client, responses always carry a Content-Length
+    private static final class Connection {
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+
+        Connection(int port) throws IOException {
+            this.socket = new Socket("127.0.0.1", port);
+            socket.setTcpNoDelay(true);
+            this.out = socket.getOutputStream();
+            this.in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        int send(String method, String path, String body) throws IOException {
+            byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            String head = method + " " + path + " HTTP/1.1\r\nHost: 127.0.0.1\r\nContent-Length: " + content.length + "\r\n\r\n";
+            byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+            byte[] request = Arrays.copyOf(headBytes, headBytes.length + content.length);
+            System.arraycopy(content, 0, request, headBytes.length, content.length);
+            out.write(request);
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            int length = 0;
+            for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) length = Integer.parseInt(header.substring(15).trim());
+            }
+            in.skipNBytes(length);
+            return status;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            for (int c = in.read(); c != '\n'; c = in.read()) {
+                if (c < 0) throw new EOFException("Connection closed!");
+                if (c != '\r') line.append((char) c);
+            }
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+}
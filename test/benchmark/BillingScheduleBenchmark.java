@@ -0,0 +1,62 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+
+public class BillingScheduleBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int DAYS = 30;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        InsuranceCompany scheduled = build(size);
+        InsuranceCompany scanned = build(size);
+
+        long scheduledNanos = 0;
+        long scannedNanos = 0;
+        for (int day = 1; day <= DAYS; day++) {
+            LocalDateTime time = START.plusDays(365 + day);
+            scheduled.setCurrentTime(time);
+            scanned.setCurrentTime(time);
+
+            long start = System.nanoTime();
+            scheduled.chargePremiumsOnContracts();
+            scheduledNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (AbstractContract contract : scanned.getContracts()) {
+                if (contract.isActive()) contract.updateBalance();
+            }
+            scannedNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("contracts=%d days=%d%n", size, DAYS);
+        System.out.printf("due index : %10.2f ms/day%n", scheduledNanos / 1e6 / DAYS);
+        System.out.printf("full scan : %10.2f ms/day%n", scannedNanos / 1e6 / DAYS);
+    }
+
+    // start dates spread over a year with mostly monthly payers, so about 3% of the book is due on a given day
+    private static InsuranceCompany build(int size) {
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person[] holders = new Person[Math.min(size, 100_000)];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new Person(String.format("%08d", i));
+        }
+
+        PremiumPaymentFrequency[] frequencies = {PremiumPaymentFrequency.MONTHLY, PremiumPaymentFrequency.MONTHLY,
+                PremiumPaymentFrequency.MONTHLY, PremiumPaymentFrequency.QUARTERLY, PremiumPaymentFrequency.ANNUAL};
+        for (int i = 0; i < size; i++) {
+            company.setCurrentTime(START.plusDays(i % 365));
+            company.insureVehicle("c" + i, null, holders[i % holders.length], 1000, frequencies[i % frequencies.length],
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        company.setCurrentTime(START.plusDays(365));
+        company.chargePremiumsOnContracts();
+        return company;
+    }
+}
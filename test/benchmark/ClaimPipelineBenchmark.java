@@ -0,0 +1,82 @@
+package benchmark;
+
+import company.Claim;
+import company.ClaimRunSummary;
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// a hailstorm: a vehicle claim for every insured vehicle, some vehicles claimed twice, few beneficiaries paid for many vehicles
+public class ClaimPipelineBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int BENEFICIARIES = 1_000;
+
+    public static void main(String[] args) {
+        int contracts = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        for (int round = 0; round < 8; round++) {
+            Person[] sequentialBeneficiaries = new Person[BENEFICIARIES];
+            List<SingleVehicleContract> sequentialContracts = build(contracts, sequentialBeneficiaries);
+            List<Integer> damages = new ArrayList<>();
+            List<Integer> claimed = new ArrayList<>();
+            Random random = new Random(round);
+            for (int i = 0; i < contracts; i++) {
+                int claims = random.nextInt(10) == 0 ? 2 : 1;
+                for (int c = 0; c < claims; c++) {
+                    claimed.add(i);
+                    damages.add(1 + random.nextInt(20_000));
+                }
+            }
+
+            InsuranceCompany sequential = sequentialContracts.get(0).getInsurer();
+            System.gc();
+            long start = System.nanoTime();
+            for (int i = 0; i < claimed.size(); i++) {
+                try {
+                    sequential.processClaim(sequentialContracts.get(claimed.get(i)), damages.get(i));
+                } catch (IllegalArgumentException | InvalidContractException e) {
+                    // a second claim after a total loss
+                }
+            }
+            long sequentialNanos = System.nanoTime() - start;
+
+            Person[] batchedBeneficiaries = new Person[BENEFICIARIES];
+            List<SingleVehicleContract> batchedContracts = build(contracts, batchedBeneficiaries);
+            List<Claim> batch = new ArrayList<>(claimed.size());
+            for (int i = 0; i < claimed.size(); i++) {
+                batch.add(new Claim(batchedContracts.get(claimed.get(i)), damages.get(i)));
+            }
+            System.gc();
+            ClaimRunSummary summary = batchedContracts.get(0).getInsurer().processClaims(batch, parallelism);
+
+            for (int i = 0; i < BENEFICIARIES; i++) {
+                if (sequentialBeneficiaries[i].getPaidOutAmount() != batchedBeneficiaries[i].getPaidOutAmount()) throw new IllegalStateException("Payouts differ!");
+            }
+            System.out.printf("round %d: %,d claims, processClaim %,10.0f claims/s   processClaims(%d) %,10.0f claims/s, %,d rejected%n",
+                    round, claimed.size(), claimed.size() / (sequentialNanos / 1e9), parallelism, summary.getClaimsPerSecond(), summary.getClaimsRejected());
+        }
+    }
+
+    private static List<SingleVehicleContract> build(int size, Person[] beneficiaries) {
+        InsuranceCompany company = new InsuranceCompany(START);
+        for (int i = 0; i < beneficiaries.length; i++) {
+            beneficiaries[i] = new Person(String.format("%08d", i + 1));
+        }
+        Person holder = new Person("99999999");
+        List<SingleVehicleContract> contracts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contracts.add(company.insureVehicle("c" + i, beneficiaries[i % beneficiaries.length], holder, 1000, PremiumPaymentFrequency.ANNUAL,
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000)));
+        }
+        return contracts;
+    }
+}
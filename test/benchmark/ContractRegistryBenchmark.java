@@ -0,0 +1,56 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+
+public class ContractRegistryBenchmark {
+    private static final int[] CHECKPOINTS = {10_000, 100_000, 1_000_000, 5_000_000};
+    private static final int WINDOW = 10_000;
+    private static final int HOLDERS = 100_000;
+
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : CHECKPOINTS[CHECKPOINTS.length - 1];
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person[] holders = new Person[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = new Person(String.format("%08d", i));
+        }
+
+        System.out.printf("%12s %16s %16s%n", "contracts", "ns/insert", "ns/lookup");
+        int checkpoint = 0;
+        long windowStart = System.nanoTime();
+        for (int i = 0; i < maxSize && checkpoint < CHECKPOINTS.length; i++) {
+            if ((i + 1) % WINDOW == 1) windowStart = System.nanoTime();
+            company.insureVehicle("c" + i, null, holders[i % HOLDERS], 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(plate(i), 20_000));
+
+            if (i + 1 == CHECKPOINTS[checkpoint]) {
+                long insertNanos = (System.nanoTime() - windowStart) / WINDOW;
+                System.out.printf("%12d %16d %16d%n", i + 1, insertNanos, lookupNanos(company, i + 1));
+                checkpoint++;
+            }
+        }
+    }
+
+    private static long lookupNanos(InsuranceCompany company, int size) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < WINDOW; i++) {
+            if (company.findContract("c" + (i * 7919L % size)) != null) found++;
+        }
+        if (found != WINDOW) throw new IllegalStateException("Lookup missed contracts!");
+        return (System.nanoTime() - start) / WINDOW;
+    }
+
+    static String plate(int index) {
+        char[] plate = new char[7];
+        for (int i = 6; i >= 0; i--) {
+            plate[i] = Character.toUpperCase(Character.forDigit(index % 36, 36));
+            index /= 36;
+        }
+        return new String(plate);
+    }
+}
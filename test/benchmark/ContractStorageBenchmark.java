@@ -0,0 +1,72 @@
+package benchmark;
+
+import company.ContractStorage;
+import company.InsuranceCompany;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+
+// run once per storage in a fresh JVM, e.g. "2000000 HEAP" and "2000000 OFF_HEAP"
+public class ContractStorageBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int HOLDERS = 10_000;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        ContractStorage storage = args.length > 1 ? ContractStorage.valueOf(args[1]) : ContractStorage.OFF_HEAP;
+
+        long baseline = usedHeap();
+        InsuranceCompany company = new InsuranceCompany(START, storage);
+        Person[] holders = new Person[HOLDERS];
+        for (int i = 0; i < HOLDERS; i++) {
+            holders[i] = new Person(String.format("%08d", i));
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            company.insureVehicle("c" + i, null, holders[i % HOLDERS], 100, PremiumPaymentFrequency.MONTHLY, new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        long insureNanos = System.nanoTime() - begin;
+        long used = usedHeap() - baseline;
+
+        // a full collection has to trace everything that is still on the heap
+        begin = System.nanoTime();
+        System.gc();
+        long gcNanos = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            company.findContract("c" + (i * 7919L % size));
+        }
+        long findNanos = System.nanoTime() - begin;
+
+        company.setCurrentTime(START.plusMonths(1));
+        begin = System.nanoTime();
+        company.chargePremiumsOnContracts();
+        long billingNanos = System.nanoTime() - begin;
+
+        System.out.printf("%s: %,d contracts, heap %.1f B/contract, direct %,d MB, full gc %d ms, insure %.0f ns, find %.0f ns, billing %.0f ns/contract%n",
+                storage, size, (double) used / size, directMemory() >> 20, gcNanos / 1_000_000, (double) insureNanos / size,
+                findNanos / 1e6, (double) billingNanos / size);
+        Reference.reachabilityFence(company);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    private static long directMemory() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+}
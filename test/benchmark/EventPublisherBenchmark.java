@@ -0,0 +1,85 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import events.ContractEvent;
+import events.ContractEventPublisher;
+import events.OverflowPolicy;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+// what publishing costs a payment: without subscribers, with one that requested everything and with one that never requests,
+// whose buffer stays full and drops the oldest event on every payment
+public class EventPublisherBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person holder = new Person("99999999");
+        for (int i = 0; i < size; i++) {
+            company.insureVehicle("c" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        List<AbstractContract> contracts = new ArrayList<>(company.getContracts());
+        ContractEventPublisher publisher = ContractEventPublisher.attach(company, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), OverflowPolicy.DROP_OLDEST);
+
+        for (int round = 0; round < rounds; round++) {
+            double none = pay(contracts);
+
+            LongAdder received = new LongAdder();
+            Flow.Subscription[] fast = new Flow.Subscription[1];
+            publisher.subscribe(subscriber(received, fast, Long.MAX_VALUE));
+            double subscribed = pay(contracts);
+            fast[0].cancel();
+
+            Flow.Subscription[] stalled = new Flow.Subscription[1];
+            publisher.subscribe(subscriber(received, stalled, 0));
+            double full = pay(contracts);
+            stalled[0].cancel();
+
+            System.out.printf("round %d: pay %,6.0f ns without subscribers, %,6.0f ns with a subscriber, %,6.0f ns with a full buffer, %,d received, %,d dropped%n",
+                    round, none, subscribed, full, received.sum(), publisher.getDroppedEvents());
+        }
+    }
+
+    private static double pay(List<AbstractContract> contracts) {
+        long start = System.nanoTime();
+        for (AbstractContract contract : contracts) {
+            contract.pay(1);
+        }
+        return (double) (System.nanoTime() - start) / contracts.size();
+    }
+
+    private static Flow.Subscriber<ContractEvent> subscriber(LongAdder received, Flow.Subscription[] subscription, long demand) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                if (demand > 0) s.request(demand);
+            }
+
+            @Override
+            public void onNext(ContractEvent item) {
+                received.increment();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+    }
+}
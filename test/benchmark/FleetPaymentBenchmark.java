@@ -0,0 +1,41 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+
+public class FleetPaymentBenchmark {
+
+    public static void main(String[] args) {
+        int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int payments = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person holder = new Person("12345678");
+        MasterVehicleContract master = company.createMasterVehicleContract("m", new Person("8351068242"), holder);
+        long premiums = 0;
+        for (int i = 0; i < vehicles; i++) {
+            SingleVehicleContract contract = company.insureVehicle("c" + i, null, holder, 100 + i % 50, PremiumPaymentFrequency.MONTHLY,
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+            company.moveSingleVehicleContractToMasterVehicleContract(master, contract);
+            premiums += contract.getContractPaymentData().getPremium();
+        }
+
+        // each payment clears the fleet's debt and prepays the given number of premium rounds on every vehicle
+        int amount = Math.toIntExact(premiums * rounds + premiums / 3);
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < payments; i++) {
+                company.getHandler().pay(master, amount);
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%d vehicles, %d premium rounds per payment: %.2f ms/payment%n", vehicles, rounds, nanos / 1e6 / payments);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+import persistence.Journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class JournalBenchmark {
+    private static final int CONTRACTS = 100_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%10s %16s %16s %8s%n", "threads", "in-memory/s", "journaled/s", "ratio");
+        for (int round = 0; round < ROUNDS; round++) {
+            double inMemory = run(payments, threads, false);
+            double journaled = run(payments, threads, true);
+            System.out.printf("%10d %16.0f %16.0f %8.2f%n", threads, inMemory, journaled, journaled / inMemory);
+        }
+    }
+
+    private static double run(int payments, int threads, boolean journaled) throws Exception {
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person holder = new Person("12345678");
+        List<SingleVehicleContract> contracts = new ArrayList<>(CONTRACTS);
+        for (int i = 0; i < CONTRACTS; i++) {
+            contracts.add(company.insureVehicle("c" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL,
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000)));
+        }
+
+        Path file = Files.createTempFile("company", ".journal");
+        Journal journal = journaled ? Journal.open(file, company) : null;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < payments; i += threads) {
+                        company.getHandler().pay(contracts.get(i % CONTRACTS), 1 + i % 100);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            if (journal != null) journal.sync();
+            return payments / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdown();
+            closeQuietly(journal);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void closeQuietly(Journal journal) throws IOException {
+        if (journal != null) journal.close();
+    }
+}
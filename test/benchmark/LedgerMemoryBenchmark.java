@@ -0,0 +1,60 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentInstance;
+import payment.PaymentLedger;
+import payment.PremiumPaymentFrequency;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// run once per layout in a fresh JVM, e.g. "50000000 ledger" and "5000000 skiplist"
+public class LedgerMemoryBenchmark {
+    private static final int CONTRACTS = 100_000;
+
+    public static void main(String[] args) {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        boolean ledgerLayout = args.length < 2 || args[1].equals("ledger");
+
+        InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person holder = new Person("12345678");
+        AbstractContract[] contracts = new AbstractContract[CONTRACTS];
+        for (int i = 0; i < CONTRACTS; i++) {
+            contracts[i] = company.insureVehicle("c" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL,
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        long baseline = usedHeap();
+
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        PaymentLedger ledger = new PaymentLedger();
+        Map<AbstractContract, Set<PaymentInstance>> history = new ConcurrentHashMap<>();
+        long begin = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            AbstractContract contract = contracts[i % CONTRACTS];
+            LocalDateTime paymentTime = start.plusSeconds(i);
+            if (ledgerLayout) ledger.record(contract, paymentTime, 1 + i % 1000);
+            else history.computeIfAbsent(contract, c -> new ConcurrentSkipListSet<>()).add(new PaymentInstance(paymentTime, 1 + i % 1000));
+        }
+        long nanos = System.nanoTime() - begin;
+        long used = usedHeap() - baseline;
+
+        System.out.printf("%s: %,d payments, %,d MB, %.1f bytes/payment, %.0f ns/payment%n", ledgerLayout ? "ledger" : "skiplist",
+                payments, used >> 20, (double) used / payments, (double) nanos / payments);
+        Reference.reachabilityFence(ledger);
+        Reference.reachabilityFence(history);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+}
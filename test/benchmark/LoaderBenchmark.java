@@ -0,0 +1,48 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import loader.InputFormat;
+import loader.LoadReport;
+import loader.PortfolioLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+public class LoaderBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path input = Files.createTempFile("portfolio", ".csv");
+        Path rejects = Files.createTempFile("rejects", ".tsv");
+        try {
+            writePortfolio(input, rows);
+
+            InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+            LoadReport report = new PortfolioLoader(company).load(input, InputFormat.CSV, rejects);
+            System.out.printf("rows=%d file=%d MB %s%n", rows, Files.size(input) >> 20, report);
+            System.out.printf("%,.0f contracts/s%n", report.getContractsPerSecond());
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    static void writePortfolio(Path path, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("type,contractNumber,policyHolder,beneficiary,premium,frequency,licensePlate,vehicleValue,insuredPersons");
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                String holder = String.format("%08d", i % 100_000);
+                if (i % 10 == 9) {
+                    writer.write("TRAVEL,t" + i + "," + holder + ",,100,MONTHLY,,,8351068242;0402114911");
+                } else {
+                    writer.write("VEHICLE,c" + i + "," + holder + ",,1000,ANNUAL," + ContractRegistryBenchmark.plate(i) + ",20000,");
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+// what the instrumentation adds to one operation: a histogram record and a counter increment, which are held to the budget,
+// and the two clock reads around the operation, whose cost depends on the clock source of the machine
+public class MetricsBenchmark {
+    private static final int OPERATIONS = 50_000_000;
+    private static final double BUDGET_NANOS = 50;
+    static long sink;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        for (int round = 0; round < rounds; round++) {
+            MetricsRegistry registry = new MetricsRegistry();
+            LatencyHistogram histogram = registry.histogram("operation");
+            Counter counter = registry.counter("amount");
+
+            double baseline = measure(threads, i -> sink += i ^ (i >>> 3));
+            double record = measure(threads, i -> histogram.record(200 + (i & 0xFFF)));
+            double recordSince = measure(threads, i -> histogram.recordSince(System.nanoTime() - 100));
+            double increment = measure(threads, i -> counter.add(i & 0xFF));
+            double recording = record + increment - 2 * baseline;
+
+            System.out.printf("round %d, %d thread(s): record %5.1f ns, counter %5.1f ns, recording %5.1f ns %s, clock reads %5.1f ns%n",
+                    round, threads, record - baseline, increment - baseline, recording, recording <= BUDGET_NANOS ? "within budget" : "OVER BUDGET", recordSince - record);
+            sink += histogram.snapshot().getCount() + counter.getCount();
+        }
+    }
+
+    private interface Operation {
+        void run(int i);
+    }
+
+    // ns per operation of one thread, each thread runs its share of the operations, so use no more threads than cores
+    private static double measure(int threads, Operation operation) {
+        Thread[] workers = new Thread[threads];
+        int share = OPERATIONS / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    operation.run(i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return (double) (System.nanoTime() - start) * threads / OPERATIONS;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentRecord;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PaymentBatchBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int contracts = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int payments = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        List<PaymentRecord> statement = new ArrayList<>(payments);
+        Random random = new Random(1);
+        for (int i = 0; i < payments; i++) {
+            statement.add(new PaymentRecord("c" + random.nextInt(contracts), 1 + random.nextInt(1000), START.plusSeconds(i)));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            InsuranceCompany single = build(contracts);
+            long start = System.nanoTime();
+            for (PaymentRecord record : statement) {
+                AbstractContract contract = single.findContract(record.getContractNumber());
+                single.setCurrentTime(record.getPaymentTime());
+                single.getHandler().pay(contract, record.getAmount());
+            }
+            long singleNanos = System.nanoTime() - start;
+
+            InsuranceCompany batch = build(contracts);
+            start = System.nanoTime();
+            batch.getHandler().payAll(statement);
+            long batchNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: pay() %,12.0f payments/s   payAll() %,12.0f payments/s%n",
+                    round, payments / (singleNanos / 1e9), payments / (batchNanos / 1e9));
+        }
+    }
+
+    private static InsuranceCompany build(int size) {
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person[] holders = new Person[Math.min(size, 10_000)];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new Person(String.format("%08d", i));
+        }
+        for (int i = 0; i < size; i++) {
+            company.insureVehicle("c" + i, null, holders[i % holders.length], 1000, PremiumPaymentFrequency.ANNUAL,
+                    new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        return company;
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentDataLayout;
+import payment.PremiumPaymentFrequency;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+
+// run once per layout in a fresh JVM, e.g. "1000000 OBJECTS" and "1000000 COMPACT"
+public class PaymentDataLayoutBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int MONTHS = 24;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        PaymentDataLayout layout = args.length > 1 ? PaymentDataLayout.valueOf(args[1]) : PaymentDataLayout.COMPACT;
+
+        long baseline = usedHeap();
+        InsuranceCompany company = new InsuranceCompany(START, layout);
+        Person holder = new Person("12345678");
+        for (int i = 0; i < size; i++) {
+            company.setCurrentTime(START.plusMinutes(i % 40_000));
+            company.insureVehicle("c" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        long used = usedHeap() - baseline;
+
+        // every contract is monthly, so each run bills the whole portfolio once
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int month = 1; month <= MONTHS; month++) {
+            company.setCurrentTime(START.plusMonths(month).plusDays(1));
+            long begin = System.nanoTime();
+            company.chargePremiumsOnContracts();
+            long nanos = System.nanoTime() - begin;
+            if (month > MONTHS / 2) {
+                best = Math.min(best, nanos);
+                total += nanos;
+            }
+        }
+
+        System.out.printf("%s: %,d contracts, %.1f bytes/contract, billing %.1f ns/contract (best %.1f)%n", layout, size,
+                (double) used / size, (double) total / (MONTHS / 2) / size, (double) best / size);
+        Reference.reachabilityFence(company);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import objects.Person;
+import objects.PersonRegistry;
+import objects.PoolRetention;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+
+// run once per mode in a fresh JVM, e.g. "10000000 MAP", "10000000 STRONG" and "10000000 WEAK",
+// MAP is the id keyed HashMap the loader and the journal used, every id is interned twice from a freshly read string
+public class PersonRegistryBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String mode = args.length > 1 ? args[1] : "STRONG";
+
+        long baseline = usedHeap();
+        Map<String, Person> map = mode.equals("MAP") ? new HashMap<>() : null;
+        PersonRegistry registry = mode.equals("MAP") ? null : new PersonRegistry(PoolRetention.valueOf(mode));
+        // the weak registry only keeps the persons something else refers to, as the contracts of a company do
+        Person[] referenced = mode.equals("WEAK") ? new Person[size] : null;
+
+        long begin = System.nanoTime();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < size; i++) {
+                String id = id(i);
+                Person person = map != null ? map.computeIfAbsent(id, Person::new) : registry.intern(id);
+                if (referenced != null) referenced[i] = person;
+            }
+        }
+        long internNanos = System.nanoTime() - begin;
+        long used = usedHeap() - baseline - (referenced == null ? 0 : 16L + 4L * size);
+
+        begin = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < 5_000_000; i++) {
+            String id = id((int) (i * 7919L % size));
+            if ((map != null ? map.get(id) : registry.find(id)) != null) found++;
+        }
+        long findNanos = System.nanoTime() - begin;
+        if (found != 5_000_000) throw new IllegalStateException("Lost persons!");
+
+        System.out.printf("%s: %,d persons, heap %.1f B/person including the person, intern %.0f ns, find %.0f ns%n",
+                mode, size, (double) used / size, internNanos / (2.0 * size), findNanos / 5e6);
+        Reference.reachabilityFence(map);
+        Reference.reachabilityFence(registry);
+        Reference.reachabilityFence(referenced);
+    }
+
+    private static String id(int i) {
+        char[] digits = new char[8];
+        for (int j = 7; j >= 0; j--) {
+            digits[j] = (char) ('0' + i % 10);
+            i /= 10;
+        }
+        return new String(digits);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import objects.Person;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class PersonValidationBenchmark {
+    private static final int IDS = 1 << 16;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        Random random = new Random(1);
+        String[] valid = new String[IDS];
+        String[] invalid = new String[IDS];
+        for (int i = 0; i < IDS; i++) {
+            valid[i] = i % 2 == 0 ? String.format("%08d", random.nextInt(100_000_000)) : birthNumber(random, 1 + random.nextInt(28));
+            invalid[i] = i % 2 == 0 ? String.format("%05dX%03d", random.nextInt(100_000), random.nextInt(1000)) : birthNumber(random, 32);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%10s %12s %14s%n", "ids", "ns/call", "bytes/call");
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String[] ids : new String[][]{valid, invalid}) {
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                int accepted = 0;
+                for (int i = 0; i < calls; i++) {
+                    if (Person.isValidRegistrationNumber(ids[i & (IDS - 1)])) accepted++;
+                }
+                long nanos = System.nanoTime() - start;
+                bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+                if ((ids == valid) != (accepted == calls) || ids == invalid && accepted != 0) throw new IllegalStateException("Unexpected validation result!");
+                System.out.printf("%10s %12.1f %14.2f%n", ids == valid ? "valid" : "invalid", (double) nanos / calls, (double) bytes / calls);
+            }
+        }
+    }
+
+    // a ten digit birth number with a checksum divisible by eleven, so its date is checked
+    private static String birthNumber(Random random, int day) {
+        while (true) {
+            long number = (long) (54 + random.nextInt(46)) * 100_000_000L + (1 + random.nextInt(12) + (random.nextBoolean() ? 50 : 0)) * 1_000_000L
+                    + day * 10_000L + random.nextInt(10_000);
+            if (number % 11 == 0) return Long.toString(number);
+        }
+    }
+}
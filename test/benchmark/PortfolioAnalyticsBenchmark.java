@@ -0,0 +1,73 @@
+package benchmark;
+
+import analytics.PortfolioAnalytics;
+import analytics.PortfolioSnapshot;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// the management report computed by scanning every contract and person against a read of the running aggregates,
+// and what keeping the aggregates costs a billing run and a round of payments
+public class PortfolioAnalyticsBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        for (int round = 0; round < rounds; round++) {
+            long plain = operate(build(size), false);
+            InsuranceCompany company = build(size);
+            long attached = operate(company, true);
+            PortfolioAnalytics analytics = company.getListener() instanceof PortfolioAnalytics ? (PortfolioAnalytics) company.getListener() : null;
+
+            long start = System.nanoTime();
+            PortfolioSnapshot scanned = PortfolioAnalytics.recompute(company);
+            long scanNanos = System.nanoTime() - start;
+
+            int reads = 1_000_000;
+            long sink = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                sink += analytics.snapshot().getOutstandingBalance();
+            }
+            long readNanos = System.nanoTime() - start;
+            if (!analytics.checkConsistency().isEmpty() || sink / reads != scanned.getOutstandingBalance()) throw new IllegalStateException("Aggregates differ!");
+
+            System.out.printf("round %d: %,d contracts, recompute %,8.1f ms, snapshot %,6.0f ns, billing+payments %,6.0f ms plain %,6.0f ms with analytics%n",
+                    round, size, scanNanos / 1e6, (double) readNanos / reads, plain / 1e6, attached / 1e6);
+        }
+    }
+
+    private static InsuranceCompany build(int size) {
+        InsuranceCompany company = new InsuranceCompany(START);
+        Person holder = new Person("99999999");
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        for (int i = 0; i < size; i++) {
+            company.insureVehicle("c" + i, null, holder, 1000, frequencies[i % frequencies.length], new Vehicle(ContractRegistryBenchmark.plate(i), 20_000));
+        }
+        return company;
+    }
+
+    // a year of monthly billing runs and a payment on every contract after each
+    private static long operate(InsuranceCompany company, boolean withAnalytics) {
+        if (withAnalytics) PortfolioAnalytics.attach(company);
+        List<AbstractContract> contracts = new ArrayList<>(company.getContracts());
+        System.gc();
+        long start = System.nanoTime();
+        for (int month = 1; month <= 12; month++) {
+            company.setCurrentTime(START.plusMonths(month));
+            company.chargePremiumsOnContracts();
+            for (AbstractContract contract : contracts) {
+                contract.pay(100);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import company.ShardedInsuranceCompany;
+import contracts.AbstractContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// the same number of threads sending 20% vehicle insurances, 75% payments and 5% vehicle claims to companies of 1 to as many shards as threads or twice the cores,
+// with one shard every operation waits for the same lock, like a single company behind a lock
+public class ShardedCompanyBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, cores);
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int preloaded = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        System.out.printf("%d cores, %d threads%n", cores, threads);
+        for (int round = 0; round < 2; round++) {
+            for (int shards = 1; shards <= Math.max(threads, 2 * cores); shards *= 2) {
+                ShardedInsuranceCompany company = new ShardedInsuranceCompany(START, shards);
+                Person holder = new Person("99999999");
+                List<AbstractContract> contracts = new ArrayList<>(preloaded);
+                for (int i = 0; i < preloaded; i++) {
+                    contracts.add(company.insureVehicle("c" + i, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle(ContractRegistryBenchmark.plate(i), 20_000)));
+                }
+                System.gc();
+
+                long start = System.nanoTime();
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<?>> runs = new ArrayList<>();
+                    for (int t = 0; t < threads; t++) {
+                        int thread = t;
+                        runs.add(executor.submit(() -> operate(company, contracts, thread, operations / threads)));
+                    }
+                    for (Future<?> run : runs) {
+                        run.get();
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+                long nanos = System.nanoTime() - start;
+                System.out.printf("round %d: %2d shards, %,d operations in %,6.0f ms, %,10.0f operations/s, %,d contracts%n",
+                        round, shards, operations, nanos / 1e6, operations / (nanos / 1e9), company.countContracts());
+            }
+        }
+    }
+
+    private static void operate(ShardedInsuranceCompany company, List<AbstractContract> contracts, int thread, int operations) {
+        // a holder per thread, the contracts of a person are added one shard at a time
+        Person holder = new Person(String.format("%08d", 10_000_000 + thread));
+        Random random = new Random(thread);
+        for (int i = 0; i < operations; i++) {
+            int operation = random.nextInt(100);
+            AbstractContract contract = contracts.get(random.nextInt(contracts.size()));
+            if (operation < 20) {
+                String number = "n" + thread + "-" + i;
+                company.insureVehicle(number, null, holder, 1000, PremiumPaymentFrequency.ANNUAL, new Vehicle("N" + ContractRegistryBenchmark.plate(thread * operations + i).substring(1), 20_000));
+            } else if (operation < 95) {
+                company.pay(contract, 1 + random.nextInt(100));
+            } else {
+                // damages below 70% of the vehicle value keep the contracts active
+                company.processClaim((SingleVehicleContract) contract, 1 + random.nextInt(10_000));
+            }
+        }
+    }
+}
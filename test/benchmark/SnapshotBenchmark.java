@@ -0,0 +1,47 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import loader.InputFormat;
+import loader.PortfolioLoader;
+import persistence.SnapshotReader;
+import persistence.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path input = Files.createTempFile("portfolio", ".csv");
+        Path snapshot = Files.createTempFile("company", ".snapshot");
+        try {
+            LoaderBenchmark.writePortfolio(input, rows);
+
+            long start = System.nanoTime();
+            InsuranceCompany company = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+            new PortfolioLoader(company).load(input, InputFormat.CSV, null);
+            long importNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SnapshotWriter.write(company, snapshot);
+            long writeNanos = System.nanoTime() - start;
+            company = null;
+            System.gc();
+
+            start = System.nanoTime();
+            InsuranceCompany restored = SnapshotReader.read(snapshot);
+            long readNanos = System.nanoTime() - start;
+
+            System.out.printf("contracts=%d csv=%d MB snapshot=%d MB%n", restored.getContracts().size(), Files.size(input) >> 20, Files.size(snapshot) >> 20);
+            System.out.printf("re-import       : %8.2f s%n", importNanos / 1e9);
+            System.out.printf("snapshot write  : %8.2f s%n", writeNanos / 1e9);
+            System.out.printf("snapshot restore: %8.2f s%n", readNanos / 1e9);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+}
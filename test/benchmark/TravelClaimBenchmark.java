@@ -0,0 +1,70 @@
+package benchmark;
+
+import company.InsuranceCompany;
+import contracts.TravelContract;
+import objects.Person;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+
+// group travel contracts handed over as a TreeSet, one traveller claims on each contract,
+// "caller set" repeats what processClaim did before: containsAll on the caller's set and a payout loop over the whole group
+public class TravelClaimBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int[] GROUP_SIZES = {10, 100, 1_000, 10_000, 100_000};
+    // keeps the emulated payout loop from being optimized away
+    static long sink;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+        System.out.printf("%8s %14s %18s %18s%n", "group", "insure ns/p", "caller set ns", "processClaim ns");
+        for (int round = 0; round < rounds; round++) {
+            for (int size : GROUP_SIZES) {
+                run(size);
+            }
+        }
+    }
+
+    private static void run(int size) {
+        InsuranceCompany company = new InsuranceCompany(START);
+        Set<Person> group = new TreeSet<>(Comparator.comparing(Person::getId));
+        for (int i = 0; i < size; i++) {
+            group.add(new Person(String.format("%08d", i + 1)));
+        }
+        Person[] travellers = group.toArray(new Person[0]);
+        int contracts = Math.max(10, 1_000_000 / size);
+
+        long begin = System.nanoTime();
+        TravelContract[] travelContracts = new TravelContract[contracts];
+        for (int i = 0; i < contracts; i++) {
+            travelContracts[i] = company.insurePersons("t" + i, travellers[0], size, PremiumPaymentFrequency.MONTHLY, group);
+        }
+        long insureNanos = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        long paid = 0;
+        for (int i = 0; i < contracts; i++) {
+            Set<Person> affected = Set.of(travellers[(i * 7919) % size]);
+            if (!group.containsAll(affected)) throw new IllegalStateException("Not insured!");
+            int sum = travelContracts[i].getCoverageAmount() / affected.size();
+            for (Person person : group) {
+                paid += sum + person.getId().length();
+            }
+        }
+        long callerSetNanos = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        for (int i = 0; i < contracts; i++) {
+            company.processClaim(travelContracts[i], Set.of(travellers[(i * 7919) % size]));
+        }
+        long claimNanos = System.nanoTime() - begin;
+
+        System.out.printf("%8d %14.1f %18.0f %18.0f%n", size, (double) insureNanos / contracts / size, (double) callerSetNanos / contracts,
+                (double) claimNanos / contracts);
+        sink += paid;
+    }
+}